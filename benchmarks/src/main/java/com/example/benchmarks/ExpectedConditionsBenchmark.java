@@ -0,0 +1,54 @@
+package com.example.benchmarks;
+
+import com.example.locators.PageSnapshot;
+import io.appium.java_client.AppiumBy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.By;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One evaluation round of the visibility checks the page objects use to decide which screen is shown
+ * The last candidate is the visible one, so every earlier candidate costs a failed lookup first
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j.configurationFile=log4j2-benchmark.xml")
+public class ExpectedConditionsBenchmark {
+
+    private static final By ALERT_TITLE = AppiumBy.id("org.wikipedia:id/alertTitle");
+    private static final By SEARCH_EMPTY_MESSAGE = AppiumBy.id("org.wikipedia:id/search_empty_message");
+    private static final By SEARCH_CONTAINER = AppiumBy.id("org.wikipedia:id/search_container");
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @Benchmark
+    public Boolean singleCondition(StubDriverState state) {
+        return new WebDriverWait(state.driver, TIMEOUT)
+                .until(ExpectedConditions.visibilityOfElementLocated(SEARCH_CONTAINER)).isDisplayed();
+    }
+
+    @Benchmark
+    public Boolean orOfThreeConditions(StubDriverState state) {
+        return new WebDriverWait(state.driver, TIMEOUT).until(ExpectedConditions.or(
+                ExpectedConditions.visibilityOfElementLocated(ALERT_TITLE),
+                ExpectedConditions.visibilityOfElementLocated(SEARCH_EMPTY_MESSAGE),
+                ExpectedConditions.visibilityOfElementLocated(SEARCH_CONTAINER)));
+    }
+
+    // What the page objects do instead since snapshot-based checks: one page source, evaluated locally
+    @Benchmark
+    public boolean snapshotAnyVisible(StubDriverState state) {
+        return PageSnapshot.capture(state.driver).anyVisible(ALERT_TITLE, SEARCH_EMPTY_MESSAGE, SEARCH_CONTAINER);
+    }
+}
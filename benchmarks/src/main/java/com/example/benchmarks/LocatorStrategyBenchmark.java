@@ -0,0 +1,76 @@
+package com.example.benchmarks;
+
+import com.example.locators.LocatorCompiler;
+import io.appium.java_client.AppiumBy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * findElements for the same main-screen element through each locator strategy used in the page objects
+ * The stub evaluates every strategy in-process, so differences are client-side and stub cost only;
+ * on a device the XPath rows additionally pay for the UiAutomator2 hierarchy dump
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j.configurationFile=log4j2-benchmark.xml")
+@State(Scope.Benchmark)
+public class LocatorStrategyBenchmark {
+
+    @Param({"id", "accessibilityId", "className", "xpathAttribute", "xpathDescendant", "uiAutomator"})
+    public String strategy;
+
+    private By locator;
+
+    @Setup
+    public void selectLocator() {
+        switch (strategy) {
+            case "id":
+                locator = AppiumBy.id("org.wikipedia:id/search_container");
+                break;
+            case "accessibilityId":
+                locator = AppiumBy.accessibilityId("Search Wikipedia");
+                break;
+            case "className":
+                locator = AppiumBy.className("androidx.recyclerview.widget.RecyclerView");
+                break;
+            case "xpathAttribute":
+                locator = AppiumBy.xpath("//android.widget.TextView[@text='Search Wikipedia']");
+                break;
+            case "xpathDescendant":
+                locator = AppiumBy.xpath("//android.widget.LinearLayout[@resource-id='org.wikipedia:id/search_container']//android.widget.TextView");
+                break;
+            case "uiAutomator":
+                locator = AppiumBy.androidUIAutomator("new UiSelector().resourceId(\"org.wikipedia:id/search_container\")");
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown strategy " + strategy);
+        }
+    }
+
+    @Benchmark
+    public List<WebElement> findElements(StubDriverState state) {
+        return state.driver.findElements(locator);
+    }
+
+    // Same locator through LocatorCompiler, which rewrites supported XPath into id/UiSelector lookups
+    @Benchmark
+    public List<WebElement> findElementsCompiled(StubDriverState state) {
+        return LocatorCompiler.findAll(state.driver, locator);
+    }
+}
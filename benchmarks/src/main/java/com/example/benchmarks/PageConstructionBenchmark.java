@@ -0,0 +1,138 @@
+package com.example.benchmarks;
+
+import com.example.locators.CompiledElementLocator;
+import com.example.locators.ElementCache;
+import com.example.locators.FieldLocators;
+import com.example.locators.PageFields;
+import com.example.pages.PageRegistry;
+import com.example.pages.RegistrationPage;
+import com.example.pages.WikipediaMainPage;
+import com.example.pages.WikipediaSearchPage;
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.pagefactory.AndroidFindBy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.PageFactory;
+import org.openqa.selenium.support.pagefactory.DefaultFieldDecorator;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of getting a page object: building one (BasePage fields plus a proxy per @AndroidFindBy field from the
+ * per-class metadata) and taking the session's instance from the PageRegistry, as navigation does
+ * No element is touched, so no command reaches the stub. The *Fields rows set the @AndroidFindBy fields of an already
+ * built page again, through PageFactory.initElements with an eager decorator as pages did before PageFields (eager)
+ * and through PageFields (lazy), so the two paths are compared on the same page class
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j.configurationFile=log4j2-benchmark.xml")
+public class PageConstructionBenchmark {
+
+    // Only handed to the locators; no field is looked up
+    private static final Duration FIELD_WAIT = Duration.ofSeconds(5);
+
+    @Benchmark
+    public WikipediaMainPage mainPage(StubDriverState state) {
+        return new WikipediaMainPage(state.driver);
+    }
+
+    @Benchmark
+    public WikipediaSearchPage searchPage(StubDriverState state) {
+        return new WikipediaSearchPage(state.driver);
+    }
+
+    @Benchmark
+    public RegistrationPage registrationPage(StubDriverState state) {
+        return new RegistrationPage(state.driver);
+    }
+
+    @Benchmark
+    public WikipediaMainPage registryMainPage(StubDriverState state) {
+        return PageRegistry.of(state.driver).get(WikipediaMainPage.class);
+    }
+
+    @Benchmark
+    public WikipediaSearchPage registrySearchPage(StubDriverState state) {
+        return PageRegistry.of(state.driver).get(WikipediaSearchPage.class);
+    }
+
+    @Benchmark
+    public WikipediaMainPage mainPageFieldsEager(BuiltPages pages) {
+        PageFactory.initElements(new EagerFieldDecorator(pages.driver), pages.mainPage);
+        return pages.mainPage;
+    }
+
+    @Benchmark
+    public WikipediaMainPage mainPageFieldsLazy(BuiltPages pages) {
+        PageFields.of(WikipediaMainPage.class).inject(pages.mainPage, pages.driver, FIELD_WAIT, pages.cache);
+        return pages.mainPage;
+    }
+
+    @Benchmark
+    public WikipediaSearchPage searchPageFieldsEager(BuiltPages pages) {
+        PageFactory.initElements(new EagerFieldDecorator(pages.driver), pages.searchPage);
+        return pages.searchPage;
+    }
+
+    @Benchmark
+    public WikipediaSearchPage searchPageFieldsLazy(BuiltPages pages) {
+        PageFields.of(WikipediaSearchPage.class).inject(pages.searchPage, pages.driver, FIELD_WAIT, pages.cache);
+        return pages.searchPage;
+    }
+
+    @State(Scope.Benchmark)
+    public static class BuiltPages {
+        AppiumDriver driver;
+        WikipediaMainPage mainPage;
+        WikipediaSearchPage searchPage;
+        final ElementCache cache = new ElementCache();
+
+        @Setup
+        public void buildPages(StubDriverState state) {
+            driver = state.driver;
+            mainPage = new WikipediaMainPage(driver);
+            searchPage = new WikipediaSearchPage(driver);
+        }
+    }
+
+    /**
+     * The decorator pages were built with before PageFields: PageFactory walks every field of the class and its
+     * annotations, and each annotated field gets its compiled locator and a new Proxy.newProxyInstance on the spot
+     */
+    private static final class EagerFieldDecorator extends DefaultFieldDecorator {
+
+        EagerFieldDecorator(SearchContext context) {
+            super(field -> field.getAnnotation(AndroidFindBy.class) == null ? null
+                    : new CompiledElementLocator(context,
+                            FieldLocators.of(field.getDeclaringClass(), field.getName()), FIELD_WAIT));
+        }
+
+        @Override
+        protected boolean isDecoratableList(Field field) {
+            if (!List.class.isAssignableFrom(field.getType()) || field.getAnnotation(AndroidFindBy.class) == null) {
+                return false;
+            }
+            Type genericType = field.getGenericType();
+            return genericType instanceof ParameterizedType
+                    && WebElement.class.equals(((ParameterizedType) genericType).getActualTypeArguments()[0]);
+        }
+    }
+}
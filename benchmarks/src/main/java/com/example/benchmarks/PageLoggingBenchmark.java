@@ -0,0 +1,57 @@
+package com.example.benchmarks;
+
+import com.example.pages.WikipediaSearchPage;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call cost of the log statements in the page objects, through a page-object logger and the file appenders
+ * of the test log4j2 configuration (the console appender is left out so the JMH output stays readable)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j.configurationFile=log4j2-benchmark.xml")
+@State(Scope.Benchmark)
+public class PageLoggingBenchmark {
+
+    private static final Logger logger = LogManager.getLogger(WikipediaSearchPage.class);
+
+    @Param({"Java programming"})
+    public String searchTerm;
+
+    // Style used throughout the page objects
+    @Benchmark
+    public void infoConcatenated() {
+        logger.info("Entered search term: " + searchTerm);
+    }
+
+    @Benchmark
+    public void infoParameterized() {
+        logger.info("Entered search term: {}", searchTerm);
+    }
+
+    // Below the configured INFO level: concatenation still builds the message, a parameterized call does not
+    @Benchmark
+    public void debugConcatenatedDisabled() {
+        logger.debug("Entered search term: " + searchTerm);
+    }
+
+    @Benchmark
+    public void debugParameterizedDisabled() {
+        logger.debug("Entered search term: {}", searchTerm);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.benchmarks;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.Step;
+import io.qameta.allure.model.TestResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead the Allure StepsAspects add to every @Step page-object method
+ * Needs the AspectJ weaver agent on the JVM running the benchmarks (forks inherit it); without it the setup fails
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Dlog4j.configurationFile=log4j2-benchmark.xml",
+        "-Dallure.results.directory=target/allure-results"})
+@State(Scope.Thread)
+public class StepWeavingBenchmark {
+
+    // Finished steps are dropped regularly so the test case does not grow for the whole iteration
+    private static final int STEPS_PER_FLUSH = 4096;
+
+    private final AllureLifecycle lifecycle = Allure.getLifecycle();
+    private String testCaseUuid;
+    private int stepsSinceFlush;
+
+    @Setup(Level.Iteration)
+    public void startTestCase() {
+        testCaseUuid = UUID.randomUUID().toString();
+        lifecycle.scheduleTestCase(new TestResult().setUuid(testCaseUuid).setName("StepWeavingBenchmark"));
+        lifecycle.startTestCase(testCaseUuid);
+        steppedAction("weaving check");
+        if (flushSteps() == 0) {
+            // Both rows would measure the same plain call
+            throw new IllegalStateException("@Step methods are not woven; run the benchmarks with -javaagent:aspectjweaver.jar");
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void stopTestCase() {
+        flushSteps();
+        lifecycle.stopTestCase(testCaseUuid);
+        lifecycle.writeTestCase(testCaseUuid);
+    }
+
+    @Benchmark
+    public String stepAnnotated() {
+        String result = steppedAction("Java programming");
+        if (++stepsSinceFlush == STEPS_PER_FLUSH) {
+            flushSteps();
+        }
+        return result;
+    }
+
+    @Benchmark
+    public String plainMethod() {
+        return plainAction("Java programming");
+    }
+
+    @Step("Enter search term: {searchTerm}")
+    public String steppedAction(String searchTerm) {
+        return searchTerm.trim();
+    }
+
+    public String plainAction(String searchTerm) {
+        return searchTerm.trim();
+    }
+
+    // Drops the recorded steps and returns how many there were
+    private int flushSteps() {
+        stepsSinceFlush = 0;
+        int[] dropped = {0};
+        lifecycle.updateTestCase(testCaseUuid, testCase -> {
+            dropped[0] = testCase.getSteps().size();
+            testCase.getSteps().clear();
+        });
+        return dropped[0];
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.benchmarks;
+
+import com.example.stub.StubWebDriverServer;
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.android.AndroidDriver;
+import io.appium.java_client.android.options.UiAutomator2Options;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.time.Duration;
+
+/**
+ * Driver connected to an embedded stub server showing the Wikipedia main screen
+ * Everything measured against it is framework and HTTP overhead, there is no device time in the numbers
+ */
+@State(Scope.Benchmark)
+public class StubDriverState {
+
+    StubWebDriverServer server;
+    AppiumDriver driver;
+
+    @Setup(Level.Trial)
+    public void startStub() {
+        server = new StubWebDriverServer().start();
+        UiAutomator2Options options = new UiAutomator2Options();
+        options.setAppPackage("org.wikipedia");
+        driver = new AndroidDriver(server.getUrl(), options);
+        driver.manage().timeouts().implicitlyWait(Duration.ZERO);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopStub() {
+        driver.quit();
+        server.close();
+    }
+}
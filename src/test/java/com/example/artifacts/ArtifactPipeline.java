@@ -0,0 +1,222 @@
+package com.example.artifacts;
+
+import com.example.config.RunConfig;
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes screenshots off the test thread
+ * The Allure attachment is registered on the test thread (so it lands on the right test or fixture)
+ * and its content is streamed from the written file by a bounded pool of writer threads.
+ * When the queue is full the submitting thread does the write itself, which bounds the screenshots held in memory.
+ * Identical screenshots (same SHA-256) are written to target/screenshots only once.
+ */
+public class ArtifactPipeline {
+
+    private static final Logger logger = LogManager.getLogger(ArtifactPipeline.class);
+    private static final ArtifactPipeline GLOBAL = new ArtifactPipeline(
+            Paths.get("target", "screenshots"),
+            RunConfig.get().getArtifactWriters(),
+            RunConfig.get().getArtifactQueue(),
+            ScreenshotEncoder.fromConfig(RunConfig.get()),
+            Allure.getLifecycle());
+
+    private final Path screenshotDir;
+    private final ScreenshotEncoder encoder;
+    private final AllureLifecycle lifecycle;
+    private final ThreadPoolExecutor writers;
+    private final Map<String, CompletableFuture<Path>> writtenByHash = new ConcurrentHashMap<>();
+
+    private final Object idleLock = new Object();
+    private int pending;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong deduplicated = new AtomicLong();
+    private final AtomicLong callerRuns = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong bytesIn = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+
+    public static ArtifactPipeline global() {
+        return GLOBAL;
+    }
+
+    public ArtifactPipeline(Path screenshotDir, int writerThreads, int queueCapacity,
+                            ScreenshotEncoder encoder, AllureLifecycle lifecycle) {
+        if (writerThreads < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("writerThreads and queueCapacity must be at least 1");
+        }
+        this.screenshotDir = screenshotDir;
+        this.encoder = encoder;
+        this.lifecycle = lifecycle;
+        this.writers = new ThreadPoolExecutor(writerThreads, writerThreads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), writerThreadFactory(),
+                (task, executor) -> {
+                    // Backpressure: the producer pays for the write instead of queueing more screenshots
+                    callerRuns.incrementAndGet();
+                    task.run();
+                });
+        this.writers.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Attach a PNG screenshot to the running test and save it as &lt;fileStem&gt;_&lt;timestamp&gt; in the screenshot directory
+     * Returns immediately unless the writer queue is full
+     */
+    public void attachScreenshot(String name, String fileStem, byte[] png) {
+        String source = lifecycle.prepareAttachment(name, encoder.getMimeType(), encoder.getExtension());
+        submitted.incrementAndGet();
+        bytesIn.addAndGet(png.length);
+        submit(() -> {
+            Path file = store(fileStem, png);
+            try (InputStream content = Files.newInputStream(file)) {
+                lifecycle.writeAttachment(source, content);
+            }
+        });
+    }
+
+    /**
+     * Block until every queued artifact has been written
+     */
+    public boolean awaitIdle(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (idleLock) {
+            while (pending > 0) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(idleLock, remaining);
+            }
+            return true;
+        }
+    }
+
+    public long getSubmitted() {
+        return submitted.get();
+    }
+
+    public long getWritten() {
+        return written.get();
+    }
+
+    public long getDeduplicated() {
+        return deduplicated.get();
+    }
+
+    public long getCallerRuns() {
+        return callerRuns.get();
+    }
+
+    public long getFailures() {
+        return failures.get();
+    }
+
+    @Override
+    public String toString() {
+        return "submitted=" + getSubmitted()
+                + ", written=" + getWritten()
+                + ", deduplicated=" + getDeduplicated()
+                + ", callerRuns=" + getCallerRuns()
+                + ", failures=" + getFailures()
+                + ", bytesIn=" + bytesIn.get()
+                + ", bytesWritten=" + bytesWritten.get();
+    }
+
+    private void submit(IoTask task) {
+        synchronized (idleLock) {
+            pending++;
+        }
+        writers.execute(() -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                failures.incrementAndGet();
+                logger.error("Failed to write artifact", e);
+            } finally {
+                synchronized (idleLock) {
+                    if (--pending == 0) {
+                        idleLock.notifyAll();
+                    }
+                }
+            }
+        });
+    }
+
+    // The first thread to see a hash encodes and writes it, later ones reuse that file
+    private Path store(String fileStem, byte[] png) throws IOException {
+        CompletableFuture<Path> mine = new CompletableFuture<>();
+        String hash = sha256(png);
+        CompletableFuture<Path> existing = writtenByHash.putIfAbsent(hash, mine);
+        if (existing != null) {
+            Path file = existing.join();
+            deduplicated.incrementAndGet();
+            logger.info("Screenshot identical to " + file + ", not written again");
+            return file;
+        }
+        try {
+            byte[] encoded = encoder.encode(png);
+            Files.createDirectories(screenshotDir);
+            Path file = screenshotDir.resolve(fileStem + "_" + System.currentTimeMillis() + encoder.getExtension());
+            Files.write(file, encoded);
+            written.incrementAndGet();
+            bytesWritten.addAndGet(encoded.length);
+            logger.info("Screenshot captured: " + file);
+            mine.complete(file);
+            return file;
+        } catch (IOException | RuntimeException e) {
+            // Let the next identical screenshot try again
+            writtenByHash.remove(hash, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ThreadFactory writerThreadFactory() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "artifact-writer-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @FunctionalInterface
+    private interface IoTask {
+        void run() throws IOException;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.artifacts;
+
+import com.example.config.RunConfig;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Optional re-encoding of PNG screenshots before they are stored
+ * -Dscreenshots.format=png|jpeg, -Dscreenshots.scale=0.5 (downscale factor), -Dscreenshots.quality=0.8 (JPEG only)
+ * The default (png, scale 1) keeps the device's bytes untouched
+ */
+public class ScreenshotEncoder {
+
+    public enum Format {
+        PNG("image/png", ".png"),
+        JPEG("image/jpeg", ".jpg");
+
+        private final String mimeType;
+        private final String extension;
+
+        Format(String mimeType, String extension) {
+            this.mimeType = mimeType;
+            this.extension = extension;
+        }
+    }
+
+    private final Format format;
+    private final double scale;
+    private final float quality;
+
+    public ScreenshotEncoder(Format format, double scale, float quality) {
+        if (scale <= 0 || scale > 1) {
+            throw new IllegalArgumentException("scale must be in (0, 1]: " + scale);
+        }
+        this.format = format;
+        this.scale = scale;
+        this.quality = quality;
+    }
+
+    public static ScreenshotEncoder fromConfig(RunConfig config) {
+        return new ScreenshotEncoder(Format.valueOf(config.getScreenshotFormat().toUpperCase(Locale.ROOT)),
+                config.getScreenshotScale(), (float) config.getScreenshotQuality());
+    }
+
+    public String getMimeType() {
+        return format.mimeType;
+    }
+
+    public String getExtension() {
+        return format.extension;
+    }
+
+    public byte[] encode(byte[] png) throws IOException {
+        if (format == Format.PNG && scale == 1) {
+            return png;
+        }
+        BufferedImage source = ImageIO.read(new ByteArrayInputStream(png));
+        if (source == null) {
+            throw new IOException("Screenshot is not a readable image");
+        }
+        BufferedImage image = resize(source);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (format == Format.PNG) {
+            ImageIO.write(image, "png", out);
+        } else {
+            writeJpeg(image, out);
+        }
+        return out.toByteArray();
+    }
+
+    // JPEG has no alpha channel, so the image is always redrawn onto RGB
+    private BufferedImage resize(BufferedImage source) {
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+        int type = format == Format.JPEG ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+        if (scale == 1 && source.getType() == type) {
+            return source;
+        }
+        BufferedImage target = new BufferedImage(width, height, type);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private void writeJpeg(BufferedImage image, ByteArrayOutputStream out) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+}
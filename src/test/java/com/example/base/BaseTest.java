@@ -1,5 +1,36 @@
 package com.example.base;
 
+import com.example.artifacts.ArtifactPipeline;
+import com.example.config.DeviceSettings;
+import com.example.config.RunConfig;
+import com.example.driver.DeviceAllocator;
+import com.example.driver.DurationHistory;
+import com.example.driver.FarmScheduler;
+import com.example.driver.SessionWatchdog;
+import com.example.fixtures.AuthState;
+import com.example.fixtures.AuthStateFixture;
+import com.example.forms.FormFiller;
+import com.example.history.TestHistory;
+import com.example.gestures.ScrollStats;
+import com.example.driver.DriverPool;
+import com.example.driver.DriverRegistry;
+import com.example.driver.SessionBaseline;
+import com.example.driver.TimedCommandExecutor;
+import com.example.locators.ElementCacheStats;
+import com.example.locators.LocatorCompiler;
+import com.example.locators.ProbeStats;
+import com.example.metrics.CommandLatency;
+import com.example.metrics.SearchLatency;
+import com.example.metrics.SearchMatrixReport;
+import com.example.retry.FailureClass;
+import com.example.retry.StepRetryStats;
+import com.example.pages.BasePage;
+import com.example.pages.PageRegistry;
+import com.example.pages.WikipediaMainPage;
+import com.example.stub.StubWebDriverServer;
+import com.example.utils.AllureUtils;
+import com.example.utils.LogWindow;
+import com.example.waits.WaitStats;
 import io.appium.java_client.AppiumDriver;
 import io.appium.java_client.android.AndroidDriver;
 import io.appium.java_client.android.options.UiAutomator2Options;
@@ -7,63 +38,87 @@ import io.qameta.allure.Attachment;
 import io.qameta.allure.Step;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.ThreadContext;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.MutableCapabilities;
 import org.openqa.selenium.OutputType;
 import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.remote.SessionId;
 import org.testng.ITestResult;
 import org.testng.annotations.*;
 
 
-import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
-import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 
 public class BaseTest {
     
     private static final Logger logger = LogManager.getLogger(BaseTest.class);
     
-    protected AppiumDriver driver;
+    // Profile defaults overridden by -D<key>=<value>, see src/test/resources/config
+    private static final RunConfig config = RunConfig.get();
+    // One embedded stub server per "stub" node endpoint
+    private static final Map<String, StubWebDriverServer> stubServers = new HashMap<>();
     
-    private static final String APP_PACKAGE = "org.wikipedia";
-    private static final String APP_ACTIVITY = "org.wikipedia.main.MainActivity";
-    private static final String APPIUM_SERVER_URL = "http://127.0.0.1:4723";
+    // Startup dialogs and onboarding are dismissed once per session; reused sessions restart straight into that state
+    private static final SessionBaseline sessionBaseline = new SessionBaseline(config.getAppPackage(), config.getAppActivity(),
+            driver -> PageRegistry.of(driver).get(WikipediaMainPage.class).dismissStartupDialogsIfPresent());
+    // Sessions are shared across test methods; only unhealthy ones get recreated
+    private static final DriverPool driverPool = new DriverPool(BaseTest::createDriver,
+            config.getPoolMaxSessionsPerDevice(), config.getPoolLeaseTimeout(), sessionBaseline);
+    // Tests are placed on the devices of one or more Appium nodes, e.g. -Ddevices=emulator-5554@emulator,emulator-5556
+    // or -Dfarm.nodes=http://host-a:4723=emulator-5554;http://host-b:4723=emulator-5554
+    private static final FarmScheduler scheduler = new FarmScheduler(farmNodes(), durationHistory(),
+            config.getFarmQuarantineAfter(), config.getFarmQuarantine());
+    private static final ThreadLocal<FarmScheduler.Placement> currentPlacement = new ThreadLocal<>();
+    // Offset of the current thread's per-test log file when its test started
+    private static final ThreadLocal<LogWindow> logWindow = new ThreadLocal<>();
     
     @BeforeMethod
     @Step("Initialize mobile driver and launch Wikipedia app")
-    public void setUp() {
+    public void setUp(Method method) {
+        // Tags every log line of this test and routes it to target/logs/tests/<test>.log
+        String testName = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+        ThreadContext.put("test", testName);
+        logWindow.set(LogWindow.mark(LogWindow.testLog(testName)));
         logger.info("Setting up test environment");
-        try {
-            UiAutomator2Options options = new UiAutomator2Options();
-            options.setPlatformName("Android");
-            options.setDeviceName("Android Device");
-            options.setAppPackage(APP_PACKAGE);
-            options.setAppActivity(APP_ACTIVITY);
-            options.setNoReset(false);
-            options.setNewCommandTimeout(Duration.ofSeconds(60));
-            options.setCapability("autoGrantPermissions", true);
-            options.setCapability("automationName", "UiAutomator2");
-            
-            URL serverUrl = URI.create(APPIUM_SERVER_URL).toURL();
-            driver = new AndroidDriver(serverUrl, options);
-            driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(10));
-            
-            logger.info("Driver initialized successfully");
-            
-
-        } catch (MalformedURLException e) {
-            logger.error("Invalid Appium server URL: " + APPIUM_SERVER_URL, e);
-            throw new RuntimeException("Failed to initialize driver", e);
-        } catch (Exception e) {
-            logger.error("Failed to initialize driver", e);
-            throw new RuntimeException("Failed to initialize driver", e);
+        CommandLatency.global().startTest();
+        // A node that cannot create a session is reported and the test is placed again, possibly elsewhere
+        int attempts = scheduler.getNodes().size();
+        for (int attempt = 1; ; attempt++) {
+            FarmScheduler.Placement placement = scheduler.acquire(testName, config.getDeviceAcquireTimeout());
+            DeviceAllocator.Device device = placement.getDevice();
+            currentPlacement.set(placement);
+            // Page objects created on this thread wait as long as this device class needs
+            RunConfig.bindDeviceClass(device.getDeviceClass());
+            ThreadContext.put("device", placement.toString());
+            try {
+                UiAutomator2Options options = buildOptions(device);
+                options.setCapability(FarmScheduler.ENDPOINT_CAPABILITY, placement.getNode().getEndpoint());
+                DriverRegistry.set(driverPool.lease(options));
+                ThreadContext.put("session", String.valueOf(getDriver().getSessionId()));
+                logger.info("Driver initialized successfully on " + placement);
+                return;
+            } catch (Exception e) {
+                logger.error("Failed to initialize driver on " + placement, e);
+                currentPlacement.remove();
+                scheduler.reportSessionFailure(placement);
+                if (attempt >= attempts) {
+                    throw new RuntimeException("Failed to initialize driver", e);
+                }
+            }
         }
     }
 
-    // Teardown method to quit driver and capture screenshot on failure
+    // Teardown method to return driver to the pool and capture screenshot on failure
     @AfterMethod
     @Step("Close mobile driver and cleanup")
     public void tearDown(ITestResult result) {
@@ -71,31 +126,256 @@ public class BaseTest {
             logger.warn("Test failed: " + result.getName());
             captureScreenshot(result.getName());
         }
+        CommandLatency.global().finishTest()
+                .filter(latency -> !latency.getByCommand().isEmpty())
+                .ifPresent(latency -> attachCommandLatency(latency.format()));
+        attachTestLog();
         
-        if (driver != null) {
+        // A test that swallowed the errors of a dead session still must not count as a healthy run of its node
+        boolean sessionDead = false;
+        if (DriverRegistry.isSet()) {
             try {
-                driver.quit();
-                logger.info("Driver closed successfully");
+                AppiumDriver driver = DriverRegistry.remove();
+                SessionId session = driver.getSessionId();
+                sessionDead = SessionWatchdog.global().isDead(session);
+                if (sessionDead) {
+                    driverPool.invalidate(driver);
+                } else {
+                    driverPool.release(driver);
+                }
+                if (driver.getSessionId() == null) {
+                    // Recycled by the pool: the auth state reached on it is gone with it
+                    AuthStateFixture.global().invalidate(session);
+                }
+                logger.info("Driver returned to pool");
             } catch (Exception e) {
-                logger.error("Error closing driver", e);
+                logger.error("Error returning driver to pool", e);
+            }
+        }
+        FarmScheduler.Placement placement = currentPlacement.get();
+        currentPlacement.remove();
+        if (placement != null) {
+            if (result.getStatus() == ITestResult.SUCCESS || result.getStatus() == ITestResult.FAILURE) {
+                TestHistory.global().recordTest(placement.getTest(), placement.getElapsedMillis(),
+                        result.getStatus() == ITestResult.SUCCESS);
+            }
+            if (sessionDead || result.getStatus() == ITestResult.FAILURE
+                    && FailureClass.of(result.getThrowable()) == FailureClass.SESSION_DEAD) {
+                scheduler.reportSessionFailure(placement);
+            } else {
+                scheduler.release(placement);
+            }
+        }
+        RunConfig.unbindDeviceClass();
+        ThreadContext.clearMap();
+    }
+
+    private void attachTestLog() {
+        LogWindow window = logWindow.get();
+        logWindow.remove();
+        if (window == null) {
+            return;
+        }
+        try {
+            if (!window.finish(config.getLogFlushTimeout())) {
+                logger.warn("Log window of " + window.getFile() + " not flushed within "
+                        + config.getLogFlushTimeout().toMillis() + " ms, attaching what was written");
             }
+        } catch (IOException e) {
+            logger.error("Failed to read log window of " + window.getFile(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        AllureUtils.attachLogWindow("Test log", window);
+    }
+
+    // Driver bound to the current worker thread
+    protected AppiumDriver getDriver() {
+        return DriverRegistry.get();
+    }
+
+    // Waits of the current device's class, the same ones its page objects use
+    protected DeviceSettings deviceSettings() {
+        return config.currentDevice();
+    }
+
+    // Page object of the current session, shared with the pages that navigate to it
+    protected <T extends BasePage> T page(Class<T> type) {
+        return PageRegistry.of(getDriver()).get(type);
+    }
+
+    // Reach the given login state before the test body runs; UI login/logout only when the app is not already there
+    protected void requireAuthState(AuthState state) {
+        AuthStateFixture.global().require(getDriver(), String.valueOf(currentPlacement.get()), state);
+    }
+
+    @AfterSuite(alwaysRun = true)
+    public void shutdownDriverPool() {
+        driverPool.shutdown();
+        synchronized (BaseTest.class) {
+            stubServers.values().forEach(StubWebDriverServer::close);
+            stubServers.clear();
+        }
+    }
+
+    @AfterSuite(alwaysRun = true)
+    public void flushArtifacts() throws InterruptedException {
+        if (!ArtifactPipeline.global().awaitIdle(config.getArtifactFlushTimeout())) {
+            logger.warn("Artifact writers did not finish within " + config.getArtifactFlushTimeout().toSeconds() + " s");
+        }
+        logger.info("Artifacts: " + ArtifactPipeline.global());
+    }
+
+    @AfterSuite(alwaysRun = true)
+    public void logWaitStats() {
+        logger.info("Wait statistics (" + WaitStats.global().totalMillis() + " ms total):"
+                + System.lineSeparator() + WaitStats.global().summary());
+        logger.info("Optional element probes: " + ProbeStats.global());
+        logger.info("Element cache: " + ElementCacheStats.global());
+        logger.info("Locator compiler report:" + System.lineSeparator() + LocatorCompiler.report());
+        if (!AuthStateFixture.global().getTimings().isEmpty()) {
+            logger.info("Auth state fixture:" + System.lineSeparator() + AuthStateFixture.global().getTimings().format());
+        }
+        if (!sessionBaseline.getTimings().isEmpty()) {
+            logger.info("Cold vs restored start:" + System.lineSeparator() + sessionBaseline.getTimings().format());
+        }
+        if (!FormFiller.getTimings().isEmpty()) {
+            logger.info("Form fills:" + System.lineSeparator() + FormFiller.getTimings().format());
+        }
+        if (!StepRetryStats.global().isEmpty()) {
+            logger.info("Step retries:" + System.lineSeparator() + StepRetryStats.global().summary());
+        }
+        logger.info("Farm nodes: " + scheduler.summary());
+        logger.info("Session watchdog: " + SessionWatchdog.global());
+        if (!ScrollStats.global().isEmpty()) {
+            logger.info("Scroll searches:" + System.lineSeparator() + ScrollStats.global().summary());
         }
     }
+
+    @AfterSuite(alwaysRun = true)
+    public void writeTestHistory() {
+        TestHistory history = TestHistory.global();
+        try {
+            history.flush();
+        } catch (IOException e) {
+            logger.error("Failed to write test history", e);
+        }
+        if (!history.isEmpty()) {
+            logger.info("Test history (" + config.getHistoryFile() + "):" + System.lineSeparator() + history.summary(5));
+        }
+    }
+
+    @AfterSuite(alwaysRun = true)
+    public void closeSearchMatrix() {
+        SearchMatrixReport report = SearchMatrixReport.global();
+        if (report.isEmpty()) {
+            return;
+        }
+        report.close();
+        logger.info("Search matrix: " + report.summary());
+    }
+
+    @AfterSuite(alwaysRun = true)
+    public void writeSearchLatency() {
+        SearchLatency latency = SearchLatency.global();
+        if (latency.isEmpty()) {
+            return;
+        }
+        logger.info("Search latency:" + System.lineSeparator() + latency.format());
+        try {
+            latency.writeJson(Paths.get("target", "search-latency"));
+        } catch (IOException e) {
+            logger.error("Failed to write search latency report", e);
+        }
+    }
+
+    @AfterSuite(alwaysRun = true)
+    public void writeCommandLatency() {
+        CommandLatency latency = CommandLatency.global();
+        if (latency.getRun().getByCommand().isEmpty()) {
+            return;
+        }
+        logger.info("Command latency:" + System.lineSeparator() + latency.getRun().format());
+        try {
+            latency.writeJson(Paths.get("target", "command-latency"));
+        } catch (IOException e) {
+            logger.error("Failed to write command latency report", e);
+        }
+    }
+
+    protected static DriverPool getDriverPool() {
+        return driverPool;
+    }
+
+    protected UiAutomator2Options buildOptions(DeviceAllocator.Device device) {
+        UiAutomator2Options options = new UiAutomator2Options();
+        options.setPlatformName("Android");
+        options.setDeviceName("Android Device");
+        if (device.getUdid() != null) {
+            options.setUdid(device.getUdid());
+        }
+        // UiAutomator2 needs a distinct port per parallel session
+        options.setSystemPort(device.getSystemPort());
+        options.setAppPackage(config.getAppPackage());
+        options.setAppActivity(config.getAppActivity());
+        options.setNoReset(false);
+        options.setNewCommandTimeout(config.deviceSettings(device.getDeviceClass()).getNewCommandTimeout());
+        options.setCapability("autoGrantPermissions", true);
+        options.setCapability("automationName", "UiAutomator2");
+        return options;
+    }
+
+    // Expected test durations start from earlier runs and keep learning during this one
+    private static DurationHistory durationHistory() {
+        DurationHistory history = new DurationHistory(config.getFarmUnknownTestDuration().toMillis());
+        TestHistory.global().seed(history);
+        return history;
+    }
+
+    private static List<FarmScheduler.Node> farmNodes() {
+        if (config.getFarmNodes().isEmpty()) {
+            return List.of(new FarmScheduler.Node(config.getAppiumServer(),
+                    DeviceAllocator.fromSpec(config.getDevices()).getDevices()));
+        }
+        return FarmScheduler.parseNodes(config.getFarmNodes());
+    }
+
+    private static AppiumDriver createDriver(Capabilities capabilities) {
+        String endpoint = String.valueOf(capabilities.getCapability(FarmScheduler.ENDPOINT_CAPABILITY));
+        // The endpoint only keys the pool, the Appium server does not get it
+        MutableCapabilities sessionCapabilities = new MutableCapabilities(capabilities);
+        sessionCapabilities.setCapability(FarmScheduler.ENDPOINT_CAPABILITY, (Object) null);
+        try {
+            AppiumDriver driver = new AndroidDriver(new TimedCommandExecutor(serverUrl(endpoint)), sessionCapabilities);
+            // Off by default (waits.implicit): PageFactory fields wait through the decorator and optional elements are probed
+            driver.manage().timeouts().implicitlyWait(config.getImplicitWait());
+            return driver;
+        } catch (MalformedURLException e) {
+            logger.error("Invalid Appium server URL: " + endpoint, e);
+            throw new RuntimeException("Failed to initialize driver", e);
+        }
+    }
+
+    private static synchronized URL serverUrl(String endpoint) throws MalformedURLException {
+        if (endpoint.startsWith("stub")) {
+            // "stub", "stub-2", ... each start their own embedded server
+            return stubServers.computeIfAbsent(endpoint, e -> new StubWebDriverServer().start()).getUrl();
+        }
+        return URI.create(endpoint).toURL();
+    }
     
-    // Screenshot capturing method
-    @Attachment(value = "Screenshot", type = "image/png")
-    public byte[] captureScreenshot(String testName) {
+    @Attachment(value = "Command latency", type = "text/plain")
+    public String attachCommandLatency(String report) {
+        return report;
+    }
+
+    // Screenshot capturing method: the device round trip happens here, encoding and writing on the artifact writers
+    public void captureScreenshot(String testName) {
         try {
-            byte[] screenshot = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
-            String screenshotDir = "target/screenshots";
-            new File(screenshotDir).mkdirs();
-            String filePath = screenshotDir + "/" + testName + "_" + System.currentTimeMillis() + ".png";
-            Files.write(Paths.get(filePath), screenshot);
-            logger.info("Screenshot captured: " + filePath);
-            return screenshot;
+            byte[] screenshot = ((TakesScreenshot) getDriver()).getScreenshotAs(OutputType.BYTES);
+            ArtifactPipeline.global().attachScreenshot("Screenshot", testName, screenshot);
         } catch (Exception e) {
             logger.error("Failed to capture screenshot", e);
-            return new byte[0];
         }
     }
     
@@ -0,0 +1,55 @@
+package com.example.config;
+
+import java.time.Duration;
+
+/**
+ * Waits for one device class, e.g. a slow emulator gets longer waits than a flagship phone
+ * Immutable; resolved once per class when {@link RunConfig} is loaded
+ */
+public final class DeviceSettings {
+
+    private final String deviceClass;
+    private final Duration pageWait;
+    private final Duration fieldWait;
+    private final Duration uiIdleWait;
+    private final Duration newCommandTimeout;
+
+    DeviceSettings(String deviceClass, Duration pageWait, Duration fieldWait, Duration uiIdleWait,
+                   Duration newCommandTimeout) {
+        this.deviceClass = deviceClass;
+        this.pageWait = pageWait;
+        this.fieldWait = fieldWait;
+        this.uiIdleWait = uiIdleWait;
+        this.newCommandTimeout = newCommandTimeout;
+    }
+
+    public String getDeviceClass() {
+        return deviceClass;
+    }
+
+    // Explicit waits of the page objects (WebDriverWait and WaitEngine)
+    public Duration getPageWait() {
+        return pageWait;
+    }
+
+    // How long a PageFactory field or form field is waited for before it counts as missing
+    public Duration getFieldWait() {
+        return fieldWait;
+    }
+
+    // Upper bound for the screen to stop changing after an action
+    public Duration getUiIdleWait() {
+        return uiIdleWait;
+    }
+
+    public Duration getNewCommandTimeout() {
+        return newCommandTimeout;
+    }
+
+    @Override
+    public String toString() {
+        return deviceClass + " (page " + pageWait.toMillis() + " ms, field " + fieldWait.toMillis()
+                + " ms, ui idle " + uiIdleWait.toMillis() + " ms, newCommandTimeout "
+                + newCommandTimeout.getSeconds() + " s)";
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.config;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.IAlterSuiteListener;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.util.List;
+
+/**
+ * Takes the thread counts of testng.xml from {@link RunConfig}, so parallelism can be changed per profile
+ * or with -Dparallel.threadCount without editing the suite; &lt;test&gt; blocks that do not run in parallel stay serial
+ */
+public class ParallelismListener implements IAlterSuiteListener {
+
+    private static final Logger logger = LogManager.getLogger(ParallelismListener.class);
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        RunConfig config = RunConfig.get();
+        for (XmlSuite suite : suites) {
+            suite.setDataProviderThreadCount(config.getDataProviderThreadCount());
+            for (XmlTest test : suite.getTests()) {
+                if (test.getParallel() != null && test.getParallel().isParallel()) {
+                    test.setThreadCount(config.getThreadCount());
+                    logger.info("Running \"" + test.getName() + "\" on " + config.getThreadCount() + " threads");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,572 @@
+package com.example.config;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Typed run configuration, loaded once and shared read-only by every worker thread
+ * Sources, later ones win:
+ * config/default.properties, config/&lt;profile&gt;.properties, the file given in -Dconfig.file, system properties.
+ * The profile is -Dprofile (local, farm, stub); without it -Dappium.server=stub selects stub and anything else local.
+ * Only keys that default.properties declares are taken from system properties, plus deviceClass.* overrides:
+ * deviceClass.&lt;name&gt;.waits.page=25s applies to devices listed as udid@name in -Ddevices
+ */
+public final class RunConfig {
+
+    public static final String DEFAULT_DEVICE_CLASS = "default";
+
+    private static final Logger logger = LogManager.getLogger(RunConfig.class);
+    private static final String RESOURCE_DIR = "config/";
+    private static final String DEVICE_CLASS_PREFIX = "deviceClass.";
+    private static final Pattern DURATION = Pattern.compile("(\\d+)\\s*(ms|s|m|h|d)");
+    // Settings a device class may override; everything else is per run
+    private static final List<String> DEVICE_KEYS =
+            List.of("waits.page", "waits.field", "waits.uiIdle", "appium.newCommandTimeout");
+    private static final ThreadLocal<String> boundDeviceClass = new ThreadLocal<>();
+
+    private final String profile;
+    private final List<String> sources;
+    private final Map<String, String> values;
+    private final String appPackage;
+    private final String appActivity;
+    private final String appiumServer;
+    private final String devices;
+    private final String farmNodes;
+    private final int farmQuarantineAfter;
+    private final Duration farmQuarantine;
+    private final Duration farmUnknownTestDuration;
+    private final String historyFile;
+    private final int historyCompactAfter;
+    private final Duration historyRetain;
+    private final double historyFlakyThreshold;
+    private final int historyShardIndex;
+    private final int historyShardCount;
+    private final Duration watchdogInterval;
+    private final Duration watchdogPingTimeout;
+    private final int watchdogFailures;
+    private final Duration implicitWait;
+    private final Duration deviceAcquireTimeout;
+    private final int poolMaxSessionsPerDevice;
+    private final Duration poolLeaseTimeout;
+    private final int threadCount;
+    private final int dataProviderThreadCount;
+    private final int stepRetryMaxAttempts;
+    private final Duration stepRetryBudget;
+    private final int scrollMaxScrolls;
+    private final Duration scrollBudget;
+    private final int artifactWriters;
+    private final int artifactQueue;
+    private final Duration artifactFlushTimeout;
+    private final Duration logFlushTimeout;
+    private final String screenshotFormat;
+    private final double screenshotScale;
+    private final double screenshotQuality;
+    private final String searchDataset;
+    private final int searchShardIndex;
+    private final int searchShardCount;
+    private final int searchLimit;
+    private final int searchRepeat;
+    private final boolean searchMeasure;
+    private final Duration searchMeasurePoll;
+    private final Duration searchMeasureStable;
+    private final boolean locatorCalibrate;
+    private final DeviceSettings defaultDevice;
+    private final Map<String, DeviceSettings> deviceClasses;
+
+    private static final class Holder {
+        private static final RunConfig INSTANCE = load(System.getProperties());
+
+        static {
+            logger.info("Run configuration:\n" + INSTANCE.summary());
+        }
+    }
+
+    private RunConfig(String profile, List<String> sources, Map<String, String> values) {
+        this.profile = profile;
+        this.sources = Collections.unmodifiableList(sources);
+        this.values = Collections.unmodifiableMap(values);
+        this.appPackage = required("app.package");
+        this.appActivity = required("app.activity");
+        this.farmNodes = values.getOrDefault("farm.nodes", "");
+        // Nodes name their own endpoints
+        this.appiumServer = farmNodes.isEmpty() ? required("appium.server") : values.getOrDefault("appium.server", "");
+        this.devices = values.getOrDefault("devices", "");
+        this.farmQuarantineAfter = positiveInt("farm.quarantineAfter");
+        this.farmQuarantine = duration("farm.quarantine");
+        this.farmUnknownTestDuration = duration("farm.unknownTestDuration");
+        this.historyFile = required("history.file");
+        this.historyCompactAfter = positiveInt("history.compactAfter");
+        this.historyRetain = duration("history.retain");
+        this.historyFlakyThreshold = fraction("history.flakyThreshold");
+        int[] historyShard = shard("history.shard");
+        this.historyShardIndex = historyShard[0];
+        this.historyShardCount = historyShard[1];
+        this.watchdogInterval = duration("watchdog.interval");
+        this.watchdogPingTimeout = duration("watchdog.pingTimeout");
+        this.watchdogFailures = positiveInt("watchdog.failures");
+        this.implicitWait = duration("waits.implicit");
+        this.deviceAcquireTimeout = duration("devices.acquireTimeout");
+        this.poolMaxSessionsPerDevice = positiveInt("pool.maxSessionsPerDevice");
+        this.poolLeaseTimeout = duration("pool.leaseTimeout");
+        this.threadCount = positiveInt("parallel.threadCount");
+        this.dataProviderThreadCount = positiveInt("parallel.dataProviderThreadCount");
+        this.stepRetryMaxAttempts = positiveInt("steps.retry.maxAttempts");
+        this.stepRetryBudget = duration("steps.retry.budget");
+        this.scrollMaxScrolls = positiveInt("scroll.maxScrolls");
+        this.scrollBudget = duration("scroll.budget");
+        this.artifactWriters = positiveInt("artifacts.writers");
+        this.artifactQueue = positiveInt("artifacts.queue");
+        this.artifactFlushTimeout = duration("artifacts.flushTimeout");
+        this.logFlushTimeout = duration("logs.flushTimeout");
+        this.screenshotFormat = required("screenshots.format").toLowerCase(Locale.ROOT);
+        if (!screenshotFormat.equals("png") && !screenshotFormat.equals("jpeg")) {
+            throw new IllegalArgumentException("screenshots.format=" + screenshotFormat + " must be png or jpeg");
+        }
+        this.screenshotScale = fraction("screenshots.scale");
+        if (screenshotScale == 0) {
+            throw new IllegalArgumentException("screenshots.scale must be above 0");
+        }
+        this.screenshotQuality = fraction("screenshots.quality");
+        this.searchDataset = required("search.dataset");
+        int[] searchShard = shard("search.shard");
+        this.searchShardIndex = searchShard[0];
+        this.searchShardCount = searchShard[1];
+        int limit = nonNegativeInt("search.limit");
+        this.searchLimit = limit == 0 ? Integer.MAX_VALUE : limit;
+        this.searchRepeat = positiveInt("search.repeat");
+        this.searchMeasure = bool("search.measure");
+        this.searchMeasurePoll = duration("search.measure.poll");
+        this.searchMeasureStable = duration("search.measure.stable");
+        this.locatorCalibrate = bool("locator.calibrate");
+        this.defaultDevice = deviceSettings(DEFAULT_DEVICE_CLASS, "");
+        Map<String, DeviceSettings> classes = new TreeMap<>();
+        for (String key : values.keySet()) {
+            if (key.startsWith(DEVICE_CLASS_PREFIX)) {
+                String rest = key.substring(DEVICE_CLASS_PREFIX.length());
+                int dot = rest.indexOf('.');
+                String name = dot > 0 ? rest.substring(0, dot) : rest;
+                if (dot <= 0 || !DEVICE_KEYS.contains(rest.substring(dot + 1))) {
+                    throw new IllegalArgumentException("Unknown device class setting " + key
+                            + ", expected " + DEVICE_CLASS_PREFIX + "<class>.<one of " + DEVICE_KEYS + ">");
+                }
+                classes.computeIfAbsent(name, n -> deviceSettings(n, DEVICE_CLASS_PREFIX + n + "."));
+            }
+        }
+        this.deviceClasses = Collections.unmodifiableMap(classes);
+    }
+
+    /**
+     * The configuration of this run, loaded from the system properties on first use
+     */
+    public static RunConfig get() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Load a configuration with the given properties as the last source; {@link #get()} is the shared one
+     */
+    public static RunConfig load(Properties overrides) {
+        String profile = overrides.getProperty("profile");
+        if (profile == null || profile.isBlank()) {
+            profile = "stub".equals(overrides.getProperty("appium.server")) ? "stub" : "local";
+        }
+        List<String> sources = new ArrayList<>();
+        Map<String, String> values = new TreeMap<>();
+        Properties defaults = resource(RESOURCE_DIR + "default.properties");
+        putAll(values, defaults);
+        sources.add(RESOURCE_DIR + "default.properties");
+        String profileResource = RESOURCE_DIR + profile.trim().toLowerCase(Locale.ROOT) + ".properties";
+        putAll(values, resource(profileResource));
+        sources.add(profileResource);
+        String file = overrides.getProperty("config.file");
+        if (file != null && !file.isBlank()) {
+            try (Reader reader = Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)) {
+                Properties external = new Properties();
+                external.load(reader);
+                putAll(values, external);
+                sources.add(file);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Cannot read config.file " + file, e);
+            }
+        }
+        boolean overridden = false;
+        for (String key : overrides.stringPropertyNames()) {
+            if (defaults.containsKey(key) || key.startsWith(DEVICE_CLASS_PREFIX)) {
+                values.put(key, overrides.getProperty(key).trim());
+                overridden = true;
+            }
+        }
+        if (overridden) {
+            sources.add("system properties");
+        }
+        return new RunConfig(profile.trim(), sources, values);
+    }
+
+    /**
+     * Apply the given device class's settings to page objects created on the calling thread
+     */
+    public static void bindDeviceClass(String deviceClass) {
+        boundDeviceClass.set(deviceClass);
+    }
+
+    public static void unbindDeviceClass() {
+        boundDeviceClass.remove();
+    }
+
+    /**
+     * Settings of the device class bound to the calling thread, the defaults when none is bound
+     */
+    public DeviceSettings currentDevice() {
+        return deviceSettings(boundDeviceClass.get());
+    }
+
+    /**
+     * Settings of a device class; a class without overrides gets the defaults
+     */
+    public DeviceSettings deviceSettings(String deviceClass) {
+        if (deviceClass == null) {
+            return defaultDevice;
+        }
+        return deviceClasses.getOrDefault(deviceClass, defaultDevice);
+    }
+
+    public String getProfile() {
+        return profile;
+    }
+
+    public String getAppPackage() {
+        return appPackage;
+    }
+
+    public String getAppActivity() {
+        return appActivity;
+    }
+
+    // "stub" for the embedded stub server, otherwise an Appium server URL
+    public String getAppiumServer() {
+        return appiumServer;
+    }
+
+    public boolean isStub() {
+        return "stub".equals(appiumServer);
+    }
+
+    // Device list for DeviceAllocator.fromSpec, empty for the single device the server picks
+    public String getDevices() {
+        return devices;
+    }
+
+    // Appium nodes for FarmScheduler.parseNodes, empty for the single node appium.server with devices
+    public String getFarmNodes() {
+        return farmNodes;
+    }
+
+    public int getFarmQuarantineAfter() {
+        return farmQuarantineAfter;
+    }
+
+    public Duration getFarmQuarantine() {
+        return farmQuarantine;
+    }
+
+    public Duration getFarmUnknownTestDuration() {
+        return farmUnknownTestDuration;
+    }
+
+    public String getHistoryFile() {
+        return historyFile;
+    }
+
+    public int getHistoryCompactAfter() {
+        return historyCompactAfter;
+    }
+
+    public Duration getHistoryRetain() {
+        return historyRetain;
+    }
+
+    public double getHistoryFlakyThreshold() {
+        return historyFlakyThreshold;
+    }
+
+    public int getHistoryShardIndex() {
+        return historyShardIndex;
+    }
+
+    public int getHistoryShardCount() {
+        return historyShardCount;
+    }
+
+    public Duration getWatchdogInterval() {
+        return watchdogInterval;
+    }
+
+    public Duration getWatchdogPingTimeout() {
+        return watchdogPingTimeout;
+    }
+
+    public int getWatchdogFailures() {
+        return watchdogFailures;
+    }
+
+    public Duration getImplicitWait() {
+        return implicitWait;
+    }
+
+    public Duration getDeviceAcquireTimeout() {
+        return deviceAcquireTimeout;
+    }
+
+    public int getPoolMaxSessionsPerDevice() {
+        return poolMaxSessionsPerDevice;
+    }
+
+    public Duration getPoolLeaseTimeout() {
+        return poolLeaseTimeout;
+    }
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    public int getDataProviderThreadCount() {
+        return dataProviderThreadCount;
+    }
+
+    public int getStepRetryMaxAttempts() {
+        return stepRetryMaxAttempts;
+    }
+
+    public Duration getStepRetryBudget() {
+        return stepRetryBudget;
+    }
+
+    public int getScrollMaxScrolls() {
+        return scrollMaxScrolls;
+    }
+
+    public Duration getScrollBudget() {
+        return scrollBudget;
+    }
+
+    public int getArtifactWriters() {
+        return artifactWriters;
+    }
+
+    public int getArtifactQueue() {
+        return artifactQueue;
+    }
+
+    // How long the end of the run waits for the artifact writers
+    public Duration getArtifactFlushTimeout() {
+        return artifactFlushTimeout;
+    }
+
+    // How long a test's teardown waits for its log lines to reach its log file
+    public Duration getLogFlushTimeout() {
+        return logFlushTimeout;
+    }
+
+    // "png" or "jpeg"
+    public String getScreenshotFormat() {
+        return screenshotFormat;
+    }
+
+    public double getScreenshotScale() {
+        return screenshotScale;
+    }
+
+    public double getScreenshotQuality() {
+        return screenshotQuality;
+    }
+
+    // File path or classpath resource
+    public String getSearchDataset() {
+        return searchDataset;
+    }
+
+    public int getSearchShardIndex() {
+        return searchShardIndex;
+    }
+
+    public int getSearchShardCount() {
+        return searchShardCount;
+    }
+
+    // Integer.MAX_VALUE when every row runs
+    public int getSearchLimit() {
+        return searchLimit;
+    }
+
+    public int getSearchRepeat() {
+        return searchRepeat;
+    }
+
+    public boolean isSearchMeasure() {
+        return searchMeasure;
+    }
+
+    public Duration getSearchMeasurePoll() {
+        return searchMeasurePoll;
+    }
+
+    public Duration getSearchMeasureStable() {
+        return searchMeasureStable;
+    }
+
+    public boolean isLocatorCalibrate() {
+        return locatorCalibrate;
+    }
+
+    /**
+     * Raw value of a key after all sources were applied, null if no source sets it
+     */
+    public String value(String key) {
+        return values.get(key);
+    }
+
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("profile ").append(profile).append(" from ").append(String.join(", ", sources)).append('\n');
+        values.forEach((key, value) -> sb.append(String.format("  %-40s %s%n", key, value)));
+        return sb.toString();
+    }
+
+    private DeviceSettings deviceSettings(String name, String prefix) {
+        return new DeviceSettings(name,
+                duration(prefix, "waits.page"),
+                duration(prefix, "waits.field"),
+                duration(prefix, "waits.uiIdle"),
+                duration(prefix, "appium.newCommandTimeout"));
+    }
+
+    private Duration duration(String prefix, String key) {
+        return values.containsKey(prefix + key) ? duration(prefix + key) : duration(key);
+    }
+
+    // "500ms", "15s", "5m", "2h" or "90d"
+    private Duration duration(String key) {
+        Matcher matcher = DURATION.matcher(required(key));
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException(key + "=" + values.get(key) + " is not a duration such as 500ms, 15s, 5m, 2h or 90d");
+        }
+        long amount = Long.parseLong(matcher.group(1));
+        switch (matcher.group(2)) {
+            case "ms":
+                return Duration.ofMillis(amount);
+            case "s":
+                return Duration.ofSeconds(amount);
+            case "m":
+                return Duration.ofMinutes(amount);
+            case "h":
+                return Duration.ofHours(amount);
+            default:
+                return Duration.ofDays(amount);
+        }
+    }
+
+    private double fraction(String key) {
+        try {
+            double value = Double.parseDouble(required(key));
+            if (value >= 0 && value <= 1) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException(key + "=" + values.get(key) + " must be a number between 0 and 1");
+    }
+
+    // "i/n" with 0 <= i < n
+    private int[] shard(String key) {
+        String[] parts = required(key).split("/");
+        int index;
+        int count;
+        try {
+            index = Integer.parseInt(parts[0].trim());
+            count = parts.length == 2 ? Integer.parseInt(parts[1].trim()) : 0;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + "=" + values.get(key) + " is not i/n", e);
+        }
+        if (count < 1 || index < 0 || index >= count) {
+            throw new IllegalArgumentException(key + "=" + values.get(key) + " must be i/n with 0 <= i < n");
+        }
+        return new int[]{index, count};
+    }
+
+    private boolean bool(String key) {
+        String value = required(key);
+        if (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("false")) {
+            return Boolean.parseBoolean(value);
+        }
+        throw new IllegalArgumentException(key + "=" + value + " must be true or false");
+    }
+
+    private int nonNegativeInt(String key) {
+        try {
+            int value = Integer.parseInt(required(key));
+            if (value >= 0) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException(key + "=" + values.get(key) + " must be a non-negative integer");
+    }
+
+    private int positiveInt(String key) {
+        try {
+            int value = Integer.parseInt(required(key));
+            if (value >= 1) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException(key + "=" + values.get(key) + " must be a positive integer");
+    }
+
+    private String required(String key) {
+        String value = values.get(key);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(key + " is required for profile " + profile);
+        }
+        return value;
+    }
+
+    private static Properties resource(String name) {
+        try (InputStream in = RunConfig.class.getClassLoader().getResourceAsStream(name)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Unknown configuration " + name + " (profiles: local, farm, stub)");
+            }
+            Properties properties = new Properties();
+            properties.load(in);
+            return properties;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot read configuration " + name, e);
+        }
+    }
+
+    private static void putAll(Map<String, String> values, Properties properties) {
+        for (String key : properties.stringPropertyNames()) {
+            values.put(key, properties.getProperty(key).trim());
+        }
+    }
+}
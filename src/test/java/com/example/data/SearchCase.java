@@ -0,0 +1,36 @@
+package com.example.data;
+
+/**
+ * One row of the search dataset: what to type and the article the first result must open
+ */
+public class SearchCase {
+
+    private final int row;
+    private final String term;
+    private final String expectedTitle;
+
+    public SearchCase(int row, String term, String expectedTitle) {
+        this.row = row;
+        this.term = term;
+        this.expectedTitle = expectedTitle;
+    }
+
+    // Position in the dataset, header excluded, starting at 1
+    public int getRow() {
+        return row;
+    }
+
+    public String getTerm() {
+        return term;
+    }
+
+    public String getExpectedTitle() {
+        return expectedTitle;
+    }
+
+    // Shown by TestNG and Allure as the parameter value
+    @Override
+    public String toString() {
+        return "#" + row + " " + term + " -> " + expectedTitle;
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.data;
+
+import com.example.config.RunConfig;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.json.Json;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * (term, expected title) pairs streamed from a CSV or JSONL file, one row read at a time
+ * CSV files start with a "term,expected_title" header; JSONL lines are {"term": ..., "expectedTitle": ...}
+ * A shard keeps every count-th row starting at index, so several runs can split one file between them.
+ * TestNG reads a data provider to the end before its parallel workers start, so a data provider would hold every
+ * row in memory at once; {@link #feed(int)} instead parses rows as test threads take them.
+ * With repeat &gt; 1 the file is streamed that many times (e.g. to collect latency percentiles per term)
+ */
+public class SearchDataset implements Iterable<SearchCase> {
+
+    private static final Logger logger = LogManager.getLogger(SearchDataset.class);
+
+    private final String source;
+    private final int shardIndex;
+    private final int shardCount;
+    private final int limit;
+    private final int repeat;
+
+    public SearchDataset(String source, int shardIndex, int shardCount, int limit, int repeat) {
+        if (shardCount < 1 || shardIndex < 0 || shardIndex >= shardCount) {
+            throw new IllegalArgumentException("Invalid shard " + shardIndex + "/" + shardCount);
+        }
+        if (repeat < 1) {
+            throw new IllegalArgumentException("repeat must be at least 1");
+        }
+        this.source = source;
+        this.shardIndex = shardIndex;
+        this.shardCount = shardCount;
+        this.limit = limit;
+        this.repeat = repeat;
+    }
+
+    /**
+     * search.dataset, search.shard (e.g. 0/2), search.limit and search.repeat of the run configuration
+     */
+    public static SearchDataset fromConfig(RunConfig config) {
+        return new SearchDataset(config.getSearchDataset(), config.getSearchShardIndex(), config.getSearchShardCount(),
+                config.getSearchLimit(), config.getSearchRepeat());
+    }
+
+    @Override
+    public Iterator<SearchCase> iterator() {
+        logger.info("Streaming search cases from " + source + " (shard " + shardIndex + "/" + shardCount
+                + (repeat > 1 ? ", " + repeat + " passes" : "") + ")");
+        return new Iterator<>() {
+            private final boolean jsonl = source.endsWith(".jsonl");
+            private BufferedReader reader = open();
+            private int pass = 1;
+            private int row;
+            private int returned;
+            private SearchCase next;
+            private boolean headerSkipped = jsonl;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null && returned < limit) {
+                    next = readNext();
+                }
+                return next != null;
+            }
+
+            @Override
+            public SearchCase next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                SearchCase current = next;
+                next = null;
+                returned++;
+                return current;
+            }
+
+            private SearchCase readNext() {
+                try {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (!headerSkipped) {
+                            headerSkipped = true;
+                            continue;
+                        }
+                        if (line.isBlank()) {
+                            continue;
+                        }
+                        int index = row++;
+                        if (index % shardCount == shardIndex) {
+                            return jsonl ? parseJson(index + 1, line) : parseCsv(index + 1, line);
+                        }
+                    }
+                    reader.close();
+                    if (pass < repeat) {
+                        pass++;
+                        reader = open();
+                        row = 0;
+                        headerSkipped = jsonl;
+                        return readNext();
+                    }
+                    return null;
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not read " + source, e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Rows of this shard, all passes included; reads the file through without keeping any row
+     */
+    public int size() {
+        int size = 0;
+        for (Iterator<SearchCase> cases = iterator(); cases.hasNext(); cases.next()) {
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * The rows read ahead into a queue of the given capacity, for test threads to take as their devices free up
+     */
+    public SearchFeed feed(int capacity) {
+        return new SearchFeed(this, capacity);
+    }
+
+    private BufferedReader open() {
+        try {
+            Path file = Paths.get(source);
+            InputStream in = Files.isRegularFile(file)
+                    ? Files.newInputStream(file)
+                    : SearchDataset.class.getClassLoader().getResourceAsStream(source);
+            if (in == null) {
+                throw new IllegalArgumentException("Search dataset not found: " + source);
+            }
+            return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open " + source, e);
+        }
+    }
+
+    private SearchCase parseJson(int row, String line) {
+        Map<String, Object> values = new Json().toType(line, Json.MAP_TYPE);
+        return new SearchCase(row, String.valueOf(values.get("term")), String.valueOf(values.get("expectedTitle")));
+    }
+
+    private SearchCase parseCsv(int row, String line) {
+        List<String> fields = splitCsv(line);
+        if (fields.size() < 2) {
+            throw new IllegalArgumentException(source + " row " + row + " needs a term and an expected title: " + line);
+        }
+        return new SearchCase(row, fields.get(0), fields.get(1));
+    }
+
+    // RFC 4180 fields on one line: quoted fields may contain commas and doubled quotes
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.data;
+
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Search cases read ahead by a background thread into a bounded queue, for test threads to take one at a time
+ * At most capacity rows are parsed and waiting at any moment, whatever the size of the dataset.
+ */
+public class SearchFeed implements AutoCloseable {
+
+    private static final Object END = new Object();
+
+    private final BlockingQueue<Object> queue;
+    private final Thread reader;
+    private volatile RuntimeException failure;
+
+    public SearchFeed(Iterable<SearchCase> cases, int capacity) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.reader = new Thread(() -> read(cases.iterator()), "search-feed");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * The next case, waiting for the reader if needed; null once the dataset is exhausted
+     */
+    public SearchCase next() {
+        try {
+            Object next = queue.take();
+            if (next == END) {
+                // Leave the marker for the other threads
+                queue.put(END);
+                if (failure != null) {
+                    throw failure;
+                }
+                return null;
+            }
+            return (SearchCase) next;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a search case", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        reader.interrupt();
+    }
+
+    private void read(Iterator<SearchCase> cases) {
+        try {
+            try {
+                while (cases.hasNext()) {
+                    queue.put(cases.next());
+                }
+            } catch (RuntimeException e) {
+                // Reported once the rows read so far are taken
+                failure = e;
+            }
+            queue.put(END);
+        } catch (InterruptedException e) {
+            // Closed
+        }
+    }
+}
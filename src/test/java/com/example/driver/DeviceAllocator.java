@@ -0,0 +1,122 @@
+package com.example.driver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The devices (UDID + UiAutomator2 systemPort) of one Appium node, parsed from the device list of the run
+ * configuration; {@link FarmScheduler} hands them out to tests
+ */
+public class DeviceAllocator {
+
+    private static final int DEFAULT_SYSTEM_PORT = 8200;
+
+    private final List<Device> devices;
+
+    public DeviceAllocator(List<Device> devices) {
+        if (devices.isEmpty()) {
+            throw new IllegalArgumentException("At least one device is required");
+        }
+        this.devices = Collections.unmodifiableList(new ArrayList<>(devices));
+    }
+
+    /**
+     * Parse a device list such as "emulator-5554@emulator,emulator-5556:8210,192.168.1.5:5555"; the optional
+     * :port sets the UiAutomator2 systemPort and the optional @class picks the device class settings of the run
+     * configuration. An adb-over-TCP serial keeps its own port ("192.168.1.5:5555" is a serial, add ":8210" for a
+     * systemPort). Devices without a port get the free ports from 8200 up, after the explicit ones are taken.
+     * An empty spec means a single device chosen by the Appium server
+     */
+    public static DeviceAllocator fromSpec(String spec) {
+        List<Device> devices = new ArrayList<>();
+        if (spec == null || spec.isBlank()) {
+            devices.add(new Device(null, DEFAULT_SYSTEM_PORT));
+            return new DeviceAllocator(devices);
+        }
+        List<String[]> entries = new ArrayList<>();
+        Set<Integer> usedPorts = new HashSet<>();
+        for (String raw : spec.split(",")) {
+            String entry = raw.trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+            String deviceClass = null;
+            int at = entry.lastIndexOf('@');
+            if (at > 0) {
+                deviceClass = entry.substring(at + 1);
+                entry = entry.substring(0, at);
+            }
+            String port = null;
+            int colon = entry.lastIndexOf(':');
+            if (colon > 0 && (entry.indexOf(':') < colon || !isNetworkSerial(entry.substring(0, colon)))) {
+                port = entry.substring(colon + 1);
+                entry = entry.substring(0, colon);
+                if (!usedPorts.add(Integer.parseInt(port))) {
+                    throw new IllegalArgumentException("systemPort " + port + " is given to two devices in " + spec);
+                }
+            }
+            entries.add(new String[] {entry, port, deviceClass});
+        }
+        int nextPort = DEFAULT_SYSTEM_PORT;
+        for (String[] entry : entries) {
+            int port;
+            if (entry[1] != null) {
+                port = Integer.parseInt(entry[1]);
+            } else {
+                while (usedPorts.contains(nextPort)) {
+                    nextPort++;
+                }
+                port = nextPort++;
+            }
+            devices.add(new Device(entry[0], port, entry[2]));
+        }
+        return new DeviceAllocator(devices);
+    }
+
+    public List<Device> getDevices() {
+        return devices;
+    }
+
+    // Host part of an adb-over-TCP serial such as 192.168.1.5:5555 or device.lab.local:5555
+    private static boolean isNetworkSerial(String host) {
+        return host.indexOf('.') >= 0 || host.equals("localhost");
+    }
+
+    public static final class Device {
+        private final String udid;
+        private final int systemPort;
+        private final String deviceClass;
+
+        public Device(String udid, int systemPort) {
+            this(udid, systemPort, null);
+        }
+
+        public Device(String udid, int systemPort, String deviceClass) {
+            this.udid = udid;
+            this.systemPort = systemPort;
+            this.deviceClass = deviceClass;
+        }
+
+        // null means "let the Appium server pick the only connected device"
+        public String getUdid() {
+            return udid;
+        }
+
+        public int getSystemPort() {
+            return systemPort;
+        }
+
+        // null means the default device class
+        public String getDeviceClass() {
+            return deviceClass;
+        }
+
+        @Override
+        public String toString() {
+            return (udid == null ? "default" : udid) + ":" + systemPort + (deviceClass == null ? "" : "@" + deviceClass);
+        }
+    }
+}
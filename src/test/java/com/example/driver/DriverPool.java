@@ -0,0 +1,316 @@
+package com.example.driver;
+
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.InteractsWithApps;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.WebDriverException;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Pool of warm Appium sessions keyed by capability set
+ * Sessions are leased to tests, app state is reset cheaply (terminate + activate)
+ * when a session is reused, and a session is only recreated once it is unhealthy
+ */
+public class DriverPool {
+
+    private static final Logger logger = LogManager.getLogger(DriverPool.class);
+
+    private final Function<Capabilities, AppiumDriver> factory;
+    private final int maxSessionsPerKey;
+    private final Duration leaseTimeout;
+    private final PoolMetrics metrics = new PoolMetrics();
+    private final SessionBaseline baseline;
+
+    private final Map<String, Deque<AppiumDriver>> idle = new HashMap<>();
+    private final Map<String, Integer> open = new HashMap<>();
+    private final Map<AppiumDriver, Entry> leased = new IdentityHashMap<>();
+    private boolean closed;
+
+    public DriverPool(Function<Capabilities, AppiumDriver> factory, int maxSessionsPerKey, Duration leaseTimeout) {
+        this(factory, maxSessionsPerKey, leaseTimeout, null);
+    }
+
+    /**
+     * With a baseline, new sessions are brought to it once and reused sessions are restored to it
+     * instead of the plain terminate/activate reset
+     */
+    public DriverPool(Function<Capabilities, AppiumDriver> factory, int maxSessionsPerKey, Duration leaseTimeout,
+                      SessionBaseline baseline) {
+        if (maxSessionsPerKey < 1) {
+            throw new IllegalArgumentException("maxSessionsPerKey must be at least 1");
+        }
+        this.factory = factory;
+        this.maxSessionsPerKey = maxSessionsPerKey;
+        this.leaseTimeout = leaseTimeout;
+        this.baseline = baseline;
+    }
+
+    /**
+     * Lease a session for the given capabilities, reusing a warm one when available
+     */
+    public AppiumDriver lease(Capabilities capabilities) {
+        String key = keyOf(capabilities);
+        long start = System.currentTimeMillis();
+        long deadline = start + leaseTimeout.toMillis();
+
+        while (true) {
+            AppiumDriver warm = null;
+            boolean mayCreate = false;
+            synchronized (this) {
+                while (!closed && idleFor(key).isEmpty() && openFor(key) >= maxSessionsPerKey) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        throw new IllegalStateException("Timed out waiting for a pooled session for " + key);
+                    }
+                    try {
+                        wait(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Interrupted while waiting for a pooled session", e);
+                    }
+                }
+                if (closed) {
+                    throw new IllegalStateException("Driver pool is closed");
+                }
+                if (!idleFor(key).isEmpty()) {
+                    warm = idleFor(key).pollFirst();
+                } else {
+                    open.merge(key, 1, Integer::sum);
+                    mayCreate = true;
+                }
+            }
+
+            if (warm != null) {
+                if (resetAppState(warm, capabilities)) {
+                    markLeased(warm, key);
+                    metrics.recordLease(System.currentTimeMillis() - start, true);
+                    logger.info("Leased warm session " + warm.getSessionId() + " for " + key);
+                    return warm;
+                }
+                discard(warm, key);
+                continue;
+            }
+
+            if (mayCreate) {
+                AppiumDriver created = create(capabilities, key);
+                markLeased(created, key);
+                metrics.recordLease(System.currentTimeMillis() - start, false);
+                logger.info("Leased new session " + created.getSessionId() + " for " + key);
+                return created;
+            }
+        }
+    }
+
+    /**
+     * Return a leased session to the pool, discarding it if it is no longer healthy
+     */
+    public void release(AppiumDriver driver) {
+        Entry entry;
+        synchronized (this) {
+            entry = leased.remove(driver);
+        }
+        if (entry == null) {
+            logger.warn("Released a session that is not leased from this pool");
+            return;
+        }
+        metrics.recordReturn();
+
+        if (!isHealthy(driver)) {
+            logger.warn("Session " + driver.getSessionId() + " is unhealthy, recycling it");
+            discard(driver, entry.key);
+            return;
+        }
+        synchronized (this) {
+            if (closed) {
+                quietQuit(driver);
+                decrementOpen(entry.key);
+            } else {
+                idleFor(entry.key).addLast(driver);
+            }
+            notifyAll();
+        }
+    }
+
+    /**
+     * Drop a leased session without returning it, e.g. one the session watchdog found dead; unlike
+     * {@link #release(AppiumDriver)} no health round trip is spent on it
+     */
+    public void invalidate(AppiumDriver driver) {
+        Entry entry;
+        synchronized (this) {
+            entry = leased.remove(driver);
+        }
+        if (entry != null) {
+            metrics.recordReturn();
+            discard(driver, entry.key);
+        }
+    }
+
+    /**
+     * Cheap session-bound round trip; a dead UiAutomator2 session fails this immediately
+     */
+    public boolean isHealthy(AppiumDriver driver) {
+        if (driver.getSessionId() == null) {
+            return false;
+        }
+        try {
+            driver.manage().timeouts().getImplicitWaitTimeout();
+            return true;
+        } catch (WebDriverException e) {
+            logger.info("Health check failed for session " + driver.getSessionId() + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    public PoolMetrics getMetrics() {
+        return metrics;
+    }
+
+    public synchronized int idleCount() {
+        return idle.values().stream().mapToInt(Deque::size).sum();
+    }
+
+    public synchronized int leasedCount() {
+        return leased.size();
+    }
+
+    /**
+     * Quit every idle session; leased sessions are quit when they are returned
+     */
+    public void shutdown() {
+        List<AppiumDriver> toQuit = new ArrayList<>();
+        synchronized (this) {
+            closed = true;
+            idle.forEach((key, drivers) -> {
+                toQuit.addAll(drivers);
+                open.merge(key, -drivers.size(), Integer::sum);
+                drivers.clear();
+            });
+            notifyAll();
+        }
+        toQuit.forEach(this::quietQuit);
+        logger.info("Driver pool shut down: " + metrics);
+    }
+
+    static String keyOf(Capabilities capabilities) {
+        return new TreeMap<>(capabilities.asMap()).toString();
+    }
+
+    private AppiumDriver create(Capabilities capabilities, String key) {
+        long start = System.currentTimeMillis();
+        try {
+            AppiumDriver driver = factory.apply(capabilities);
+            long createMillis = System.currentTimeMillis() - start;
+            metrics.recordCreate(createMillis);
+            if (baseline != null) {
+                establishBaseline(driver, createMillis);
+            }
+            return driver;
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                decrementOpen(key);
+                notifyAll();
+            }
+            throw e;
+        }
+    }
+
+    private void establishBaseline(AppiumDriver driver, long createMillis) {
+        try {
+            baseline.establish(driver, createMillis);
+        } catch (RuntimeException e) {
+            quietQuit(driver);
+            throw e;
+        }
+    }
+
+    private boolean resetAppState(AppiumDriver driver, Capabilities capabilities) {
+        if (baseline != null) {
+            long start = System.currentTimeMillis();
+            boolean restored = baseline.restore(driver);
+            if (restored) {
+                metrics.recordReset(System.currentTimeMillis() - start);
+            }
+            return restored;
+        }
+        String appPackage = appPackageOf(capabilities);
+        if (appPackage == null || !(driver instanceof InteractsWithApps)) {
+            return isHealthy(driver);
+        }
+        long start = System.currentTimeMillis();
+        try {
+            InteractsWithApps apps = (InteractsWithApps) driver;
+            apps.terminateApp(appPackage);
+            apps.activateApp(appPackage);
+            metrics.recordReset(System.currentTimeMillis() - start);
+            return true;
+        } catch (WebDriverException e) {
+            logger.warn("Failed to reset app state on session " + driver.getSessionId() + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static String appPackageOf(Capabilities capabilities) {
+        Object value = capabilities.getCapability("appium:appPackage");
+        if (value == null) {
+            value = capabilities.getCapability("appPackage");
+        }
+        return value == null ? null : value.toString();
+    }
+
+    private void discard(AppiumDriver driver, String key) {
+        quietQuit(driver);
+        metrics.recordRecycle();
+        synchronized (this) {
+            decrementOpen(key);
+            notifyAll();
+        }
+    }
+
+    private synchronized void markLeased(AppiumDriver driver, String key) {
+        leased.put(driver, new Entry(key));
+    }
+
+    private void quietQuit(AppiumDriver driver) {
+        if (baseline != null) {
+            baseline.forget(driver);
+        }
+        try {
+            driver.quit();
+        } catch (Exception e) {
+            logger.info("Error quitting session: " + e.getMessage());
+        }
+    }
+
+    private Deque<AppiumDriver> idleFor(String key) {
+        return idle.computeIfAbsent(key, k -> new ArrayDeque<>());
+    }
+
+    private int openFor(String key) {
+        return open.getOrDefault(key, 0);
+    }
+
+    private void decrementOpen(String key) {
+        open.merge(key, -1, Integer::sum);
+    }
+
+    private static final class Entry {
+        private final String key;
+
+        private Entry(String key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.driver;
+
+import io.appium.java_client.AppiumDriver;
+
+/**
+ * Thread-bound holder for the driver used by the current TestNG worker
+ * Each worker thread sees only its own session, so page objects and tests stay parallel-safe
+ */
+public final class DriverRegistry {
+
+    private static final ThreadLocal<AppiumDriver> CURRENT = new ThreadLocal<>();
+
+    private DriverRegistry() {
+    }
+
+    public static void set(AppiumDriver driver) {
+        CURRENT.set(driver);
+    }
+
+    public static AppiumDriver get() {
+        AppiumDriver driver = CURRENT.get();
+        if (driver == null) {
+            throw new IllegalStateException("No driver registered for thread " + Thread.currentThread().getName());
+        }
+        return driver;
+    }
+
+    public static boolean isSet() {
+        return CURRENT.get() != null;
+    }
+
+    public static AppiumDriver remove() {
+        AppiumDriver driver = CURRENT.get();
+        CURRENT.remove();
+        return driver;
+    }
+}
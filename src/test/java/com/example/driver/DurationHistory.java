@@ -0,0 +1,66 @@
+package com.example.driver;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Expected duration per test, learned from the runs recorded so far
+ * Each test keeps an exponentially weighted mean, so a test that got faster or slower is picked up after a few runs;
+ * a test without history is expected to take as long as the mean of the known ones
+ */
+public class DurationHistory {
+
+    // Weight of the newest run in the moving mean
+    private static final double ALPHA = 0.3;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long unknownMillis;
+
+    /**
+     * @param unknownMillis expected duration while no test has any history
+     */
+    public DurationHistory(long unknownMillis) {
+        this.unknownMillis = unknownMillis;
+    }
+
+    public void record(String test, long millis) {
+        entries.compute(test, (name, entry) -> entry == null
+                ? new Entry(millis, 1)
+                : new Entry(entry.meanMillis + ALPHA * (millis - entry.meanMillis), entry.runs + 1));
+    }
+
+    /**
+     * Start a test from a mean learned elsewhere, e.g. earlier runs
+     */
+    public void seed(String test, double meanMillis, int runs) {
+        entries.put(test, new Entry(meanMillis, runs));
+    }
+
+    public long expectedMillis(String test) {
+        Entry entry = entries.get(test);
+        if (entry != null) {
+            return Math.round(entry.meanMillis);
+        }
+        return entries.isEmpty() ? unknownMillis
+                : Math.round(entries.values().stream().mapToDouble(e -> e.meanMillis).average().orElse(unknownMillis));
+    }
+
+    public int runs(String test) {
+        Entry entry = entries.get(test);
+        return entry == null ? 0 : entry.runs;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static final class Entry {
+        private final double meanMillis;
+        private final int runs;
+
+        Entry(double meanMillis, int runs) {
+            this.meanMillis = meanMillis;
+            this.runs = runs;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.driver;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lease/return counters for the driver pool
+ * All counters are cumulative since the pool was created
+ */
+public class PoolMetrics {
+
+    private final AtomicLong leases = new AtomicLong();
+    private final AtomicLong returns = new AtomicLong();
+    private final AtomicLong sessionsCreated = new AtomicLong();
+    private final AtomicLong sessionsRecycled = new AtomicLong();
+    private final AtomicLong warmHits = new AtomicLong();
+    private final AtomicLong resets = new AtomicLong();
+    private final AtomicLong leaseWaitMillis = new AtomicLong();
+    private final AtomicLong createMillis = new AtomicLong();
+    private final AtomicLong resetMillis = new AtomicLong();
+
+    void recordLease(long waitMillis, boolean warm) {
+        leases.incrementAndGet();
+        leaseWaitMillis.addAndGet(waitMillis);
+        if (warm) {
+            warmHits.incrementAndGet();
+        }
+    }
+
+    void recordReturn() {
+        returns.incrementAndGet();
+    }
+
+    void recordCreate(long millis) {
+        sessionsCreated.incrementAndGet();
+        createMillis.addAndGet(millis);
+    }
+
+    void recordRecycle() {
+        sessionsRecycled.incrementAndGet();
+    }
+
+    void recordReset(long millis) {
+        resets.incrementAndGet();
+        resetMillis.addAndGet(millis);
+    }
+
+    public long getLeases() {
+        return leases.get();
+    }
+
+    public long getReturns() {
+        return returns.get();
+    }
+
+    public long getSessionsCreated() {
+        return sessionsCreated.get();
+    }
+
+    public long getSessionsRecycled() {
+        return sessionsRecycled.get();
+    }
+
+    public long getWarmHits() {
+        return warmHits.get();
+    }
+
+    public long getResets() {
+        return resets.get();
+    }
+
+    public long getLeaseWaitMillis() {
+        return leaseWaitMillis.get();
+    }
+
+    public long getCreateMillis() {
+        return createMillis.get();
+    }
+
+    public long getResetMillis() {
+        return resetMillis.get();
+    }
+
+    @Override
+    public String toString() {
+        return "leases=" + getLeases()
+                + ", returns=" + getReturns()
+                + ", warmHits=" + getWarmHits()
+                + ", created=" + getSessionsCreated()
+                + ", recycled=" + getSessionsRecycled()
+                + ", resets=" + getResets()
+                + ", leaseWaitMs=" + getLeaseWaitMillis()
+                + ", createMs=" + getCreateMillis()
+                + ", resetMs=" + getResetMillis();
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.driver;
+
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.InvalidArgumentException;
+import org.openqa.selenium.UnsupportedCommandException;
+import org.openqa.selenium.WebDriverException;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mobile scripts ("mobile: startActivity") that an Appium server rejected as unknown, remembered per server
+ * Farm nodes may run different driver versions, so a script missing on one server is still tried on the others.
+ * Only an unknown-command error, or an invalid-argument error naming the script, counts: a timeout or a failure
+ * on one element says nothing about the server's support.
+ */
+public final class ScriptSupport {
+
+    private static final Map<String, Set<String>> UNSUPPORTED = new ConcurrentHashMap<>();
+
+    private ScriptSupport() {
+    }
+
+    public static boolean isUnsupported(AppiumDriver driver, String script) {
+        Set<String> scripts = UNSUPPORTED.get(endpoint(driver));
+        return scripts != null && scripts.contains(script);
+    }
+
+    /**
+     * Remember the script as unsupported on the driver's server if the error says the server does not know it
+     * @return whether it did
+     */
+    public static boolean markIfUnsupported(AppiumDriver driver, String script, WebDriverException error) {
+        boolean unknown = error instanceof UnsupportedCommandException
+                || error instanceof InvalidArgumentException && String.valueOf(error.getMessage()).contains(script);
+        if (unknown) {
+            UNSUPPORTED.computeIfAbsent(endpoint(driver), e -> ConcurrentHashMap.newKeySet()).add(script);
+        }
+        return unknown;
+    }
+
+    private static String endpoint(AppiumDriver driver) {
+        return String.valueOf(driver.getRemoteAddress());
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.driver;
+
+import com.example.metrics.LatencyTable;
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.InteractsWithApps;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.SessionId;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Known app state every test starts from (onboarding skipped, startup dialogs dismissed)
+ * A new session reaches it once through UI steps; the app data it leaves behind survives a restart,
+ * so a reused session is brought back with a single activity start (force-stop, new task, cleared back stack)
+ * instead of replaying those steps. Servers without mobile: startActivity fall back to terminate + activate.
+ */
+public class SessionBaseline {
+
+    private static final Logger logger = LogManager.getLogger(SessionBaseline.class);
+    // Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK
+    private static final String NEW_CLEAR_TASK_FLAGS = "0x10008000";
+    private static final String START_ACTIVITY = "mobile: startActivity";
+
+    public static final String COLD_START = "cold start (new session + baseline steps)";
+    public static final String RESTORED_START = "restored start (activity restart)";
+    public static final String FALLBACK_START = "restored start (terminate + activate)";
+
+    private final String appPackage;
+    private final String appActivity;
+    private final Consumer<AppiumDriver> baselineSteps;
+    private final Set<SessionId> established = ConcurrentHashMap.newKeySet();
+    private final LatencyTable timings = new LatencyTable();
+
+    public SessionBaseline(String appPackage, String appActivity, Consumer<AppiumDriver> baselineSteps) {
+        this.appPackage = appPackage;
+        this.appActivity = appActivity;
+        this.baselineSteps = baselineSteps;
+    }
+
+    /**
+     * Run the baseline steps on a session that was just created
+     */
+    public void establish(AppiumDriver driver, long sessionCreateMillis) {
+        long start = System.nanoTime();
+        baselineSteps.accept(driver);
+        established.add(driver.getSessionId());
+        long micros = sessionCreateMillis * 1000 + (System.nanoTime() - start) / 1000;
+        timings.record(COLD_START, micros);
+        logger.info("Baseline established on session " + driver.getSessionId() + " in " + micros / 1000 + " ms");
+    }
+
+    /**
+     * Bring a reused session back to the baseline; false if the session could not be restored
+     */
+    public boolean restore(AppiumDriver driver) {
+        if (!established.contains(driver.getSessionId())) {
+            establish(driver, 0);
+            return true;
+        }
+        long start = System.nanoTime();
+        if (!ScriptSupport.isUnsupported(driver, START_ACTIVITY)) {
+            try {
+                Map<String, Object> args = new HashMap<>();
+                args.put("intent", appPackage + "/" + appActivity);
+                args.put("stop", true);
+                args.put("flags", NEW_CLEAR_TASK_FLAGS);
+                driver.executeScript(START_ACTIVITY, args);
+                timings.record(RESTORED_START, (System.nanoTime() - start) / 1000);
+                return true;
+            } catch (NoSuchSessionException e) {
+                logger.warn("Failed to restore baseline on session " + driver.getSessionId() + ": " + e.getMessage());
+                return false;
+            } catch (WebDriverException e) {
+                if (ScriptSupport.markIfUnsupported(driver, START_ACTIVITY, e)) {
+                    logger.info(START_ACTIVITY + " is not supported by " + driver.getRemoteAddress()
+                            + ", restarting through terminate/activate");
+                } else {
+                    logger.warn(START_ACTIVITY + " failed, restarting through terminate/activate: " + e.getMessage());
+                }
+                start = System.nanoTime();
+            }
+        }
+        if (!(driver instanceof InteractsWithApps)) {
+            return false;
+        }
+        try {
+            InteractsWithApps apps = (InteractsWithApps) driver;
+            apps.terminateApp(appPackage);
+            apps.activateApp(appPackage);
+            timings.record(FALLBACK_START, (System.nanoTime() - start) / 1000);
+            return true;
+        } catch (WebDriverException e) {
+            logger.warn("Failed to restore baseline on session " + driver.getSessionId() + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Forget a session that was quit, so its id is not mistaken for an established one
+     */
+    public void forget(AppiumDriver driver) {
+        established.remove(driver.getSessionId());
+    }
+
+    public LatencyTable getTimings() {
+        return timings;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.driver;
+
+import org.openqa.selenium.NoSuchSessionException;
+
+/**
+ * Thrown instead of sending a command to a session the {@link SessionWatchdog} found dead
+ * A NoSuchSessionException, so waits do not swallow it and step retries and the pool treat it as a dead session
+ */
+public class SessionDeadException extends NoSuchSessionException {
+
+    private static final long serialVersionUID = 1L;
+
+    public SessionDeadException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,270 @@
+package com.example.driver;
+
+import com.example.config.RunConfig;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.remote.SessionId;
+
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Finds dead sessions early so tests stop spending their wait timeouts on them
+ * Sessions are registered by {@link TimedCommandExecutor}, which also reports every response: an "invalid session id"
+ * or a crashed UiAutomator2 instrumentation marks the session dead at once. In the background, sessions without a
+ * response in the last interval are pinged (server /status, then a cheap proxied session command); a session that
+ * fails that many pings in a row is marked dead. A session with a command running is not pinged: Appium runs one
+ * command at a time per session, so the ping would only queue behind a slow command and time out. Commands on a dead session then fail immediately with
+ * {@link SessionDeadException} instead of reaching the server, which aborts pending waits and lets the pool recycle it.
+ */
+public class SessionWatchdog {
+
+    private static final Logger logger = LogManager.getLogger(SessionWatchdog.class);
+    // Appium's error when the UiAutomator2 server on the device is gone
+    private static final String INSTRUMENTATION_CRASHED = "instrumentation process is not running";
+
+    private static SessionWatchdog global;
+
+    private final Duration interval;
+    private final Duration pingTimeout;
+    private final int failuresToDeath;
+    private final HttpClient http;
+    private final Map<SessionId, Watched> sessions = new ConcurrentHashMap<>();
+    private ScheduledExecutorService timer;
+
+    private final AtomicLong pings = new AtomicLong();
+    private final AtomicLong pingFailures = new AtomicLong();
+    private final AtomicLong deadByPing = new AtomicLong();
+    private final AtomicLong deadByCommand = new AtomicLong();
+    private final AtomicLong refusedCommands = new AtomicLong();
+
+    /**
+     * @param interval time between pings of an idle session, zero to rely on command responses only
+     */
+    public SessionWatchdog(Duration interval, Duration pingTimeout, int failuresToDeath) {
+        this.interval = interval;
+        this.pingTimeout = pingTimeout;
+        this.failuresToDeath = failuresToDeath;
+        this.http = HttpClient.newBuilder().connectTimeout(pingTimeout).build();
+    }
+
+    public static synchronized SessionWatchdog global() {
+        if (global == null) {
+            RunConfig config = RunConfig.get();
+            global = new SessionWatchdog(config.getWatchdogInterval(), config.getWatchdogPingTimeout(),
+                    config.getWatchdogFailures());
+        }
+        return global;
+    }
+
+    public void watch(SessionId session, URL server) {
+        sessions.put(session, new Watched(server.toString().replaceAll("/+$", "")));
+        startTimer();
+    }
+
+    public void forget(SessionId session) {
+        sessions.remove(session);
+    }
+
+    public boolean isDead(SessionId session) {
+        Watched watched = session == null ? null : sessions.get(session);
+        return watched != null && watched.deadReason != null;
+    }
+
+    /**
+     * Fail fast before a command is sent to a session known to be dead
+     */
+    public void checkAlive(SessionId session) {
+        Watched watched = session == null ? null : sessions.get(session);
+        if (watched != null && watched.deadReason != null) {
+            refusedCommands.incrementAndGet();
+            throw new SessionDeadException("Session " + session + " is dead: " + watched.deadReason);
+        }
+    }
+
+    /**
+     * A command of the session is being sent; the session is not pinged until every such command has returned
+     */
+    public void commandStarted(SessionId session) {
+        Watched watched = session == null ? null : sessions.get(session);
+        if (watched != null) {
+            watched.inFlight.incrementAndGet();
+        }
+    }
+
+    public void commandFinished(SessionId session) {
+        Watched watched = session == null ? null : sessions.get(session);
+        if (watched != null) {
+            watched.inFlight.updateAndGet(n -> Math.max(0, n - 1));
+            watched.lastResponseNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * A response arrived: an error that means the session is gone marks it dead, anything else proves it alive
+     */
+    public void onResponse(SessionId session, Object error) {
+        Watched watched = session == null ? null : sessions.get(session);
+        if (watched == null) {
+            return;
+        }
+        if (error instanceof Throwable && isFatal((Throwable) error)) {
+            markDead(session, watched, String.valueOf(((Throwable) error).getMessage()).split("\n")[0], deadByCommand);
+            return;
+        }
+        watched.lastResponseNanos = System.nanoTime();
+        watched.failures = 0;
+    }
+
+    /**
+     * The server could not be reached for a command; counts like a failed ping
+     */
+    public void onUnreachable(SessionId session, Throwable error) {
+        Watched watched = session == null ? null : sessions.get(session);
+        if (watched != null) {
+            fail(session, watched, "server unreachable: " + error.getMessage());
+        }
+    }
+
+    public void markDead(SessionId session, String reason) {
+        Watched watched = sessions.get(session);
+        if (watched != null) {
+            markDead(session, watched, reason, deadByCommand);
+        }
+    }
+
+    public synchronized void shutdown() {
+        if (timer != null) {
+            timer.shutdownNow();
+            timer = null;
+        }
+    }
+
+    public long getPings() {
+        return pings.get();
+    }
+
+    public long getRefusedCommands() {
+        return refusedCommands.get();
+    }
+
+    @Override
+    public String toString() {
+        return "watched=" + sessions.size()
+                + ", pings=" + pings.get()
+                + ", pingFailures=" + pingFailures.get()
+                + ", deadByPing=" + deadByPing.get()
+                + ", deadByCommand=" + deadByCommand.get()
+                + ", refusedCommands=" + refusedCommands.get();
+    }
+
+    private static boolean isFatal(Throwable error) {
+        return error instanceof NoSuchSessionException
+                || String.valueOf(error.getMessage()).contains(INSTRUMENTATION_CRASHED);
+    }
+
+    private synchronized void startTimer() {
+        if (timer != null || interval.isZero()) {
+            return;
+        }
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.scheduleWithFixedDelay(this::pingIdleSessions, interval.toMillis(), interval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    // One /status per server, then the sessions of the servers that answered, all requests in parallel
+    private void pingIdleSessions() {
+        try {
+            long idleSince = System.nanoTime() - interval.toNanos();
+            Map<String, List<Map.Entry<SessionId, Watched>>> byServer = sessions.entrySet().stream()
+                    .filter(e -> e.getValue().deadReason == null && e.getValue().inFlight.get() == 0
+                            && e.getValue().lastResponseNanos < idleSince)
+                    .collect(Collectors.groupingBy(e -> e.getValue().server));
+            List<CompletableFuture<Void>> checks = new ArrayList<>();
+            byServer.forEach((server, watched) -> checks.add(get(server + "/status").thenCompose(status -> {
+                if (status == null || status.statusCode() != 200) {
+                    watched.forEach(e -> fail(e.getKey(), e.getValue(), "server " + server + " does not answer /status"));
+                    return CompletableFuture.completedFuture(null);
+                }
+                return CompletableFuture.allOf(watched.stream()
+                        .map(e -> get(server + "/session/" + e.getKey() + "/window/rect")
+                                .thenAccept(response -> onPing(e.getKey(), e.getValue(), response)))
+                        .toArray(CompletableFuture<?>[]::new));
+            })));
+            CompletableFuture.allOf(checks.toArray(new CompletableFuture<?>[0])).join();
+        } catch (RuntimeException e) {
+            logger.warn("Session watchdog ping failed: " + e.getMessage());
+        }
+    }
+
+    private void onPing(SessionId session, Watched watched, HttpResponse<String> response) {
+        if (response != null && response.statusCode() == 200) {
+            watched.failures = 0;
+        } else if (response != null && response.body().contains("invalid session id")) {
+            markDead(session, watched, "session no longer exists on " + watched.server, deadByPing);
+        } else if (response != null && response.body().contains(INSTRUMENTATION_CRASHED)) {
+            markDead(session, watched, "UiAutomator2 instrumentation crashed", deadByPing);
+        } else {
+            fail(session, watched, response == null ? "no answer within " + pingTimeout.toMillis() + " ms"
+                    : "HTTP " + response.statusCode());
+        }
+    }
+
+    // Null when the request failed or timed out
+    private CompletableFuture<HttpResponse<String>> get(String url) {
+        pings.incrementAndGet();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(pingTimeout).GET().build();
+        return http.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .exceptionally(e -> null);
+    }
+
+    private void fail(SessionId session, Watched watched, String reason) {
+        pingFailures.incrementAndGet();
+        if (++watched.failures >= failuresToDeath) {
+            markDead(session, watched, reason + " (" + watched.failures + " times in a row)", deadByPing);
+        }
+    }
+
+    private void markDead(SessionId session, Watched watched, String reason, AtomicLong counter) {
+        synchronized (watched) {
+            if (watched.deadReason != null) {
+                return;
+            }
+            watched.deadReason = reason;
+        }
+        counter.incrementAndGet();
+        logger.warn("Session " + session + " marked dead: " + reason);
+    }
+
+    private static final class Watched {
+        private final String server;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile long lastResponseNanos = System.nanoTime();
+        private volatile int failures;
+        private volatile String deadReason;
+
+        Watched(String server) {
+            this.server = server;
+        }
+    }
+}
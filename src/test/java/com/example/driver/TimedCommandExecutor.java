@@ -0,0 +1,70 @@
+package com.example.driver;
+
+import com.example.metrics.CommandLatency;
+import io.appium.java_client.MobileCommand;
+import io.appium.java_client.remote.AppiumCommandExecutor;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.DriverCommand;
+import org.openqa.selenium.remote.Response;
+import org.openqa.selenium.remote.SessionId;
+
+import java.io.UncheckedIOException;
+import java.net.URL;
+
+/**
+ * Appium command executor that records the wall time of every command in {@link CommandLatency}
+ * Command names are Selenium's (findElement, clickElement, sendKeysToElement, getPageSource, screenshot, ...)
+ * Sessions are also registered with a {@link SessionWatchdog}: every response is reported to it, and commands on a
+ * session it found dead fail with {@link SessionDeadException} before reaching the server.
+ */
+public class TimedCommandExecutor extends AppiumCommandExecutor {
+
+    private final CommandLatency latency;
+    private final SessionWatchdog watchdog;
+    private final URL serverUrl;
+
+    public TimedCommandExecutor(URL serverUrl) {
+        this(serverUrl, CommandLatency.global());
+    }
+
+    public TimedCommandExecutor(URL serverUrl, CommandLatency latency) {
+        this(serverUrl, latency, SessionWatchdog.global());
+    }
+
+    public TimedCommandExecutor(URL serverUrl, CommandLatency latency, SessionWatchdog watchdog) {
+        super(MobileCommand.commandRepository, serverUrl);
+        this.latency = latency;
+        this.watchdog = watchdog;
+        this.serverUrl = serverUrl;
+    }
+
+    @Override
+    public Response execute(Command command) throws WebDriverException {
+        boolean quit = DriverCommand.QUIT.equals(command.getName());
+        if (quit) {
+            watchdog.forget(command.getSessionId());
+        } else {
+            watchdog.checkAlive(command.getSessionId());
+        }
+        long start = System.nanoTime();
+        watchdog.commandStarted(command.getSessionId());
+        try {
+            Response response = super.execute(command);
+            if (DriverCommand.NEW_SESSION.equals(command.getName()) && response.getSessionId() != null) {
+                watchdog.watch(new SessionId(response.getSessionId()), serverUrl);
+            } else if (!quit) {
+                watchdog.onResponse(command.getSessionId(), response.getValue());
+            }
+            return response;
+        } catch (WebDriverException | UncheckedIOException e) {
+            if (!quit) {
+                watchdog.onUnreachable(command.getSessionId(), e);
+            }
+            throw e;
+        } finally {
+            watchdog.commandFinished(command.getSessionId());
+            latency.record(command.getName(), System.nanoTime() - start);
+        }
+    }
+}
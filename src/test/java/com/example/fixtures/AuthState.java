@@ -0,0 +1,60 @@
+package com.example.fixtures;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Authentication state a test needs the app to be in: logged out, or logged in as a given account
+ */
+public final class AuthState {
+
+    private static final AuthState LOGGED_OUT = new AuthState(null, null);
+
+    private final String username;
+    private final String password;
+
+    private AuthState(String username, String password) {
+        this.username = username;
+        this.password = password;
+    }
+
+    public static AuthState loggedOut() {
+        return LOGGED_OUT;
+    }
+
+    public static AuthState loggedInAs(String username, String password) {
+        return new AuthState(Objects.requireNonNull(username), Objects.requireNonNull(password));
+    }
+
+    public boolean isLoggedIn() {
+        return username != null;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    String getPassword() {
+        return password;
+    }
+
+    // Whether the account name shown by the app (empty when logged out) satisfies this state
+    boolean matches(Optional<String> signedInAccount) {
+        return isLoggedIn() ? signedInAccount.filter(username::equalsIgnoreCase).isPresent() : !signedInAccount.isPresent();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof AuthState && Objects.equals(username, ((AuthState) o).username);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(username);
+    }
+
+    @Override
+    public String toString() {
+        return isLoggedIn() ? "logged in as " + username : "logged out";
+    }
+}
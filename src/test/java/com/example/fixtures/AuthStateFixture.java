@@ -0,0 +1,109 @@
+package com.example.fixtures;
+
+import com.example.metrics.LatencyTable;
+import com.example.pages.PageRegistry;
+import com.example.pages.WikipediaMainPage;
+import io.appium.java_client.AppiumDriver;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.remote.SessionId;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Brings the app to the authentication state a test declares, by the cheapest path available
+ * App data (and with it the login) lives as long as the pooled session on a device, so the state reached
+ * on a device is cached per device and session and a cached state is taken as is, without touching the app.
+ * The cache only holds while the session's pages did not log in or out since (see {@link PageRegistry}) and is
+ * dropped when the session is recycled; without it the app is probed once and the UI login/logout flow only runs
+ * when it is not in the required state
+ */
+public class AuthStateFixture {
+
+    private static final Logger logger = LogManager.getLogger(AuthStateFixture.class);
+    private static final AuthStateFixture GLOBAL = new AuthStateFixture();
+
+    public static final String CACHE_HIT = "cache hit";
+    public static final String ALREADY_IN_STATE = "already in state";
+    public static final String UI_FLOW = "ui flow";
+
+    private final Map<String, Cached> byDevice = new ConcurrentHashMap<>();
+    private final LatencyTable timings = new LatencyTable();
+
+    public static AuthStateFixture global() {
+        return GLOBAL;
+    }
+
+    public void require(AppiumDriver driver, String device, AuthState required) {
+        long start = System.nanoTime();
+        PageRegistry pages = PageRegistry.of(driver);
+        Cached cached = byDevice.get(device);
+        if (cached != null && cached.session.equals(driver.getSessionId()) && cached.state.equals(required)
+                && cached.authChanges == pages.getAuthChanges()) {
+            timings.record(CACHE_HIT, (System.nanoTime() - start) / 1000);
+            logger.info("Auth state '" + required + "' on " + device + " reached via " + CACHE_HIT);
+            return;
+        }
+        WikipediaMainPage mainPage = pages.get(WikipediaMainPage.class);
+        Optional<String> signedIn = mainPage.signedInAccountName();
+
+        String path;
+        if (required.matches(signedIn)) {
+            path = ALREADY_IN_STATE;
+        } else {
+            path = UI_FLOW;
+            if (signedIn.isPresent()) {
+                mainPage.logoutIfLoggedIn();
+            }
+            if (required.isLoggedIn()) {
+                mainPage.clickMoreTab()
+                        .clickAccountContainer()
+                        .clickLoginBtnInCreatePage()
+                        .enterCredentialsAndLogin(required.getUsername(), required.getPassword());
+                mainPage.closeAlertIfPresent();
+            }
+            signedIn = mainPage.signedInAccountName();
+            if (!required.matches(signedIn)) {
+                byDevice.remove(device);
+                throw new IllegalStateException("Could not reach auth state '" + required + "' on " + device
+                        + ", app shows " + signedIn.orElse("no account"));
+            }
+        }
+        byDevice.put(device, new Cached(driver.getSessionId(), required, pages.getAuthChanges()));
+        timings.record(path, (System.nanoTime() - start) / 1000);
+        logger.info("Auth state '" + required + "' on " + device + " reached via " + path);
+    }
+
+    /**
+     * Drop the cached state of a device, e.g. after a test logged in or out through the UI itself
+     */
+    public void invalidate(String device) {
+        byDevice.remove(device);
+    }
+
+    /**
+     * Drop the cached state reached on a session once it was quit
+     */
+    public void invalidate(SessionId session) {
+        byDevice.values().removeIf(cached -> cached.session.equals(session));
+    }
+
+    public LatencyTable getTimings() {
+        return timings;
+    }
+
+    private static final class Cached {
+        private final SessionId session;
+        private final AuthState state;
+        // Logins and logouts of the session's pages when the state was reached
+        private final long authChanges;
+
+        Cached(SessionId session, AuthState state, long authChanges) {
+            this.session = session;
+            this.state = state;
+            this.authChanges = authChanges;
+        }
+    }
+}
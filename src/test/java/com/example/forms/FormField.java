@@ -0,0 +1,52 @@
+package com.example.forms;
+
+import org.openqa.selenium.By;
+
+/**
+ * One text input of a form and the value it should end up with
+ * The locator must be one a page snapshot can answer (id, accessibility id, class name or xpath)
+ */
+public class FormField {
+
+    private final String name;
+    private final By locator;
+    private final String value;
+    private final boolean secret;
+
+    private FormField(String name, By locator, String value, boolean secret) {
+        this.name = name;
+        this.locator = locator;
+        this.value = value;
+        this.secret = secret;
+    }
+
+    public static FormField of(String name, By locator, String value) {
+        return new FormField(name, locator, value, false);
+    }
+
+    // Value is not logged
+    public static FormField secret(String name, By locator, String value) {
+        return new FormField(name, locator, value, true);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public By getLocator() {
+        return locator;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public boolean isSecret() {
+        return secret;
+    }
+
+    @Override
+    public String toString() {
+        return name + "=" + (secret ? "***" : value);
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.forms;
+
+import com.example.driver.ScriptSupport;
+import com.example.locators.PageSnapshot;
+import com.example.locators.SnapshotNode;
+import com.example.metrics.LatencyTable;
+import com.example.waits.WaitEngine;
+import io.appium.java_client.AppiumBy;
+import io.appium.java_client.AppiumDriver;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.RemoteWebElement;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Fills several text inputs of a form in one pass
+ * The fields are located in one page-source snapshot and resolved to elements with a single findElements
+ * over all inputs (matched by position), each value is set with mobile: replaceElementValue (one call that
+ * replaces the text, instead of clear + sendKeys with their IME round trips) and the result is verified
+ * against one more snapshot. Servers without that script fall back to clear + sendKeys, as does a value whose
+ * script call failed.
+ */
+public class FormFiller {
+
+    private static final Logger logger = LogManager.getLogger(FormFiller.class);
+    private static final By INPUTS = AppiumBy.className("android.widget.EditText");
+    private static final LatencyTable TIMINGS = new LatencyTable();
+
+    public static final String REPLACE_VALUE = "replaceElementValue";
+    public static final String CLEAR_AND_TYPE = "clear + sendKeys";
+
+    private static final String REPLACE_VALUE_SCRIPT = "mobile: replaceElementValue";
+
+    private final AppiumDriver driver;
+    private final WaitEngine waits;
+    private final Duration timeout;
+
+    public FormFiller(AppiumDriver driver, WaitEngine waits, Duration timeout) {
+        this.driver = driver;
+        this.waits = waits;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Wait until every field is on screen, set all values and verify them
+     * Fields with a null value are left untouched
+     * @throws IllegalStateException when a field does not hold its value afterwards
+     */
+    public void fill(String formName, List<FormField> fields) {
+        long start = System.nanoTime();
+        List<FormField> toFill = fields.stream().filter(f -> f.getValue() != null).collect(Collectors.toList());
+        List<Integer> positions = waits.until(formName + ".fields", timeout, () -> positions(PageSnapshot.capture(driver), toFill));
+        List<WebElement> elements = resolve(toFill, positions);
+
+        String path = null;
+        for (int i = 0; i < toFill.size(); i++) {
+            path = setValue(elements.get(i), toFill.get(i).getValue());
+        }
+        verify(formName, toFill, positions);
+
+        if (path != null) {
+            TIMINGS.record(formName + " (" + path + ")", (System.nanoTime() - start) / 1000);
+        }
+        logger.info("Filled " + formName + ": " + toFill);
+    }
+
+    public static LatencyTable getTimings() {
+        return TIMINGS;
+    }
+
+    // Position of each field among the inputs of the snapshot, or null while one of them is missing
+    private static List<Integer> positions(PageSnapshot snapshot, List<FormField> fields) {
+        List<SnapshotNode> inputs = snapshot.findAll(INPUTS);
+        List<Integer> positions = new ArrayList<>();
+        for (FormField field : fields) {
+            int position = snapshot.findAll(field.getLocator()).stream()
+                    .filter(SnapshotNode::isDisplayed)
+                    .mapToInt(inputs::indexOf)
+                    .filter(index -> index >= 0)
+                    .findFirst()
+                    .orElse(-1);
+            if (position < 0) {
+                return null;
+            }
+            positions.add(position);
+        }
+        return positions;
+    }
+
+    // One findElements for all inputs; per-field lookups only if the screen changed since the snapshot
+    private List<WebElement> resolve(List<FormField> fields, List<Integer> positions) {
+        List<WebElement> inputs = driver.findElements(INPUTS);
+        List<WebElement> elements = new ArrayList<>();
+        for (int i = 0; i < fields.size(); i++) {
+            int position = positions.get(i);
+            if (position < inputs.size()) {
+                elements.add(inputs.get(position));
+            } else {
+                logger.info("Inputs changed after the snapshot, looking up " + fields.get(i).getName() + " directly");
+                elements.add(driver.findElement(fields.get(i).getLocator()));
+            }
+        }
+        return elements;
+    }
+
+    private String setValue(WebElement element, String value) {
+        if (!ScriptSupport.isUnsupported(driver, REPLACE_VALUE_SCRIPT) && element instanceof RemoteWebElement) {
+            try {
+                Map<String, Object> args = new HashMap<>();
+                args.put("elementId", ((RemoteWebElement) element).getId());
+                args.put("text", value);
+                driver.executeScript(REPLACE_VALUE_SCRIPT, args);
+                return REPLACE_VALUE;
+            } catch (NoSuchSessionException e) {
+                // A dead session says nothing about the script's support
+                throw e;
+            } catch (WebDriverException e) {
+                if (ScriptSupport.markIfUnsupported(driver, REPLACE_VALUE_SCRIPT, e)) {
+                    logger.info(REPLACE_VALUE_SCRIPT + " is not supported by " + driver.getRemoteAddress() + ", typing instead");
+                } else {
+                    logger.info(REPLACE_VALUE_SCRIPT + " failed, typing this value instead: " + e.getMessage());
+                }
+            }
+        }
+        element.clear();
+        element.sendKeys(value);
+        return CLEAR_AND_TYPE;
+    }
+
+    private void verify(String formName, List<FormField> fields, List<Integer> positions) {
+        List<SnapshotNode> inputs = PageSnapshot.capture(driver).findAll(INPUTS);
+        List<String> mismatched = new ArrayList<>();
+        for (int i = 0; i < fields.size(); i++) {
+            int position = positions.get(i);
+            if (position >= inputs.size() || !holds(inputs.get(position), fields.get(i).getValue())) {
+                mismatched.add(fields.get(i).getName());
+            }
+        }
+        if (!mismatched.isEmpty()) {
+            throw new IllegalStateException("Form " + formName + " does not hold the values entered into " + mismatched);
+        }
+    }
+
+    // Password inputs may expose their text masked, so only the length can be compared
+    private static boolean holds(SnapshotNode input, String value) {
+        String text = input.getText();
+        if (value.isEmpty()) {
+            return text.isEmpty() || text.equals(input.attribute("hint"));
+        }
+        return text.equals(value)
+                || ("true".equals(input.attribute("password")) && text.length() == value.length());
+    }
+}
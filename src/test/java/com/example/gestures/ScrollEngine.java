@@ -0,0 +1,191 @@
+package com.example.gestures;
+
+import com.example.config.RunConfig;
+import com.example.locators.LocatorCompiler;
+import com.example.locators.PageSnapshot;
+import com.example.locators.SnapshotNode;
+import io.appium.java_client.AppiumDriver;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Scroll search built on UiAutomator2's mobile: scrollGesture instead of UiScrollable
+ * After every step the page source is captured once and the target is looked up in that snapshot.
+ * The step size follows the row height of the list (consecutive screens overlap by about one and a half rows),
+ * the end of the list is detected when a step leaves the visible hierarchy unchanged or the driver reports
+ * it cannot scroll further, and every search is capped by a scroll count and a time budget
+ */
+public class ScrollEngine {
+
+    private static final Logger logger = LogManager.getLogger(ScrollEngine.class);
+    private static final Pattern BOUNDS = Pattern.compile("\\[(-?\\d+),(-?\\d+)]\\[(-?\\d+),(-?\\d+)]");
+    private static final double MIN_STEP = 0.3;
+    private static final double MAX_STEP = 0.85;
+    private static final double OVERLAP_ROWS = 1.5;
+
+    private final AppiumDriver driver;
+    private final ScrollStats stats;
+    private final int maxScrolls;
+    private final Duration budget;
+
+    public ScrollEngine(AppiumDriver driver) {
+        // scroll.maxScrolls and scroll.budget of the run configuration cap every search
+        this(driver, ScrollStats.global(), RunConfig.get().getScrollMaxScrolls(), RunConfig.get().getScrollBudget());
+    }
+
+    public ScrollEngine(AppiumDriver driver, ScrollStats stats, int maxScrolls, Duration budget) {
+        this.driver = driver;
+        this.stats = stats;
+        this.maxScrolls = maxScrolls;
+        this.budget = budget;
+    }
+
+    /**
+     * Scroll down the first scrollable container until the target is on screen
+     * The locator must be one a snapshot can answer (id, accessibility id, class name or xpath)
+     */
+    public Optional<WebElement> scrollTo(String name, By target) {
+        long deadline = System.nanoTime() + budget.toNanos();
+        PageSnapshot snapshot = PageSnapshot.capture(driver);
+        int scrolls = 0;
+        boolean endReached = false;
+        while (true) {
+            if (snapshot.isVisible(target)) {
+                stats.recordHit(name, scrolls);
+                logger.info("Found " + name + " after " + scrolls + " scroll(s)");
+                return LocatorCompiler.findAll(driver, target).stream().filter(WebElement::isDisplayed).findFirst();
+            }
+            if (endReached) {
+                stats.recordEndOfList(name, scrolls);
+                logger.info("Reached the end of the list without finding " + name + " (" + scrolls + " scroll(s))");
+                return Optional.empty();
+            }
+            if (scrolls >= maxScrolls || System.nanoTime() > deadline) {
+                stats.recordBudgetExhausted(name, scrolls);
+                logger.info("Scroll budget exhausted looking for " + name + " (" + scrolls + " scroll(s))");
+                return Optional.empty();
+            }
+            Optional<SnapshotNode> container = scrollableContainer(snapshot);
+            if (!container.isPresent()) {
+                stats.recordEndOfList(name, scrolls);
+                logger.info("No scrollable container to search for " + name);
+                return Optional.empty();
+            }
+            boolean canScrollMore = scrollGesture(container.get(), stepFor(container.get()));
+            scrolls++;
+            PageSnapshot next = PageSnapshot.capture(driver);
+            endReached = !canScrollMore
+                    || signature(next).equals(signature(snapshot));
+            snapshot = next;
+        }
+    }
+
+    /**
+     * One step down the first scrollable container; false when the visible hierarchy did not change
+     */
+    public boolean scrollForward(String name) {
+        PageSnapshot before = PageSnapshot.capture(driver);
+        Optional<SnapshotNode> container = scrollableContainer(before);
+        if (!container.isPresent()) {
+            stats.recordStep(name, false);
+            return false;
+        }
+        scrollGesture(container.get(), stepFor(container.get()));
+        boolean moved = !signature(PageSnapshot.capture(driver)).equals(signature(before));
+        stats.recordStep(name, moved);
+        return moved;
+    }
+
+    // The first displayed scrollable node in document order is the outermost list on screen
+    private static Optional<SnapshotNode> scrollableContainer(PageSnapshot snapshot) {
+        return snapshot.getNodes().stream()
+                .filter(node -> "true".equals(node.attribute("scrollable")) && node.isDisplayed())
+                .filter(node -> bounds(node) != null)
+                .findFirst();
+    }
+
+    // Fraction of the container to scroll: large for dense lists, smaller for tall rows so nothing is skipped
+    static double stepFor(SnapshotNode container) {
+        int[] area = bounds(container);
+        int height = area[3] - area[1];
+        List<Integer> rowHeights = new ArrayList<>();
+        for (SnapshotNode row : rows(container)) {
+            int[] rowBounds = bounds(row);
+            if (row.isDisplayed() && rowBounds != null && rowBounds[3] > rowBounds[1]) {
+                rowHeights.add(rowBounds[3] - rowBounds[1]);
+            }
+        }
+        if (rowHeights.isEmpty() || height <= 0) {
+            return MAX_STEP;
+        }
+        Collections.sort(rowHeights);
+        double rowHeight = rowHeights.get(rowHeights.size() / 2);
+        return Math.max(MIN_STEP, Math.min(MAX_STEP, 1 - OVERLAP_ROWS * rowHeight / height));
+    }
+
+    // Rows are the children of the first descendant that has more than one child (lists are often wrapped)
+    private static List<SnapshotNode> rows(SnapshotNode container) {
+        SnapshotNode node = container;
+        while (node.getChildren().size() == 1) {
+            node = node.getChildren().get(0);
+        }
+        return node.getChildren();
+    }
+
+    private boolean scrollGesture(SnapshotNode container, double step) {
+        int[] area = bounds(container);
+        Map<String, Object> args = new HashMap<>();
+        args.put("left", area[0]);
+        args.put("top", area[1]);
+        args.put("width", area[2] - area[0]);
+        args.put("height", area[3] - area[1]);
+        args.put("direction", "down");
+        args.put("percent", step);
+        Object canScrollMore = driver.executeScript("mobile: scrollGesture", args);
+        return !Boolean.FALSE.equals(canScrollMore);
+    }
+
+    // What is on screen inside scrollable containers; equal before and after a step means the list did not move
+    private static String signature(PageSnapshot snapshot) {
+        StringBuilder signature = new StringBuilder();
+        for (SnapshotNode node : snapshot.getNodes()) {
+            if (node.isDisplayed() && insideScrollable(node)) {
+                signature.append(node.getResourceId()).append('|')
+                        .append(node.getText()).append('|')
+                        .append(node.attribute("bounds")).append('\n');
+            }
+        }
+        return signature.toString();
+    }
+
+    private static boolean insideScrollable(SnapshotNode node) {
+        for (SnapshotNode n = node.getParent(); n != null; n = n.getParent()) {
+            if ("true".equals(n.attribute("scrollable"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // [left,top][right,bottom]
+    private static int[] bounds(SnapshotNode node) {
+        Matcher matcher = BOUNDS.matcher(node.attribute("bounds"));
+        if (!matcher.matches()) {
+            return null;
+        }
+        return new int[]{Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)),
+                Integer.parseInt(matcher.group(3)), Integer.parseInt(matcher.group(4))};
+    }
+}
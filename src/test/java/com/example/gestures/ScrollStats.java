@@ -0,0 +1,88 @@
+package com.example.gestures;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Per-search scroll statistics shared by all threads
+ * Scrolls-per-hit is the number to tune the step size and the scroll budget against
+ */
+public class ScrollStats {
+
+    private static final ScrollStats GLOBAL = new ScrollStats();
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public static ScrollStats global() {
+        return GLOBAL;
+    }
+
+    void recordHit(String name, int scrolls) {
+        Entry entry = entry(name, scrolls);
+        entry.hits.incrementAndGet();
+    }
+
+    void recordEndOfList(String name, int scrolls) {
+        Entry entry = entry(name, scrolls);
+        entry.endOfList.incrementAndGet();
+    }
+
+    void recordBudgetExhausted(String name, int scrolls) {
+        Entry entry = entry(name, scrolls);
+        entry.budgetExhausted.incrementAndGet();
+    }
+
+    // A single scroll that does not look for anything (e.g. scrolling an article)
+    void recordStep(String name, boolean moved) {
+        Entry entry = entry(name, 1);
+        if (!moved) {
+            entry.endOfList.incrementAndGet();
+        }
+    }
+
+    public long getHits(String name) {
+        Entry entry = entries.get(name);
+        return entry == null ? 0 : entry.hits.get();
+    }
+
+    public long getScrolls(String name) {
+        Entry entry = entries.get(name);
+        return entry == null ? 0 : entry.scrolls.get();
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    public String summary() {
+        return entries.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, Entry> e) -> e.getValue().scrolls.get()).reversed())
+                .map(e -> String.format("%-40s searches=%d hits=%d scrolls=%d scrollsPerHit=%.1f endOfList=%d budgetExhausted=%d",
+                        e.getKey(),
+                        e.getValue().searches.get(),
+                        e.getValue().hits.get(),
+                        e.getValue().scrolls.get(),
+                        e.getValue().hits.get() == 0 ? 0.0 : (double) e.getValue().scrolls.get() / e.getValue().hits.get(),
+                        e.getValue().endOfList.get(),
+                        e.getValue().budgetExhausted.get()))
+                .collect(Collectors.joining(System.lineSeparator()));
+    }
+
+    private Entry entry(String name, int scrolls) {
+        Entry entry = entries.computeIfAbsent(name, n -> new Entry());
+        entry.searches.incrementAndGet();
+        entry.scrolls.addAndGet(scrolls);
+        return entry;
+    }
+
+    private static final class Entry {
+        private final AtomicLong searches = new AtomicLong();
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong scrolls = new AtomicLong();
+        private final AtomicLong endOfList = new AtomicLong();
+        private final AtomicLong budgetExhausted = new AtomicLong();
+    }
+}
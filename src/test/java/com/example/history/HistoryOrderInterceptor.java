@@ -0,0 +1,120 @@
+package com.example.history;
+
+import com.example.base.BaseTest;
+import com.example.config.RunConfig;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+import org.testng.ITestNGMethod;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Orders and shards the device tests of a &lt;test&gt; block by their history
+ * Tests that failed recently (failure rate at or above history.flakyThreshold) run first, then the rest longest
+ * first, so the slow tail starts early and a broken test is reported early. With history.shard=i/n the ordered
+ * tests are dealt to n shards longest first, each to the shard with the least expected time so far, and only
+ * shard i runs; shards agree as long as they read the same history file.
+ * The order is applied as TestNG priorities, which parallel runs follow; tests that do not use a device keep their order.
+ */
+public class HistoryOrderInterceptor implements IMethodInterceptor {
+
+    private static final Logger logger = LogManager.getLogger(HistoryOrderInterceptor.class);
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        List<IMethodInstance> others = new ArrayList<>();
+        List<IMethodInstance> deviceTests = new ArrayList<>();
+        for (IMethodInstance method : methods) {
+            Class<?> testClass = method.getMethod().getRealClass();
+            (BaseTest.class.isAssignableFrom(testClass) ? deviceTests : others).add(method);
+        }
+        if (deviceTests.isEmpty()) {
+            return methods;
+        }
+        RunConfig config = RunConfig.get();
+        TestHistory history = TestHistory.global();
+        List<IMethodInstance> ordered = order(deviceTests, HistoryOrderInterceptor::testName,
+                m -> m.getMethod().getPriority(), history, config.getHistoryFlakyThreshold());
+        List<IMethodInstance> planned = shard(ordered, HistoryOrderInterceptor::testName, history,
+                config.getHistoryShardIndex(), config.getHistoryShardCount());
+        for (int i = 0; i < planned.size(); i++) {
+            planned.get(i).getMethod().setPriority(i);
+        }
+        logger.info("Order of \"" + context.getName() + "\""
+                + (config.getHistoryShardCount() > 1
+                        ? " (shard " + config.getHistoryShardIndex() + "/" + config.getHistoryShardCount() + ")" : "")
+                + ": " + planned.stream().map(HistoryOrderInterceptor::testName).collect(Collectors.joining(", ")));
+        List<IMethodInstance> result = new ArrayList<>(others);
+        result.addAll(planned);
+        return result;
+    }
+
+    /**
+     * Recently failing first, then by expected duration (longest first), declared priority and name
+     */
+    public static <T> List<T> order(List<T> tests, Function<T, String> name, Function<T, Integer> priority,
+                                    TestHistory history, double flakyThreshold) {
+        double unknown = unknownMillis(history);
+        Comparator<T> comparator = Comparator
+                .comparing((T t) -> failureRate(history, name.apply(t)) < flakyThreshold)
+                .thenComparing(t -> -expectedMillis(history, name.apply(t), unknown))
+                .thenComparing(priority)
+                .thenComparing(name);
+        return tests.stream().sorted(comparator).collect(Collectors.toList());
+    }
+
+    /**
+     * The tests of shard index (0-based) out of count; tests are dealt in the given order to the least loaded shard
+     */
+    public static <T> List<T> shard(List<T> ordered, Function<T, String> name, TestHistory history,
+                                    int index, int count) {
+        if (count <= 1) {
+            return ordered;
+        }
+        double unknown = unknownMillis(history);
+        double[] load = new double[count];
+        List<T> mine = new ArrayList<>();
+        for (T test : ordered) {
+            int target = 0;
+            for (int i = 1; i < count; i++) {
+                if (load[i] < load[target]) {
+                    target = i;
+                }
+            }
+            load[target] += expectedMillis(history, name.apply(test), unknown);
+            if (target == index) {
+                mine.add(test);
+            }
+        }
+        return mine;
+    }
+
+    private static String testName(IMethodInstance method) {
+        ITestNGMethod testMethod = method.getMethod();
+        // Same name BaseTest records the test under
+        return testMethod.getConstructorOrMethod().getDeclaringClass().getSimpleName() + "." + testMethod.getMethodName();
+    }
+
+    private static double failureRate(TestHistory history, String test) {
+        TestHistory.Stats stats = history.get(TestHistory.Kind.TEST, test);
+        return stats == null ? 0 : stats.getFailureRate();
+    }
+
+    private static double expectedMillis(TestHistory history, String test, double unknown) {
+        TestHistory.Stats stats = history.get(TestHistory.Kind.TEST, test);
+        return stats == null ? unknown : stats.getMeanMillis();
+    }
+
+    // A test without history is expected to take as long as the average known one
+    private static double unknownMillis(TestHistory history) {
+        return history.all(TestHistory.Kind.TEST).stream().mapToDouble(TestHistory.Stats::getMeanMillis)
+                .average().orElse(1);
+    }
+}
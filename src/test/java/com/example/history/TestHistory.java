@@ -0,0 +1,292 @@
+package com.example.history;
+
+import com.example.config.RunConfig;
+import com.example.driver.DurationHistory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Test and step durations and outcomes across runs, kept in an append-only file
+ * Each run appends one raw line per test and step ("R"); loading folds them into a moving mean duration and
+ * failure rate per name. Once the file holds more than compactAfter raw lines it is rewritten with one aggregate
+ * line ("A") per name, and names not seen within the retention window are dropped, so the file stays small.
+ * Appends and compaction take a lock on a sidecar file, so parallel runs on one machine can share the history.
+ */
+public class TestHistory {
+
+    public enum Kind { TEST, STEP }
+
+    private static final Logger logger = LogManager.getLogger(TestHistory.class);
+    // Weight of the newest run in the moving mean, as in DurationHistory
+    private static final double DURATION_ALPHA = 0.3;
+    private static final double FAILURE_ALPHA = 0.2;
+
+    private static TestHistory global;
+
+    private final Path file;
+    private final int compactAfter;
+    private final Duration retain;
+    private final Map<String, Entry> entries = new TreeMap<>();
+    private final List<String> pending = new ArrayList<>();
+    private int rawLines;
+
+    public TestHistory(Path file, int compactAfter, Duration retain) {
+        this.file = file;
+        this.compactAfter = compactAfter;
+        this.retain = retain;
+        try {
+            rawLines = load(file, entries);
+        } catch (IOException e) {
+            logger.warn("Could not read test history " + file + ", starting without it: " + e.getMessage());
+        }
+    }
+
+    /**
+     * History at the path of the run configuration, loaded on first use
+     */
+    public static synchronized TestHistory global() {
+        if (global == null) {
+            RunConfig config = RunConfig.get();
+            global = new TestHistory(Paths.get(config.getHistoryFile()), config.getHistoryCompactAfter(),
+                    config.getHistoryRetain());
+        }
+        return global;
+    }
+
+    public synchronized void recordTest(String test, long millis, boolean passed) {
+        record(Kind.TEST, test, millis, passed);
+    }
+
+    public synchronized void recordStep(String step, long millis, boolean passed) {
+        record(Kind.STEP, step, millis, passed);
+    }
+
+    /**
+     * Stats of a test or step, null if it never ran
+     */
+    public synchronized Stats get(Kind kind, String name) {
+        Entry entry = entries.get(key(kind, name));
+        return entry == null ? null : entry.toStats(name);
+    }
+
+    public synchronized List<Stats> all(Kind kind) {
+        String prefix = kind + "\t";
+        return entries.entrySet().stream()
+                .filter(e -> e.getKey().startsWith(prefix))
+                .map(e -> e.getValue().toStats(e.getKey().substring(prefix.length())))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Start a scheduler's duration history from the test durations of earlier runs
+     */
+    public synchronized void seed(DurationHistory history) {
+        for (Stats stats : all(Kind.TEST)) {
+            history.seed(stats.getName(), stats.getMeanMillis(), stats.getRuns());
+        }
+    }
+
+    /**
+     * Append this run's records and compact the file if it grew past compactAfter raw lines
+     */
+    public synchronized void flush() throws IOException {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path lockFile = parent.resolve(file.getFileName() + ".lock");
+        try (FileChannel lockChannel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            // Held until the channel is closed
+            lockChannel.lock();
+            Files.write(file, pending, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            pending.clear();
+            // Other runs may have appended as well, so count what is in the file now
+            Map<String, Entry> merged = new TreeMap<>();
+            int raw = load(file, merged);
+            if (raw > compactAfter) {
+                compact(merged);
+                raw = 0;
+            }
+            rawLines = raw;
+        }
+    }
+
+    public synchronized int getRawLines() {
+        return rawLines;
+    }
+
+    public synchronized boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    /**
+     * Slowest tests and steps, and tests that failed recently
+     */
+    public synchronized String summary(int limit) {
+        StringBuilder sb = new StringBuilder();
+        for (Kind kind : Kind.values()) {
+            sb.append("Slowest ").append(kind.name().toLowerCase()).append("s:").append(System.lineSeparator());
+            all(kind).stream()
+                    .sorted(Comparator.comparingDouble(Stats::getMeanMillis).reversed())
+                    .limit(limit)
+                    .forEach(s -> sb.append("  ").append(s).append(System.lineSeparator()));
+        }
+        List<Stats> failing = all(Kind.TEST).stream()
+                .filter(s -> s.getFailureRate() > 0)
+                .sorted(Comparator.comparingDouble(Stats::getFailureRate).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+        if (!failing.isEmpty()) {
+            sb.append("Failing or flaky tests:").append(System.lineSeparator());
+            failing.forEach(s -> sb.append("  ").append(s).append(System.lineSeparator()));
+        }
+        return sb.toString();
+    }
+
+    private void record(Kind kind, String name, long millis, boolean passed) {
+        String clean = name.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+        long now = System.currentTimeMillis();
+        entries.computeIfAbsent(key(kind, clean), k -> new Entry()).add(millis, passed, now);
+        pending.add(String.join("\t", "R", kind.name(), clean, Long.toString(millis), passed ? "PASS" : "FAIL",
+                Long.toString(now)));
+    }
+
+    // Write one aggregate line per name through a temporary file, so readers never see a half-written history
+    private void compact(Map<String, Entry> merged) throws IOException {
+        long oldest = System.currentTimeMillis() - retain.toMillis();
+        List<String> lines = new ArrayList<>();
+        int dropped = 0;
+        for (Map.Entry<String, Entry> e : merged.entrySet()) {
+            Entry entry = e.getValue();
+            if (entry.lastSeen < oldest) {
+                dropped++;
+                continue;
+            }
+            lines.add(String.join("\t", "A", e.getKey(), Double.toString(entry.meanMillis),
+                    Integer.toString(entry.runs), Double.toString(entry.failureRate), Long.toString(entry.lastSeen)));
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temp, lines, StandardCharsets.UTF_8);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logger.info("Compacted test history " + file + " to " + lines.size() + " entries (" + dropped + " expired)");
+    }
+
+    // Fold the file into entries, returns the number of raw lines; malformed lines (e.g. a torn write) are skipped
+    private static int load(Path file, Map<String, Entry> entries) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        int raw = 0;
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String[] f = line.split("\t");
+            try {
+                if (f.length == 7 && "A".equals(f[0])) {
+                    entries.put(key(Kind.valueOf(f[1]), f[2]), new Entry(Double.parseDouble(f[3]),
+                            Integer.parseInt(f[4]), Double.parseDouble(f[5]), Long.parseLong(f[6])));
+                } else if (f.length == 6 && "R".equals(f[0])) {
+                    entries.computeIfAbsent(key(Kind.valueOf(f[1]), f[2]), k -> new Entry())
+                            .add(Long.parseLong(f[3]), "PASS".equals(f[4]), Long.parseLong(f[5]));
+                    raw++;
+                }
+            } catch (IllegalArgumentException e) {
+                // Skipped
+            }
+        }
+        return raw;
+    }
+
+    private static String key(Kind kind, String name) {
+        return kind + "\t" + name;
+    }
+
+    private static final class Entry {
+        private double meanMillis;
+        private int runs;
+        private double failureRate;
+        private long lastSeen;
+
+        Entry() {
+        }
+
+        Entry(double meanMillis, int runs, double failureRate, long lastSeen) {
+            this.meanMillis = meanMillis;
+            this.runs = runs;
+            this.failureRate = failureRate;
+            this.lastSeen = lastSeen;
+        }
+
+        void add(long millis, boolean passed, long at) {
+            double failed = passed ? 0 : 1;
+            if (runs == 0) {
+                meanMillis = millis;
+                failureRate = failed;
+            } else {
+                meanMillis += DURATION_ALPHA * (millis - meanMillis);
+                failureRate += FAILURE_ALPHA * (failed - failureRate);
+            }
+            runs++;
+            lastSeen = Math.max(lastSeen, at);
+        }
+
+        Stats toStats(String name) {
+            return new Stats(name, meanMillis, runs, failureRate);
+        }
+    }
+
+    /**
+     * Moving mean duration and failure rate of one test or step
+     */
+    public static final class Stats {
+        private final String name;
+        private final double meanMillis;
+        private final int runs;
+        private final double failureRate;
+
+        Stats(String name, double meanMillis, int runs, double failureRate) {
+            this.name = name;
+            this.meanMillis = meanMillis;
+            this.runs = runs;
+            this.failureRate = failureRate;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public double getMeanMillis() {
+            return meanMillis;
+        }
+
+        public int getRuns() {
+            return runs;
+        }
+
+        // 0 for a test that always passed recently, 1 for one that always failed
+        public double getFailureRate() {
+            return failureRate;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-60s %8.0f ms %5d runs %5.1f%% failed", name, meanMillis, runs, failureRate * 100);
+        }
+    }
+}
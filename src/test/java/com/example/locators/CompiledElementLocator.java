@@ -0,0 +1,67 @@
+package com.example.locators;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.pagefactory.ElementLocator;
+import org.openqa.selenium.support.ui.FluentWait;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * PageFactory locator that looks elements up through {@link LocatorCompiler}
+ * Waits like AppiumElementLocator: a single element until found, a list until non-empty (empty on timeout)
+ */
+public class CompiledElementLocator implements ElementLocator {
+
+    private static final Duration POLLING = Duration.ofMillis(250);
+
+    private final SearchContext context;
+    private final By locator;
+    private final Duration timeout;
+
+    public CompiledElementLocator(SearchContext context, By locator, Duration timeout) {
+        this.context = context;
+        this.locator = locator;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public WebElement findElement() {
+        try {
+            return newWait().until(c -> {
+                List<WebElement> found = LocatorCompiler.findAll(c, locator);
+                return found.isEmpty() ? null : found.get(0);
+            });
+        } catch (TimeoutException e) {
+            throw new NoSuchElementException("Can't locate an element by this strategy: " + locator, e);
+        }
+    }
+
+    @Override
+    public List<WebElement> findElements() {
+        try {
+            return newWait().until(c -> {
+                List<WebElement> found = LocatorCompiler.findAll(c, locator);
+                return found.isEmpty() ? null : found;
+            });
+        } catch (TimeoutException e) {
+            return Collections.emptyList();
+        }
+    }
+
+    public By getLocator() {
+        return locator;
+    }
+
+    private FluentWait<SearchContext> newWait() {
+        return new FluentWait<>(context)
+                .withTimeout(timeout)
+                .pollingEvery(POLLING)
+                .ignoring(NoSuchElementException.class);
+    }
+}
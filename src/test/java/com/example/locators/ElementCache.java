@@ -0,0 +1,118 @@
+package com.example.locators;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+import org.openqa.selenium.interactions.Locatable;
+import org.openqa.selenium.support.pagefactory.ElementLocator;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolved element references of one page instance
+ * A field is looked up once and reused until it goes stale or a click may have navigated away
+ */
+public class ElementCache {
+
+    private static final Logger logger = LogManager.getLogger(ElementCache.class);
+    private static final Map<ClassLoader, Constructor<?>> PROXIES = new ConcurrentHashMap<>();
+
+    private final Map<ElementLocator, WebElement> elements = new ConcurrentHashMap<>();
+    private final ElementCacheStats stats;
+
+    public ElementCache() {
+        this(ElementCacheStats.global());
+    }
+
+    public ElementCache(ElementCacheStats stats) {
+        this.stats = stats;
+    }
+
+    public WebElement get(ElementLocator locator) {
+        WebElement cached = elements.get(locator);
+        if (cached != null) {
+            stats.recordHit();
+            return cached;
+        }
+        stats.recordMiss();
+        WebElement found = locator.findElement();
+        elements.put(locator, found);
+        return found;
+    }
+
+    public void invalidate(ElementLocator locator) {
+        if (elements.remove(locator) != null) {
+            stats.recordStale();
+        }
+    }
+
+    // Called after actions that may change the screen
+    public void invalidateAll() {
+        if (!elements.isEmpty()) {
+            elements.clear();
+            stats.recordNavigation();
+        }
+    }
+
+    public int size() {
+        return elements.size();
+    }
+
+    /**
+     * WebElement proxy for a page field that resolves through this cache
+     */
+    public WebElement proxyFor(ClassLoader loader, ElementLocator locator) {
+        Constructor<?> constructor = PROXIES.computeIfAbsent(loader,
+                l -> PageFields.proxyConstructor(l, WebElement.class, WrapsElement.class, Locatable.class));
+        try {
+            return (WebElement) constructor.newInstance(new Handler(locator));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create element proxy", e);
+        }
+    }
+
+    private final class Handler implements InvocationHandler {
+        private final ElementLocator locator;
+
+        private Handler(ElementLocator locator) {
+            this.locator = locator;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if ("toString".equals(method.getName()) && method.getParameterCount() == 0) {
+                return "Cached proxy element for: " + locator;
+            }
+            WebElement element = get(locator);
+            if ("getWrappedElement".equals(method.getName())) {
+                return element;
+            }
+            try {
+                return invokeOn(element, method, args);
+            } catch (StaleElementReferenceException e) {
+                logger.debug("Cached element went stale, looking it up again: " + locator);
+                invalidate(locator);
+                return invokeOn(get(locator), method, args);
+            }
+        }
+
+        private Object invokeOn(WebElement element, Method method, Object[] args) throws Throwable {
+            try {
+                Object result = method.invoke(element, args);
+                if ("click".equals(method.getName())) {
+                    invalidateAll();
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
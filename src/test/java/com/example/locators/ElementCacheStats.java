@@ -0,0 +1,63 @@
+package com.example.locators;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hit/miss counters for the page-object element cache
+ * Every hit is a findElement round trip that did not happen
+ */
+public class ElementCacheStats {
+
+    private static final ElementCacheStats GLOBAL = new ElementCacheStats();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong staleInvalidations = new AtomicLong();
+    private final AtomicLong navigationInvalidations = new AtomicLong();
+
+    public static ElementCacheStats global() {
+        return GLOBAL;
+    }
+
+    void recordHit() {
+        hits.incrementAndGet();
+    }
+
+    void recordMiss() {
+        misses.incrementAndGet();
+    }
+
+    void recordStale() {
+        staleInvalidations.incrementAndGet();
+    }
+
+    void recordNavigation() {
+        navigationInvalidations.incrementAndGet();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getStaleInvalidations() {
+        return staleInvalidations.get();
+    }
+
+    public long getNavigationInvalidations() {
+        return navigationInvalidations.get();
+    }
+
+    @Override
+    public String toString() {
+        long total = getHits() + getMisses();
+        return "hits=" + getHits()
+                + ", misses=" + getMisses()
+                + ", hitRate=" + (total == 0 ? 0 : getHits() * 100 / total) + "%"
+                + ", staleInvalidations=" + getStaleInvalidations()
+                + ", navigationInvalidations=" + getNavigationInvalidations();
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.locators;
+
+import io.appium.java_client.AppiumBy;
+import io.appium.java_client.pagefactory.AndroidFindBy;
+import org.openqa.selenium.By;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads the {@link AndroidFindBy} locator of a page-object field, cached per class and field
+ * Lets snapshot checks reuse the exact locators PageFactory uses
+ */
+public final class FieldLocators {
+
+    private static final Map<Class<?>, Map<String, By>> CACHE = new ConcurrentHashMap<>();
+
+    private FieldLocators() {
+    }
+
+    public static By of(Class<?> pageClass, String fieldName) {
+        return CACHE.computeIfAbsent(pageClass, c -> new ConcurrentHashMap<>())
+                .computeIfAbsent(fieldName, name -> resolve(pageClass, name));
+    }
+
+    static By toBy(AndroidFindBy findBy) {
+        if (!findBy.id().isEmpty()) {
+            return AppiumBy.id(findBy.id());
+        }
+        if (!findBy.accessibility().isEmpty()) {
+            return AppiumBy.accessibilityId(findBy.accessibility());
+        }
+        if (!findBy.className().isEmpty()) {
+            return AppiumBy.className(findBy.className());
+        }
+        if (!findBy.xpath().isEmpty()) {
+            return AppiumBy.xpath(findBy.xpath());
+        }
+        if (!findBy.uiAutomator().isEmpty()) {
+            return AppiumBy.androidUIAutomator(findBy.uiAutomator());
+        }
+        return null;
+    }
+
+    private static By resolve(Class<?> pageClass, String fieldName) {
+        for (Class<?> type = pageClass; type != null; type = type.getSuperclass()) {
+            try {
+                Field field = type.getDeclaredField(fieldName);
+                AndroidFindBy findBy = field.getAnnotation(AndroidFindBy.class);
+                By by = findBy == null ? null : toBy(findBy);
+                if (by == null) {
+                    throw new IllegalArgumentException("Field " + fieldName + " has no supported @AndroidFindBy locator");
+                }
+                return by;
+            } catch (NoSuchFieldException e) {
+                // keep looking in the superclass
+            }
+        }
+        throw new IllegalArgumentException("No field " + fieldName + " in " + pageClass.getName());
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.locators;
+
+import com.example.config.RunConfig;
+import io.appium.java_client.AppiumBy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.By;
+import org.openqa.selenium.InvalidSelectorException;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Translates XPath locators into id / accessibility id / UiSelector lookups, which UiAutomator2
+ * resolves without serialising the whole hierarchy to XML. Translations are cached per locator;
+ * XPath is used only when no translation exists or the translated selector is rejected.
+ * Set -Dlocator.calibrate=true to time the original XPath once per locator for the savings report.
+ */
+public final class LocatorCompiler {
+
+    private static final Logger logger = LogManager.getLogger(LocatorCompiler.class);
+
+    private static final String QUOTED = "(?:'([^']*)'|\"([^\"]*)\")";
+    private static final Pattern SINGLE_STEP = Pattern.compile("^//([\\w.$]+|\\*)\\[(.+)\\]$");
+    private static final Pattern DESCENDANT_STEP =
+            Pattern.compile("^//([\\w.$]+|\\*)\\[@resource-id\\s*=\\s*" + QUOTED + "\\]//([\\w.$]+)$");
+    private static final Pattern EQUALS = Pattern.compile("^@([\\w-]+)\\s*=\\s*" + QUOTED + "$");
+    private static final Pattern CONTAINS = Pattern.compile("^contains\\(\\s*@([\\w-]+)\\s*,\\s*" + QUOTED + "\\s*\\)$");
+
+    private static final Map<String, Entry> CACHE = new ConcurrentHashMap<>();
+    private static final boolean CALIBRATE = RunConfig.get().isLocatorCalibrate();
+
+    private LocatorCompiler() {
+    }
+
+    /**
+     * The fastest equivalent of the locator, or the locator itself when it cannot be translated
+     */
+    public static By compile(By locator) {
+        Entry entry = entryFor(locator);
+        return entry.effective();
+    }
+
+    public static List<WebElement> findAll(SearchContext context, By locator) {
+        Entry entry = entryFor(locator);
+        if (CALIBRATE && entry.compiled != null && entry.calibrated.compareAndSet(false, true)) {
+            long start = System.nanoTime();
+            context.findElements(locator);
+            entry.xpathNanos.set(System.nanoTime() - start);
+        }
+
+        By effective = entry.effective();
+        long start = System.nanoTime();
+        try {
+            List<WebElement> found = context.findElements(effective);
+            entry.record(System.nanoTime() - start);
+            return found;
+        } catch (InvalidSelectorException e) {
+            if (effective == locator) {
+                throw e;
+            }
+            logger.warn("Server rejected compiled selector " + effective + ", falling back to " + locator);
+            entry.rejected.set(true);
+            return context.findElements(locator);
+        }
+    }
+
+    /**
+     * Per-locator lookup counts and time saved compared to the calibrated XPath timing
+     */
+    public static String report() {
+        return CACHE.values().stream()
+                .sorted(Comparator.comparingLong(Entry::savedNanos).reversed())
+                .map(Entry::describe)
+                .collect(Collectors.joining(System.lineSeparator()));
+    }
+
+    static By translate(By locator) {
+        if (!(locator instanceof By.Remotable)) {
+            return null;
+        }
+        By.Remotable.Parameters parameters = ((By.Remotable) locator).getRemoteParameters();
+        if (!"xpath".equals(parameters.using())) {
+            return null;
+        }
+        String xpath = String.valueOf(parameters.value()).trim();
+
+        Matcher descendant = DESCENDANT_STEP.matcher(xpath);
+        if (descendant.matches()) {
+            String parent = classSelector(descendant.group(1)) + ".resourceId(" + literal(quoted(descendant, 2)) + ")";
+            // childSelector matches any descendant, the same as XPath's //
+            return AppiumBy.androidUIAutomator(parent + ".childSelector(" + classSelector(descendant.group(4)) + ")");
+        }
+
+        Matcher step = SINGLE_STEP.matcher(xpath);
+        if (!step.matches()) {
+            return null;
+        }
+        String className = step.group(1);
+        String predicate = step.group(2).trim();
+        boolean or = predicate.contains(" or ");
+        if (or && predicate.contains(" and ")) {
+            return null;
+        }
+        String[] terms = predicate.split(or ? "\\s+or\\s+" : "\\s+and\\s+");
+
+        if (terms.length == 1 && "*".equals(className)) {
+            Matcher equals = EQUALS.matcher(terms[0]);
+            if (equals.matches() && "resource-id".equals(equals.group(1))) {
+                return AppiumBy.id(quoted(equals, 2));
+            }
+            if (equals.matches() && "content-desc".equals(equals.group(1))) {
+                return AppiumBy.accessibilityId(quoted(equals, 2));
+            }
+        }
+
+        List<String> selectors = new ArrayList<>();
+        StringBuilder chained = new StringBuilder(classSelector(className));
+        for (String term : terms) {
+            String method = selectorMethod(term.trim());
+            if (method == null) {
+                return null;
+            }
+            if (or) {
+                selectors.add(classSelector(className) + method);
+            } else {
+                chained.append(method);
+            }
+        }
+        if (!or) {
+            selectors.add(chained.toString());
+        }
+        // UiAutomator2 returns the union of ';'-separated selectors
+        return AppiumBy.androidUIAutomator(String.join("; ", selectors));
+    }
+
+    private static String selectorMethod(String term) {
+        Matcher equals = EQUALS.matcher(term);
+        if (equals.matches()) {
+            String value = literal(quoted(equals, 2));
+            switch (equals.group(1)) {
+                case "text":
+                    return ".text(" + value + ")";
+                case "content-desc":
+                    return ".description(" + value + ")";
+                case "resource-id":
+                    return ".resourceId(" + value + ")";
+                case "class":
+                    return ".className(" + value + ")";
+                case "clickable":
+                case "enabled":
+                case "checked":
+                case "selected":
+                case "scrollable":
+                    return "." + equals.group(1) + "(" + Boolean.parseBoolean(quoted(equals, 2)) + ")";
+                default:
+                    return null;
+            }
+        }
+        Matcher contains = CONTAINS.matcher(term);
+        if (contains.matches()) {
+            String value = literal(quoted(contains, 2));
+            switch (contains.group(1)) {
+                case "text":
+                    return ".textContains(" + value + ")";
+                case "content-desc":
+                    return ".descriptionContains(" + value + ")";
+                default:
+                    return null;
+            }
+        }
+        return null;
+    }
+
+    private static String classSelector(String className) {
+        return "*".equals(className)
+                ? "new UiSelector()"
+                : "new UiSelector().className(" + literal(className) + ")";
+    }
+
+    // Value of a QUOTED group starting at the given index (single- or double-quoted alternative)
+    private static String quoted(Matcher matcher, int group) {
+        return matcher.group(group) != null ? matcher.group(group) : matcher.group(group + 1);
+    }
+
+    private static String literal(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private static Entry entryFor(By locator) {
+        return CACHE.computeIfAbsent(locator.toString(), key -> {
+            By compiled = translate(locator);
+            if (compiled != null) {
+                logger.debug("Compiled " + locator + " -> " + compiled);
+            }
+            return new Entry(locator, compiled);
+        });
+    }
+
+    private static final class Entry {
+        private final By original;
+        private final By compiled;
+        private final AtomicBoolean rejected = new AtomicBoolean();
+        private final AtomicBoolean calibrated = new AtomicBoolean();
+        private final AtomicLong lookups = new AtomicLong();
+        private final AtomicLong lookupNanos = new AtomicLong();
+        private final AtomicLong xpathNanos = new AtomicLong(-1);
+
+        private Entry(By original, By compiled) {
+            this.original = original;
+            this.compiled = compiled;
+        }
+
+        private By effective() {
+            return compiled == null || rejected.get() ? original : compiled;
+        }
+
+        private void record(long nanos) {
+            lookups.incrementAndGet();
+            lookupNanos.addAndGet(nanos);
+        }
+
+        private long meanNanos() {
+            return lookups.get() == 0 ? 0 : lookupNanos.get() / lookups.get();
+        }
+
+        private long savedNanos() {
+            if (compiled == null || rejected.get() || xpathNanos.get() < 0) {
+                return 0;
+            }
+            return (xpathNanos.get() - meanNanos()) * lookups.get();
+        }
+
+        private String describe() {
+            String strategy = compiled == null ? "xpath (no translation)"
+                    : rejected.get() ? "xpath (translation rejected)" : compiled.toString();
+            String saved = xpathNanos.get() < 0 ? "n/a" : (savedNanos() / 1_000_000) + "ms";
+            return String.format("%s -> %s lookups=%d mean=%dms xpath=%s saved=%s",
+                    original, strategy, lookups.get(), meanNanos() / 1_000_000,
+                    xpathNanos.get() < 0 ? "n/a" : (xpathNanos.get() / 1_000_000) + "ms", saved);
+        }
+    }
+}
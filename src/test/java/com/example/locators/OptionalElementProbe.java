@@ -0,0 +1,99 @@
+package com.example.locators;
+
+import io.appium.java_client.AppiumDriver;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Fast-fail lookups for elements that may or may not be on screen (dialogs, onboarding, modals)
+ * Relies on the session's implicit wait being zero, so a miss costs one round trip instead of a timeout
+ */
+public class OptionalElementProbe {
+
+    private static final Logger logger = LogManager.getLogger(OptionalElementProbe.class);
+
+    private final AppiumDriver driver;
+    private final ProbeStats stats;
+
+    public OptionalElementProbe(AppiumDriver driver) {
+        this(driver, ProbeStats.global());
+    }
+
+    public OptionalElementProbe(AppiumDriver driver, ProbeStats stats) {
+        this.driver = driver;
+        this.stats = stats;
+    }
+
+    /**
+     * Single-candidate probe: one findElements call, no waiting
+     */
+    public Optional<WebElement> find(String name, By locator) {
+        long start = System.currentTimeMillis();
+        Optional<WebElement> element = findNow(locator);
+        stats.record(element.isPresent(), System.currentTimeMillis() - start);
+        logger.debug("Probe '" + name + "' " + (element.isPresent() ? "hit" : "miss"));
+        return element;
+    }
+
+    public boolean isPresent(String name, By locator) {
+        return find(name, locator).isPresent();
+    }
+
+    /**
+     * Check several candidates against one page-source snapshot and resolve only the first visible match
+     */
+    public Optional<Match> firstPresent(String name, By... candidates) {
+        long start = System.currentTimeMillis();
+        PageSnapshot snapshot = PageSnapshot.capture(driver);
+        for (int i = 0; i < candidates.length; i++) {
+            // Locators the snapshot cannot evaluate are left to the server
+            boolean presentLocally = !PageSnapshot.supports(candidates[i]) || snapshot.isVisible(candidates[i]);
+            if (!presentLocally) {
+                continue;
+            }
+            Optional<WebElement> element = findNow(candidates[i]);
+            if (element.isPresent()) {
+                stats.record(true, System.currentTimeMillis() - start);
+                logger.debug("Probe '" + name + "' matched candidate " + i + ": " + candidates[i]);
+                return Optional.of(new Match(i, candidates[i], element.get()));
+            }
+        }
+        stats.record(false, System.currentTimeMillis() - start);
+        logger.debug("Probe '" + name + "' found none of " + candidates.length + " candidates");
+        return Optional.empty();
+    }
+
+    private Optional<WebElement> findNow(By locator) {
+        List<WebElement> found = LocatorCompiler.findAll(driver, locator);
+        return found.isEmpty() ? Optional.empty() : Optional.of(found.get(0));
+    }
+
+    public static final class Match {
+        private final int index;
+        private final By locator;
+        private final WebElement element;
+
+        Match(int index, By locator, WebElement element) {
+            this.index = index;
+            this.locator = locator;
+            this.element = element;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public By getLocator() {
+            return locator;
+        }
+
+        public WebElement getElement() {
+            return element;
+        }
+    }
+}
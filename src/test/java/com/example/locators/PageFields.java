@@ -0,0 +1,161 @@
+package com.example.locators;
+
+import io.appium.java_client.pagefactory.AndroidFindBy;
+import org.openqa.selenium.By;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.pagefactory.ElementLocator;
+import org.openqa.selenium.support.pagefactory.internal.LocatingElementListHandler;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@link AndroidFindBy} fields (WebElement and List&lt;WebElement&gt;) of a page class, reflected once per class
+ * Replaces PageFactory.initElements, which walks the fields, reads their annotations and builds a proxy class
+ * lookup for every one of them on each page construction. Here a page only gets a proxy per field from a cached
+ * proxy constructor; the locator is built and the element looked up on the first call to the field.
+ */
+public final class PageFields {
+
+    private static final Map<Class<?>, PageFields> CACHE = new ConcurrentHashMap<>();
+    private static final Map<ClassLoader, Constructor<?>> LIST_PROXIES = new ConcurrentHashMap<>();
+
+    private final List<Spec> fields;
+
+    private PageFields(List<Spec> fields) {
+        this.fields = Collections.unmodifiableList(fields);
+    }
+
+    public static PageFields of(Class<?> pageClass) {
+        return CACHE.computeIfAbsent(pageClass, PageFields::reflect);
+    }
+
+    /**
+     * Point every annotated field of the page at a proxy that resolves through the page's element cache
+     */
+    public void inject(Object page, SearchContext context, Duration timeout, ElementCache cache) {
+        ClassLoader loader = page.getClass().getClassLoader();
+        for (Spec spec : fields) {
+            ElementLocator locator = new LazyLocator(context, spec.locator, timeout);
+            Object proxy = spec.list ? listProxy(loader, locator) : cache.proxyFor(loader, locator);
+            try {
+                spec.field.set(page, proxy);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Could not set " + spec.field, e);
+            }
+        }
+    }
+
+    public int size() {
+        return fields.size();
+    }
+
+    private static PageFields reflect(Class<?> pageClass) {
+        List<Spec> fields = new ArrayList<>();
+        for (Class<?> type = pageClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                AndroidFindBy findBy = field.getAnnotation(AndroidFindBy.class);
+                if (findBy == null) {
+                    continue;
+                }
+                boolean list = isElementList(field);
+                if (!list && !WebElement.class.equals(field.getType())) {
+                    continue;
+                }
+                field.setAccessible(true);
+                fields.add(new Spec(field, FieldLocators.of(type, field.getName()), list));
+            }
+        }
+        return new PageFields(fields);
+    }
+
+    private static boolean isElementList(Field field) {
+        if (!List.class.equals(field.getType())) {
+            return false;
+        }
+        Type genericType = field.getGenericType();
+        return genericType instanceof ParameterizedType
+                && WebElement.class.equals(((ParameterizedType) genericType).getActualTypeArguments()[0]);
+    }
+
+    // Lists change with the screen, so they are looked up on every access like PageFactory does
+    private static Object listProxy(ClassLoader loader, ElementLocator locator) {
+        InvocationHandler handler = new LocatingElementListHandler(locator);
+        try {
+            return LIST_PROXIES.computeIfAbsent(loader, l -> proxyConstructor(l, List.class)).newInstance(handler);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create list proxy", e);
+        }
+    }
+
+    /**
+     * Constructor of the proxy class for the given interfaces, so later proxies skip Proxy's class lookup
+     */
+    static Constructor<?> proxyConstructor(ClassLoader loader, Class<?>... interfaces) {
+        Object sample = Proxy.newProxyInstance(loader, interfaces, (proxy, method, args) -> null);
+        try {
+            return sample.getClass().getConstructor(InvocationHandler.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Proxy class without an InvocationHandler constructor", e);
+        }
+    }
+
+    private static final class Spec {
+        private final Field field;
+        private final By locator;
+        private final boolean list;
+
+        Spec(Field field, By locator, boolean list) {
+            this.field = field;
+            this.locator = locator;
+            this.list = list;
+        }
+    }
+
+    // Builds the compiled locator on the first lookup; most fields of a page are never used in a test
+    private static final class LazyLocator implements ElementLocator {
+        private final SearchContext context;
+        private final By by;
+        private final Duration timeout;
+        private CompiledElementLocator delegate;
+
+        LazyLocator(SearchContext context, By by, Duration timeout) {
+            this.context = context;
+            this.by = by;
+            this.timeout = timeout;
+        }
+
+        @Override
+        public WebElement findElement() {
+            return delegate().findElement();
+        }
+
+        @Override
+        public List<WebElement> findElements() {
+            return delegate().findElements();
+        }
+
+        @Override
+        public String toString() {
+            return "Lazy locator for " + by;
+        }
+
+        private CompiledElementLocator delegate() {
+            if (delegate == null) {
+                delegate = new CompiledElementLocator(context, by, timeout);
+            }
+            return delegate;
+        }
+    }
+}
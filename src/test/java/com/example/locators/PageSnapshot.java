@@ -0,0 +1,234 @@
+package com.example.locators;
+
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.By;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Page source fetched once and indexed by resource-id, text, class and content-desc
+ * Locators and visibility checks are answered locally; only actions need to go back to the server
+ */
+public class PageSnapshot {
+
+    // //android.widget.TextView[@text='x'] or //*[@resource-id="x"] can be answered from an index
+    private static final Pattern SIMPLE_XPATH =
+            Pattern.compile("^//([\\w.$]+|\\*)\\[@([\\w-]+)\\s*=\\s*(['\"])([^'\"]*)\\3\\]$");
+
+    private final Document document;
+    private final List<SnapshotNode> nodes = new ArrayList<>();
+    private final Map<Node, SnapshotNode> byDomNode = new IdentityHashMap<>();
+    private final Map<String, List<SnapshotNode>> byResourceId = new HashMap<>();
+    private final Map<String, List<SnapshotNode>> byText = new HashMap<>();
+    private final Map<String, List<SnapshotNode>> byClass = new HashMap<>();
+    private final Map<String, List<SnapshotNode>> byContentDesc = new HashMap<>();
+    private final long capturedAt = System.currentTimeMillis();
+
+    private PageSnapshot(Document document) {
+        this.document = document;
+        index(document.getDocumentElement(), null);
+    }
+
+    public static PageSnapshot capture(AppiumDriver driver) {
+        return parse(driver.getPageSource());
+    }
+
+    public static PageSnapshot parse(String pageSource) {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            return new PageSnapshot(factory.newDocumentBuilder().parse(new InputSource(new StringReader(pageSource))));
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not parse page source", e);
+        }
+    }
+
+    /**
+     * Whether the locator can be evaluated locally (UiAutomator selectors cannot)
+     */
+    public static boolean supports(By locator) {
+        if (!(locator instanceof By.Remotable)) {
+            return false;
+        }
+        switch (((By.Remotable) locator).getRemoteParameters().using()) {
+            case "id":
+            case "accessibility id":
+            case "class name":
+            case "xpath":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public List<SnapshotNode> findAll(By locator) {
+        if (!supports(locator)) {
+            throw new IllegalArgumentException("Locator cannot be evaluated on a snapshot: " + locator);
+        }
+        By.Remotable.Parameters parameters = ((By.Remotable) locator).getRemoteParameters();
+        String value = String.valueOf(parameters.value());
+        switch (parameters.using()) {
+            case "id":
+                return findById(value);
+            case "accessibility id":
+                return lookup(byContentDesc, value);
+            case "class name":
+                return lookup(byClass, value);
+            default:
+                return findByXpath(value);
+        }
+    }
+
+    public Optional<SnapshotNode> find(By locator) {
+        List<SnapshotNode> found = findAll(locator);
+        return found.isEmpty() ? Optional.empty() : Optional.of(found.get(0));
+    }
+
+    public int count(By locator) {
+        return findAll(locator).size();
+    }
+
+    public boolean isVisible(By locator) {
+        return findAll(locator).stream().anyMatch(SnapshotNode::isDisplayed);
+    }
+
+    public boolean anyVisible(By... locators) {
+        for (By locator : locators) {
+            if (isVisible(locator)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public List<SnapshotNode> getNodes() {
+        return Collections.unmodifiableList(nodes);
+    }
+
+    public long getCapturedAt() {
+        return capturedAt;
+    }
+
+    private List<SnapshotNode> findById(String id) {
+        if (id.contains(":id/")) {
+            return lookup(byResourceId, id);
+        }
+        // Appium prefixes a bare id with the app package; match any package here
+        List<SnapshotNode> found = new ArrayList<>();
+        byResourceId.forEach((resourceId, matches) -> {
+            if (resourceId.endsWith(":id/" + id)) {
+                found.addAll(matches);
+            }
+        });
+        return found;
+    }
+
+    private List<SnapshotNode> findByXpath(String xpath) {
+        Matcher simple = SIMPLE_XPATH.matcher(xpath.trim());
+        if (simple.matches()) {
+            List<SnapshotNode> candidates = indexFor(simple.group(2), simple.group(4));
+            if (candidates != null) {
+                String className = simple.group(1);
+                if ("*".equals(className)) {
+                    return candidates;
+                }
+                List<SnapshotNode> found = new ArrayList<>();
+                for (SnapshotNode node : candidates) {
+                    if (className.equals(node.getClassName())) {
+                        found.add(node);
+                    }
+                }
+                return found;
+            }
+        }
+        try {
+            NodeList matches = (NodeList) XPathFactory.newInstance().newXPath()
+                    .evaluate(xpath, document, XPathConstants.NODESET);
+            List<SnapshotNode> found = new ArrayList<>();
+            for (int i = 0; i < matches.getLength(); i++) {
+                SnapshotNode node = byDomNode.get(matches.item(i));
+                if (node != null) {
+                    found.add(node);
+                }
+            }
+            return found;
+        } catch (XPathExpressionException e) {
+            throw new IllegalArgumentException("Invalid XPath for snapshot evaluation: " + xpath, e);
+        }
+    }
+
+    private List<SnapshotNode> indexFor(String attribute, String value) {
+        switch (attribute) {
+            case "resource-id":
+                return lookup(byResourceId, value);
+            case "text":
+                return lookup(byText, value);
+            case "class":
+                return lookup(byClass, value);
+            case "content-desc":
+                return lookup(byContentDesc, value);
+            default:
+                return null;
+        }
+    }
+
+    private void index(Element element, SnapshotNode parent) {
+        SnapshotNode current = parent;
+        if (parent != null || !"hierarchy".equals(element.getTagName())) {
+            Map<String, String> attributes = new HashMap<>();
+            NamedNodeMap attrs = element.getAttributes();
+            for (int i = 0; i < attrs.getLength(); i++) {
+                attributes.put(attrs.item(i).getNodeName(), attrs.item(i).getNodeValue());
+            }
+            String className = attributes.getOrDefault("class", element.getTagName());
+            current = new SnapshotNode(className, attributes, parent);
+            if (parent != null) {
+                parent.addChild(current);
+            }
+            nodes.add(current);
+            byDomNode.put(element, current);
+            add(byResourceId, current.getResourceId(), current);
+            add(byText, current.getText(), current);
+            add(byClass, className, current);
+            add(byContentDesc, current.getContentDesc(), current);
+        }
+        NodeList children = element.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            if (children.item(i) instanceof Element) {
+                index((Element) children.item(i), current);
+            }
+        }
+    }
+
+    private static void add(Map<String, List<SnapshotNode>> index, String key, SnapshotNode node) {
+        if (!key.isEmpty()) {
+            index.computeIfAbsent(key, k -> new ArrayList<>()).add(node);
+        }
+    }
+
+    private static List<SnapshotNode> lookup(Map<String, List<SnapshotNode>> index, String key) {
+        List<SnapshotNode> found = index.get(key);
+        return found == null ? Collections.emptyList() : Collections.unmodifiableList(found);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.locators;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters for optional-element probes
+ * Miss time is what absent dialogs cost us; with fast-fail probing it should stay in the milliseconds
+ */
+public class ProbeStats {
+
+    private static final ProbeStats GLOBAL = new ProbeStats();
+
+    private final AtomicLong probes = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong hitMillis = new AtomicLong();
+    private final AtomicLong missMillis = new AtomicLong();
+
+    public static ProbeStats global() {
+        return GLOBAL;
+    }
+
+    void record(boolean hit, long elapsedMillis) {
+        probes.incrementAndGet();
+        if (hit) {
+            hits.incrementAndGet();
+            hitMillis.addAndGet(elapsedMillis);
+        } else {
+            misses.incrementAndGet();
+            missMillis.addAndGet(elapsedMillis);
+        }
+    }
+
+    public long getProbes() {
+        return probes.get();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getHitMillis() {
+        return hitMillis.get();
+    }
+
+    public long getMissMillis() {
+        return missMillis.get();
+    }
+
+    @Override
+    public String toString() {
+        return "probes=" + getProbes()
+                + ", hits=" + getHits()
+                + ", misses=" + getMisses()
+                + ", hitMs=" + getHitMillis()
+                + ", missMs=" + getMissMillis();
+    }
+}
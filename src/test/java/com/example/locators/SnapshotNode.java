@@ -0,0 +1,66 @@
+package com.example.locators;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One element of a parsed UiAutomator2 page source
+ */
+public class SnapshotNode {
+
+    private final String className;
+    private final Map<String, String> attributes;
+    private final SnapshotNode parent;
+    private final List<SnapshotNode> children = new ArrayList<>();
+
+    SnapshotNode(String className, Map<String, String> attributes, SnapshotNode parent) {
+        this.className = className;
+        this.attributes = attributes;
+        this.parent = parent;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public String getResourceId() {
+        return attribute("resource-id");
+    }
+
+    public String getText() {
+        return attribute("text");
+    }
+
+    public String getContentDesc() {
+        return attribute("content-desc");
+    }
+
+    public String attribute(String name) {
+        String value = attributes.get(name);
+        return value == null ? "" : value;
+    }
+
+    // UiAutomator2 reports displayed="false" for off-screen nodes; a missing attribute counts as visible
+    public boolean isDisplayed() {
+        return !"false".equals(attributes.get("displayed"));
+    }
+
+    public SnapshotNode getParent() {
+        return parent;
+    }
+
+    public List<SnapshotNode> getChildren() {
+        return Collections.unmodifiableList(children);
+    }
+
+    void addChild(SnapshotNode child) {
+        children.add(child);
+    }
+
+    @Override
+    public String toString() {
+        return className + "[resource-id=" + getResourceId() + ", text=" + getText() + "]";
+    }
+}
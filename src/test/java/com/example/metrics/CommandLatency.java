@@ -0,0 +1,153 @@
+package com.example.metrics;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Wall time of every WebDriver command, tagged with the @Step template and the page-object method it was issued from
+ * Kept for the whole run and per test (per thread); exported as HdrHistogram percentiles
+ */
+public class CommandLatency {
+
+    private static final Logger logger = LogManager.getLogger(CommandLatency.class);
+    private static final CommandLatency GLOBAL = new CommandLatency();
+    private static final String PAGES_PACKAGE = "com.example.pages.";
+    private static final String BASE_PAGE = PAGES_PACKAGE + "BasePage";
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+    private static final Pattern WOVEN_BODY = Pattern.compile("(.+)_aroundBody\\d+");
+
+    private final Instant startedAt = Instant.now();
+    private final Tables run = new Tables();
+    private final ThreadLocal<Tables> currentTest = new ThreadLocal<>();
+
+    public static CommandLatency global() {
+        return GLOBAL;
+    }
+
+    public void record(String command, long elapsedNanos) {
+        long micros = elapsedNanos / 1000;
+        String step = StepTracker.currentStep();
+        String pageMethod = callingPageMethod();
+        run.record(command, step, pageMethod, micros);
+        Tables test = currentTest.get();
+        if (test != null) {
+            test.record(command, step, pageMethod, micros);
+        }
+    }
+
+    // Commands issued on this thread from now on also count towards the test
+    public void startTest() {
+        currentTest.set(new Tables());
+    }
+
+    public Optional<Tables> finishTest() {
+        Tables test = currentTest.get();
+        currentTest.remove();
+        return Optional.ofNullable(test);
+    }
+
+    public Tables getRun() {
+        return run;
+    }
+
+    /**
+     * Writes the run-wide percentiles to command-latency-&lt;timestamp&gt;.json in the given directory
+     */
+    public Path writeJson(Path directory) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("startedAt", startedAt.toString());
+        report.put("finishedAt", Instant.now().toString());
+        report.putAll(run.toMap());
+        Files.createDirectories(directory);
+        Path file = directory.resolve("command-latency-"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+        Files.write(file, new Json().toJson(report).getBytes(StandardCharsets.UTF_8));
+        logger.info("Command latency report written to " + file);
+        return file;
+    }
+
+    // First page-object frame on the stack, e.g. WikipediaSearchPage.enterSearchTerm
+    private static String callingPageMethod() {
+        return STACK_WALKER.walk(frames -> frames
+                .filter(f -> f.getClassName().startsWith(PAGES_PACKAGE) && !f.getClassName().equals(BASE_PAGE))
+                .findFirst()
+                .map(f -> simpleName(f.getClassName()) + "." + methodName(f.getMethodName()))
+                .orElse(null));
+    }
+
+    private static String simpleName(String className) {
+        String name = className.substring(className.lastIndexOf('.') + 1);
+        int inner = name.indexOf('$');
+        return inner < 0 ? name : name.substring(0, inner);
+    }
+
+    // lambda$isDisplayed$0 -> isDisplayed, clickMoreTab_aroundBody18 (AspectJ-woven body) -> clickMoreTab
+    private static String methodName(String method) {
+        if (method.startsWith("lambda$")) {
+            String[] parts = method.split("\\$");
+            return parts.length > 1 ? parts[1] : method;
+        }
+        Matcher woven = WOVEN_BODY.matcher(method);
+        return woven.matches() ? woven.group(1) : method;
+    }
+
+    /**
+     * Histograms by command, by step and by page-object method
+     */
+    public static final class Tables {
+        private final LatencyTable byCommand = new LatencyTable();
+        private final LatencyTable byStep = new LatencyTable();
+        private final LatencyTable byPageMethod = new LatencyTable();
+
+        void record(String command, String step, String pageMethod, long micros) {
+            byCommand.record(command, micros);
+            if (step != null) {
+                byStep.record(step, micros);
+            }
+            if (pageMethod != null) {
+                byPageMethod.record(pageMethod, micros);
+            }
+        }
+
+        public LatencyTable getByCommand() {
+            return byCommand;
+        }
+
+        public LatencyTable getByStep() {
+            return byStep;
+        }
+
+        public LatencyTable getByPageMethod() {
+            return byPageMethod;
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("commands", byCommand.toMap());
+            map.put("steps", byStep.toMap());
+            map.put("pageMethods", byPageMethod.toMap());
+            return map;
+        }
+
+        public String format() {
+            String separator = System.lineSeparator();
+            return "By command:" + separator + byCommand.format() + separator + separator
+                    + "By step:" + separator + byStep.format() + separator + separator
+                    + "By page-object method:" + separator + byPageMethod.format();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.metrics;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * One latency histogram per key (command, step or page method), recorded in microseconds
+ */
+public class LatencyTable {
+
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    public void record(String key, long micros) {
+        histograms.computeIfAbsent(key, k -> new ConcurrentHistogram(3)).recordValue(Math.max(0, micros));
+    }
+
+    public boolean isEmpty() {
+        return histograms.isEmpty();
+    }
+
+    public long count(String key) {
+        Histogram histogram = histograms.get(key);
+        return histogram == null ? 0 : histogram.getTotalCount();
+    }
+
+    /**
+     * Percentiles per key in milliseconds, slowest total first
+     */
+    public Map<String, Map<String, Object>> toMap() {
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        sortedByTotal().forEach(e -> {
+            Histogram h = e.getValue();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("count", h.getTotalCount());
+            stats.put("totalMs", millis(total(h)));
+            stats.put("meanMs", millis(h.getMean()));
+            stats.put("p50Ms", millis(h.getValueAtPercentile(50)));
+            stats.put("p90Ms", millis(h.getValueAtPercentile(90)));
+            stats.put("p95Ms", millis(h.getValueAtPercentile(95)));
+            stats.put("p99Ms", millis(h.getValueAtPercentile(99)));
+            stats.put("maxMs", millis(h.getMaxValue()));
+            result.put(e.getKey(), stats);
+        });
+        return result;
+    }
+
+    public String format() {
+        return sortedByTotal()
+                .map(e -> {
+                    Histogram h = e.getValue();
+                    return String.format("%-50s count=%-5d total=%.1fms p50=%.1fms p90=%.1fms p99=%.1fms max=%.1fms",
+                            e.getKey(), h.getTotalCount(), millis(total(h)),
+                            millis(h.getValueAtPercentile(50)), millis(h.getValueAtPercentile(90)),
+                            millis(h.getValueAtPercentile(99)), millis(h.getMaxValue()));
+                })
+                .collect(Collectors.joining(System.lineSeparator()));
+    }
+
+    private Stream<Map.Entry<String, Histogram>> sortedByTotal() {
+        return histograms.entrySet().stream()
+                .sorted(Comparator.comparingDouble((Map.Entry<String, Histogram> e) -> total(e.getValue())).reversed());
+    }
+
+    private static double total(Histogram histogram) {
+        return histogram.getMean() * histogram.getTotalCount();
+    }
+
+    private static double millis(double micros) {
+        return Math.round(micros) / 1000.0;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.metrics;
+
+import com.example.config.RunConfig;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Search responsiveness of the app under test, recorded by WikipediaSearchPage in measurement mode (-Dsearch.measure=true)
+ * Each phase is kept across all queries and per query, so repeating a query gives its own percentiles
+ */
+public class SearchLatency {
+
+    private static final Logger logger = LogManager.getLogger(SearchLatency.class);
+    private static final SearchLatency GLOBAL = new SearchLatency();
+    private static volatile boolean enabled = RunConfig.get().isSearchMeasure();
+
+    public static final String KEYSTROKES = "keystrokes sent";
+    public static final String FIRST_RESULT = "time to first result";
+    public static final String STABLE_RESULTS = "time to stable results";
+    public static final String ARTICLE_LOAD = "article load";
+
+    private final Instant startedAt = Instant.now();
+    private final LatencyTable byPhase = new LatencyTable();
+    private final LatencyTable byQuery = new LatencyTable();
+
+    public static SearchLatency global() {
+        return GLOBAL;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    // Measurement mode comes from search.measure of the run configuration; tests of the mode switch it on directly
+    public static void setEnabled(boolean enabled) {
+        SearchLatency.enabled = enabled;
+    }
+
+    public void record(String query, String phase, long micros) {
+        byPhase.record(phase, micros);
+        byQuery.record(query + " | " + phase, micros);
+    }
+
+    public boolean isEmpty() {
+        return byPhase.isEmpty();
+    }
+
+    public LatencyTable getByPhase() {
+        return byPhase;
+    }
+
+    public LatencyTable getByQuery() {
+        return byQuery;
+    }
+
+    public String format() {
+        return byPhase.format() + System.lineSeparator() + "Per query:" + System.lineSeparator() + byQuery.format();
+    }
+
+    /**
+     * Writes the percentiles to search-latency-&lt;timestamp&gt;.json in the given directory
+     */
+    public Path writeJson(Path directory) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("startedAt", startedAt.toString());
+        report.put("finishedAt", Instant.now().toString());
+        report.put("byPhase", byPhase.toMap());
+        report.put("byQuery", byQuery.toMap());
+        Files.createDirectories(directory);
+        Path file = directory.resolve("search-latency-"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+        Files.write(file, new Json().toJson(report).getBytes(StandardCharsets.UTF_8));
+        logger.info("Search latency report written to " + file);
+        return file;
+    }
+}
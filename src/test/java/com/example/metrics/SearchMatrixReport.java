@@ -0,0 +1,125 @@
+package com.example.metrics;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.json.Json;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Outcome of every data-driven search case, aggregated while the suite runs
+ * Each case is appended to search-matrix-&lt;timestamp&gt;.jsonl as soon as it finishes, so a long or aborted run
+ * still leaves its per-term latencies behind; the phase histograms and pass/fail counters cover the whole run
+ */
+public class SearchMatrixReport {
+
+    private static final Logger logger = LogManager.getLogger(SearchMatrixReport.class);
+    private static final SearchMatrixReport GLOBAL = new SearchMatrixReport(Paths.get("target", "search-matrix"));
+
+    public static final String SEARCH_TO_RESULTS = "search -> results";
+    public static final String RESULTS_TO_ARTICLE = "results -> article";
+
+    private final Path directory;
+    private final Json json = new Json();
+    private final LatencyTable phases = new LatencyTable();
+    private final AtomicLong passed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private BufferedWriter writer;
+    private Path file;
+
+    public SearchMatrixReport(Path directory) {
+        this.directory = directory;
+    }
+
+    public static SearchMatrixReport global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Record one case; a phase that was not reached is passed as a negative duration and left out of the histograms
+     */
+    public void record(int row, String term, String expectedTitle, boolean passed,
+                       long searchToResultsMicros, long resultsToArticleMicros, String device) {
+        (passed ? this.passed : this.failed).incrementAndGet();
+        if (searchToResultsMicros >= 0) {
+            phases.record(SEARCH_TO_RESULTS, searchToResultsMicros);
+        }
+        if (resultsToArticleMicros >= 0) {
+            phases.record(RESULTS_TO_ARTICLE, resultsToArticleMicros);
+        }
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("row", row);
+        line.put("term", term);
+        line.put("expectedTitle", expectedTitle);
+        line.put("passed", passed);
+        line.put("searchToResultsMs", searchToResultsMicros < 0 ? null : searchToResultsMicros / 1000.0);
+        line.put("resultsToArticleMs", resultsToArticleMicros < 0 ? null : resultsToArticleMicros / 1000.0);
+        line.put("device", device);
+        StringBuilder compact = new StringBuilder();
+        json.newOutput(compact).setPrettyPrint(false).write(line);
+        append(compact.toString());
+    }
+
+    public long getPassed() {
+        return passed.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public boolean isEmpty() {
+        return passed.get() + failed.get() == 0;
+    }
+
+    public LatencyTable getPhases() {
+        return phases;
+    }
+
+    public synchronized Path getFile() {
+        return file;
+    }
+
+    public String summary() {
+        return "passed=" + getPassed() + ", failed=" + getFailed() + ", results=" + getFile()
+                + System.lineSeparator() + phases.format();
+    }
+
+    public synchronized void close() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            logger.error("Failed to close " + file, e);
+        }
+        writer = null;
+    }
+
+    private synchronized void append(String line) {
+        try {
+            if (writer == null) {
+                Files.createDirectories(directory);
+                String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+                file = directory.resolve("search-matrix-" + timestamp + ".jsonl");
+                writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+            }
+            writer.write(line);
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            logger.error("Failed to append search result to " + file, e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.metrics;
+
+import io.qameta.allure.Step;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Follows the @Step nesting of each thread so driver commands can be tagged with the step they ran in
+ * Steps are keyed by their @Step template before interpolation ("Enter search term: {searchTerm}"), or by method
+ * name when the template is empty, so one step gives one key whatever its arguments.
+ * Woven at load time through META-INF/aop.xml.
+ */
+@Aspect
+public class StepTracker {
+
+    private static final ThreadLocal<Deque<String>> STEPS = ThreadLocal.withInitial(ArrayDeque::new);
+
+    // Innermost running step of the current thread, or null outside of steps
+    public static String currentStep() {
+        return STEPS.get().peek();
+    }
+
+    @Around("execution(@io.qameta.allure.Step * *(..))")
+    public Object track(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        Step step = signature.getMethod().getAnnotation(Step.class);
+        Deque<String> steps = STEPS.get();
+        steps.push(step == null || step.value().isEmpty() ? signature.getName() : step.value());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            steps.pop();
+        }
+    }
+}
@@ -1,40 +1,101 @@
 package com.example.pages;
 
 import io.appium.java_client.AppiumDriver;
-import io.appium.java_client.pagefactory.AppiumFieldDecorator;
-import io.qameta.allure.Step;
+import com.example.config.DeviceSettings;
+import com.example.config.RunConfig;
+import com.example.forms.FormFiller;
+import com.example.gestures.ScrollEngine;
+import com.example.locators.ElementCache;
+import com.example.locators.FieldLocators;
+import com.example.locators.LocatorCompiler;
+import com.example.locators.OptionalElementProbe;
+import com.example.locators.PageFields;
+import com.example.locators.PageSnapshot;
+import com.example.waits.WaitEngine;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.openqa.selenium.support.PageFactory;
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.WebDriverWait;
 
-import java.time.Duration;
+import java.util.List;
 
 // აქ ყველა გვერდის საერთო ფუნქციები იქნება 
 public abstract class BasePage {
     
     protected final Logger logger = LogManager.getLogger(this.getClass());
     protected final AppiumDriver driver;
+    // Waits of the device class the current test runs on
+    protected final DeviceSettings settings = RunConfig.get().currentDevice();
     protected final WebDriverWait wait;
+    protected final WaitEngine waits;
+    protected final OptionalElementProbe probe;
+    protected final ScrollEngine scroller;
+    protected final FormFiller forms;
+    protected final ElementCache elementCache = new ElementCache();
     
     public BasePage(AppiumDriver driver) {
         this.driver = driver;
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(15));
-        PageFactory.initElements(new AppiumFieldDecorator(driver, Duration.ofSeconds(10)), this);
+        this.wait = new WebDriverWait(driver, settings.getPageWait());
+        this.waits = new WaitEngine(driver, settings.getPageWait());
+        this.probe = new OptionalElementProbe(driver);
+        this.scroller = new ScrollEngine(driver);
+        this.forms = new FormFiller(driver, waits, settings.getFieldWait());
+        PageFields.of(getClass()).inject(this, driver, settings.getFieldWait(), elementCache);
         logger.info("Initialized page: " + this.getClass().getSimpleName());
     }
     
-    // ეს დალოდებისთვის  შეიძლებოდა სხვაგანაც ყოფილიყო მაგრამ აქ იყოს არაუჭირს
-    @Step("Wait for {0} milliseconds")
-    protected void waitFor(long milliseconds) {
-        try {
-            Thread.sleep(milliseconds);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            logger.warn("Wait interrupted", e);
-        }
+    // Returns as soon as the screen stops changing after an action, instead of a fixed sleep
+    protected void waitForUiToSettle(String action) {
+        invalidateElementCache();
+        waits.waitForUiIdle(getClass().getSimpleName() + "." + action, settings.getUiIdleWait());
     }
     
+    // The session's instance of the page navigated to, instead of building and reflecting a new one
+    protected <T extends BasePage> T page(Class<T> type) {
+        return PageRegistry.of(driver).get(type);
+    }
+
+    // Call after navigation that does not go through a field click (e.g. device back)
+    protected void invalidateElementCache() {
+        elementCache.invalidateAll();
+    }
+
+    // Direct lookups go through the locator compiler so XPath is avoided where a UiSelector/id exists
+    protected List<WebElement> findAll(By locator) {
+        return LocatorCompiler.findAll(driver, locator);
+    }
+
+    protected WebElement find(By locator) {
+        List<WebElement> found = findAll(locator);
+        if (found.isEmpty()) {
+            throw new NoSuchElementException("No element found by " + locator);
+        }
+        return found.get(0);
+    }
+
+    // One getPageSource round trip; many locators and visibility checks can then be answered locally
+    protected PageSnapshot snapshot() {
+        return PageSnapshot.capture(driver);
+    }
+
+    // Locator of an @AndroidFindBy field of this page, for use against a snapshot
+    protected By locator(String fieldName) {
+        return FieldLocators.of(getClass(), fieldName);
+    }
+
+    // XPath 1.0 string literal for any text, including one with both quote characters
+    protected static String xpathLiteral(String text) {
+        if (!text.contains("'")) {
+            return "'" + text + "'";
+        }
+        if (!text.contains("\"")) {
+            return "\"" + text + "\"";
+        }
+        return "concat('" + text.replace("'", "', \"'\", '") + "')";
+    }
+
     // ეს იმითვის რო ყველა გვერდის ჩატვირთვა გადავამოწმოთ
     public abstract boolean isDisplayed();
 }
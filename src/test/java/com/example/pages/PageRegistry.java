@@ -0,0 +1,88 @@
+package com.example.pages;
+
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.remote.SessionId;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Page objects of one session, built on first use and handed out again on later navigation to the same page
+ * A reused page forgets the elements it resolved, as they belong to an earlier visit of the screen.
+ * Registries of quit sessions are dropped when the next session registers. The registry also counts the logins
+ * and logouts the pages ran on the session, so fixtures can tell whether a login state they reached still holds.
+ */
+public final class PageRegistry {
+
+    private static final Map<SessionId, PageRegistry> SESSIONS = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, Constructor<?>> CONSTRUCTORS = new ConcurrentHashMap<>();
+
+    private final AppiumDriver driver;
+    private final Map<Class<?>, BasePage> pages = new ConcurrentHashMap<>();
+    private final AtomicLong authChanges = new AtomicLong();
+
+    private PageRegistry(AppiumDriver driver) {
+        this.driver = driver;
+    }
+
+    public static PageRegistry of(AppiumDriver driver) {
+        SessionId session = driver.getSessionId();
+        if (session == null) {
+            throw new IllegalStateException("Driver has no session");
+        }
+        PageRegistry registry = SESSIONS.get(session);
+        if (registry == null) {
+            SESSIONS.values().removeIf(r -> r.driver.getSessionId() == null);
+            registry = SESSIONS.computeIfAbsent(session, s -> new PageRegistry(driver));
+        }
+        return registry;
+    }
+
+    /**
+     * The session's instance of the page, built with its (AppiumDriver) constructor on first use
+     */
+    public <T extends BasePage> T get(Class<T> type) {
+        BasePage page = pages.get(type);
+        if (page == null) {
+            return type.cast(pages.computeIfAbsent(type, this::create));
+        }
+        page.invalidateElementCache();
+        return type.cast(page);
+    }
+
+    // A page logged in or out, or tried to
+    void authChanged() {
+        authChanges.incrementAndGet();
+    }
+
+    public long getAuthChanges() {
+        return authChanges.get();
+    }
+
+    public int size() {
+        return pages.size();
+    }
+
+    private BasePage create(Class<?> type) {
+        Constructor<?> constructor = CONSTRUCTORS.computeIfAbsent(type, t -> {
+            try {
+                return t.getConstructor(AppiumDriver.class);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalArgumentException(t.getName() + " has no public (AppiumDriver) constructor", e);
+            }
+        });
+        try {
+            return (BasePage) constructor.newInstance(driver);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Could not create " + type.getSimpleName(), e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create " + type.getSimpleName(), e);
+        }
+    }
+}
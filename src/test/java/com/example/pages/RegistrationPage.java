@@ -1,10 +1,12 @@
 package com.example.pages;
 
+import com.example.forms.FormField;
+import com.example.retry.StepRetry;
 import io.appium.java_client.AppiumDriver;
 import io.appium.java_client.pagefactory.AndroidFindBy;
 import io.qameta.allure.Step;
 
-import java.time.Duration;
+import java.util.Arrays;
 
 import org.assertj.core.api.Assertions;
 import org.openqa.selenium.WebElement;
@@ -38,7 +40,6 @@ public class RegistrationPage extends BasePage {
     @AndroidFindBy(id = "org.wikipedia:id/textinput_error")
     private WebElement errorMessage;
 
-    private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(10);
 
     public RegistrationPage(AppiumDriver driver) {
         super(driver);
@@ -102,6 +103,7 @@ public class RegistrationPage extends BasePage {
     }
 
     @Step("Submit registration form and expect error: {expectedError}")
+    @StepRetry(maxAttempts = 1)
     public RegistrationPage submitRegistrationFormAndExpectError(String expectedError) {
         logger.info("Submitting registration form and expecting error: {}", expectedError);
         
@@ -112,6 +114,7 @@ public class RegistrationPage extends BasePage {
     }
 
     @Step("Submit registration form successfully")
+    @StepRetry(maxAttempts = 1)
     public void submitRegistrationForm() {
         logger.info("Submitting registration form");
         clickElement(submitButton);
@@ -121,13 +124,13 @@ public class RegistrationPage extends BasePage {
     public RegistrationPage fillRegistrationForm(String username, String password, String confirmPassword, String email) {
         logger.info("Filling complete registration form for username: {}", username);
         
-        clearAndEnterText(usernameField, username);
-        clearAndEnterText(passwordField, password);
-        clearAndEnterText(repeatPasswordField, confirmPassword);
-        
-        if (email != null && !email.isEmpty()) {
-            clearAndEnterText(emailField, email);
-        }
+        // Optional email is left untouched when not given
+        forms.fill("registration", Arrays.asList(
+                FormField.of("username", locator("usernameField"), username),
+                FormField.secret("password", locator("passwordField"), password),
+                FormField.secret("repeatPassword", locator("repeatPasswordField"), confirmPassword),
+                FormField.of("email", locator("emailField"), email == null || email.isEmpty() ? null : email)));
+        invalidateElementCache();
         
         return this;
     }
@@ -168,7 +171,7 @@ public class RegistrationPage extends BasePage {
     // Wait for error message and validate its text
     private void waitForErrorAndValidate(String expectedError) {
         try {
-            WebDriverWait errorWait = new WebDriverWait(driver, DEFAULT_TIMEOUT);
+            WebDriverWait errorWait = new WebDriverWait(driver, settings.getFieldWait());
             WebElement errorElement = errorWait.until(ExpectedConditions.visibilityOf(errorMessage));
             
             String actualError = errorElement.getText();
@@ -1,16 +1,21 @@
 package com.example.pages;
 
+import com.example.retry.StepRetry;
 import io.appium.java_client.AppiumBy;
 import io.appium.java_client.AppiumDriver;
 import io.appium.java_client.pagefactory.AndroidFindBy;
 import io.qameta.allure.Step;
+import org.openqa.selenium.By;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 
+import java.time.Duration;
+
 
 public class WikipediaArticlePage extends BasePage {
     
-    @AndroidFindBy(xpath = "//android.widget.TextView[@text=\"Java (programming language)\"]")
+    // The title is the first text view rendered in the article's web view
+    @AndroidFindBy(xpath = "//*[@resource-id='org.wikipedia:id/page_web_view']//android.widget.TextView")
     private WebElement articleTitle;
     
     @AndroidFindBy(id = "org.wikipedia:id/page_contents_container")
@@ -37,12 +42,9 @@ public class WikipediaArticlePage extends BasePage {
     @Step("Verify article page is displayed")
     public boolean isDisplayed() {
         try {
-            
-            boolean isDisplayed = wait.until(ExpectedConditions.or(
-                ExpectedConditions.visibilityOf(articleTitle),
-                ExpectedConditions.visibilityOf(articleContent),
-                ExpectedConditions.visibilityOf(webView)
-            )) != null;
+            By[] candidates = {locator("articleTitle"), locator("articleContent"), locator("webView")};
+            boolean isDisplayed = waits.await("WikipediaArticlePage.isDisplayed", settings.getPageWait(),
+                () -> snapshot().anyVisible(candidates));
             logger.info("Article page displayed: " + isDisplayed);
             return isDisplayed;
         } catch (Exception e) {
@@ -51,6 +53,20 @@ public class WikipediaArticlePage extends BasePage {
         }
     }
     
+    // Title view of a specific article, for waiting on that article rather than any article
+    public static By titleLocator(String title) {
+        return AppiumBy.xpath("//*[@resource-id='org.wikipedia:id/page_web_view']//android.widget.TextView[@text="
+                + xpathLiteral(title) + "]");
+    }
+    
+    @Step("Wait for article titled: {title}")
+    public boolean hasTitle(String title, Duration timeout) {
+        By expected = titleLocator(title);
+        boolean found = waits.await("WikipediaArticlePage.hasTitle", timeout, () -> snapshot().isVisible(expected));
+        logger.info("Article titled '" + title + "' displayed: " + found);
+        return found;
+    }
+    
     @Step("Get article title")
     public String getArticleTitle() {
         try {
@@ -67,11 +83,9 @@ public class WikipediaArticlePage extends BasePage {
     @Step("Verify article content is displayed")
     public boolean isArticleContentDisplayed() {
         try {
-            boolean contentDisplayed = wait.until(ExpectedConditions.or(
-                ExpectedConditions.visibilityOf(articleContent),
-                ExpectedConditions.visibilityOf(webView),
-                ExpectedConditions.visibilityOf(articleContentAlt)
-            )) != null;
+            By[] candidates = {locator("articleContent"), locator("webView"), locator("articleContentAlt")};
+            boolean contentDisplayed = waits.await("WikipediaArticlePage.isArticleContentDisplayed", settings.getPageWait(),
+                () -> snapshot().anyVisible(candidates));
             logger.info("Article content displayed: " + contentDisplayed);
             return contentDisplayed;
         } catch (Exception e) {
@@ -81,19 +95,21 @@ public class WikipediaArticlePage extends BasePage {
     }
     
     @Step("Go back to previous page")
+    @StepRetry(maxAttempts = 1)
     public WikipediaSearchPage goBack() {
         try {
             wait.until(ExpectedConditions.elementToBeClickable(backButton));
             backButton.click();
             logger.info("Clicked back button");
-            waitFor(2000);
+            waitForUiToSettle("goBack");
         } catch (Exception e) {
             logger.error("Failed to go back", e);
             // Fallback - use device back button
             driver.navigate().back();
+            invalidateElementCache();
             logger.info("Used device back button");
         }
-        return new WikipediaSearchPage(driver);
+        return page(WikipediaSearchPage.class);
     }
     
     @Step("Check if article loaded successfully")
@@ -121,12 +137,12 @@ public class WikipediaArticlePage extends BasePage {
     @Step("Scroll down on article")
     public WikipediaArticlePage scrollDown() {
         try {
-            // Perform scroll gesture
-            driver.findElement(AppiumBy.androidUIAutomator(
-                "new UiScrollable(new UiSelector().scrollable(true)).scrollForward()"
-            ));
-            logger.info("Scrolled down on article");
-            waitFor(1000);
+            if (scroller.scrollForward("articleScrollDown")) {
+                logger.info("Scrolled down on article");
+                invalidateElementCache();
+            } else {
+                logger.info("Article is already scrolled to the end");
+            }
         } catch (Exception e) {
             logger.warn("Failed to scroll down", e);
         }
@@ -1,12 +1,18 @@
 package com.example.pages;
 
+import com.example.forms.FormField;
+import com.example.locators.OptionalElementProbe;
+import com.example.retry.StepRetry;
 import io.appium.java_client.AppiumBy;
 import io.appium.java_client.AppiumDriver;
 import io.appium.java_client.pagefactory.AndroidFindBy;
 import io.qameta.allure.Step;
 
-import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
 
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
@@ -19,9 +25,6 @@ public class WikipediaMainPage extends BasePage {
     @AndroidFindBy(id = "org.wikipedia:id/search_src_text")
     private WebElement searchBox;
 
-    @AndroidFindBy(id = "org.wikipedia:id/alertTitle")
-    private WebElement alertTitle;
-
     @AndroidFindBy(id = "android:id/button2")
     private WebElement cancelButton;
 
@@ -74,6 +77,13 @@ public class WikipediaMainPage extends BasePage {
     @AndroidFindBy(accessibility = "Search Wikipedia")
     private WebElement searchContainerAlt;
 
+    // Optional dialogs are probed without waiting, so they are plain locators rather than PageFactory fields
+    private static final By ALERT_TITLE = AppiumBy.id("org.wikipedia:id/alertTitle");
+    private static final By ONBOARDING_SKIP_BUTTON = AppiumBy.xpath(
+            "//android.widget.Button[contains(@text, 'Skip') or contains(@text, 'Close') or contains(@text, 'Got it')]");
+    private static final By GAME_MODAL_CLOSE_BUTTON = AppiumBy.accessibilityId("Close");
+    private static final By ACCOUNT_NAME = AppiumBy.id("org.wikipedia:id/main_drawer_account_name");
+
     public WikipediaMainPage(AppiumDriver driver) {
         super(driver);
     }
@@ -82,10 +92,9 @@ public class WikipediaMainPage extends BasePage {
     @Step("Verify Wikipedia main page is displayed")
     public boolean isDisplayed() {
         try {
-            boolean isDisplayed = wait.until(ExpectedConditions.or(
-                    ExpectedConditions.visibilityOf(searchContainer),
-                    ExpectedConditions.visibilityOf(searchContainerAlt),
-                    ExpectedConditions.visibilityOf(searchPlaceholder))) != null;
+            By[] candidates = {locator("searchContainer"), locator("searchContainerAlt"), locator("searchPlaceholder")};
+            boolean isDisplayed = waits.await("WikipediaMainPage.isDisplayed", settings.getPageWait(),
+                    () -> snapshot().anyVisible(candidates));
             logger.info("Wikipedia main page displayed: " + isDisplayed);
             return isDisplayed;
         } catch (Exception e) {
@@ -108,37 +117,56 @@ public class WikipediaMainPage extends BasePage {
                 logger.info("Clicked search box");
             } else {
                 // Fallback - try to find search by text
-                WebElement searchElement = driver.findElement(
+                WebElement searchElement = find(
                         AppiumBy.xpath("//*[contains(@text, 'Search') or contains(@content-desc, 'Search')]"));
                 searchElement.click();
+                invalidateElementCache();
                 logger.info("Clicked search element using fallback");
             }
         } catch (Exception e) {
             logger.error("Failed to click search box", e);
             throw new RuntimeException("Could not interact with search box", e);
         }
-        return new WikipediaSearchPage(driver);
+        return page(WikipediaSearchPage.class);
     }
 
     @Step("Skip onboarding if present")
     public WikipediaMainPage skipOnboardingIfPresent() {
         try {
             // Look for skip or close buttons that might appear during onboarding
-            WebElement skipButton = null;
-            try {
-                skipButton = driver.findElement(AppiumBy.xpath(
-                        "//android.widget.Button[contains(@text, 'Skip') or contains(@text, 'Close') or contains(@text, 'Got it')]"));
-            } catch (Exception e) {
-                // Skip button not found, continue
-            }
-
-            if (skipButton != null && skipButton.isDisplayed()) {
-                skipButton.click();
+            Optional<WebElement> skipButton = probe.find("onboarding", ONBOARDING_SKIP_BUTTON);
+            if (skipButton.isPresent() && skipButton.get().isDisplayed()) {
+                skipButton.get().click();
                 logger.info("Skipped onboarding");
-                waitFor(1000);
+                invalidateElementCache();
+                waits.waitForStaleness("skipOnboarding", skipButton.get(), settings.getUiIdleWait());
+            } else {
+                logger.info("No onboarding to skip");
             }
         } catch (Exception e) {
-            logger.info("No onboarding to skip or skip failed: " + e.getMessage());
+            logger.info("Onboarding skip failed: " + e.getMessage());
+        }
+        return this;
+    }
+
+    @Step("Dismiss startup dialogs if present")
+    public WikipediaMainPage dismissStartupDialogsIfPresent() {
+        // One page-source pass per round covers every startup dialog; stops as soon as none is left
+        for (int round = 0; round < 3; round++) {
+            Optional<OptionalElementProbe.Match> match = probe.firstPresent("startupDialogs",
+                    ALERT_TITLE, ONBOARDING_SKIP_BUTTON, GAME_MODAL_CLOSE_BUTTON);
+            if (!match.isPresent()) {
+                break;
+            }
+            try {
+                WebElement target = match.get().getIndex() == 0 ? cancelButton : match.get().getElement();
+                target.click();
+                logger.info("Dismissed startup dialog: " + match.get().getLocator());
+                waitForUiToSettle("dismissStartupDialog");
+            } catch (Exception e) {
+                logger.info("Failed to dismiss startup dialog: " + e.getMessage());
+                break;
+            }
         }
         return this;
     }
@@ -150,13 +178,15 @@ public class WikipediaMainPage extends BasePage {
     @Step("Close alert dialog if present")
     public WikipediaMainPage closeAlertIfPresent() {
         try {
-            if (alertTitle.isDisplayed()) {
+            if (probe.isPresent("alertDialog", ALERT_TITLE)) {
                 cancelButton.click();
                 logger.info("Closed alert dialog");
-                waitFor(1000);
+                waitForUiToSettle("closeAlert");
+            } else {
+                logger.info("No alert dialog to close");
             }
         } catch (Exception e) {
-            logger.info("No alert dialog to close: " + e.getMessage());
+            logger.info("Failed to close alert dialog: " + e.getMessage());
         }
         return this;
     }
@@ -164,14 +194,17 @@ public class WikipediaMainPage extends BasePage {
     @Step("Close Wikipedia game modal if present")
     public WikipediaMainPage closeWikipediaGameModalIfPresent() {
         try {
-            WebElement closeButton = driver.findElement(AppiumBy.accessibilityId("Close"));
-            if (closeButton.isDisplayed()) {
-                closeButton.click();
+            Optional<WebElement> closeButton = probe.find("gameModal", GAME_MODAL_CLOSE_BUTTON);
+            if (closeButton.isPresent() && closeButton.get().isDisplayed()) {
+                closeButton.get().click();
                 logger.info("Closed Wikipedia game modal");
-                waitFor(1000);
+                invalidateElementCache();
+                waits.waitForStaleness("closeGameModal", closeButton.get(), settings.getUiIdleWait());
+            } else {
+                logger.info("No Wikipedia game modal to close");
             }
         } catch (Exception e) {
-            logger.info("No Wikipedia game modal to close: " + e.getMessage());
+            logger.info("Failed to close Wikipedia game modal: " + e.getMessage());
         }
         return this;
     }
@@ -179,15 +212,18 @@ public class WikipediaMainPage extends BasePage {
     @Step("Find button with text '{buttonText}' and click if present")
     public WikipediaMainPage findButtonWithTextAndClick(String buttonText) {
         try {
-            WebElement button = driver.findElement(AppiumBy.xpath(
+            Optional<WebElement> button = probe.find("button:" + buttonText, AppiumBy.xpath(
                     "//android.widget.Button[@text='" + buttonText + "']"));
-            if (button.isDisplayed()) {
-                button.click();
+            if (button.isPresent() && button.get().isDisplayed()) {
+                button.get().click();
                 logger.info("Clicked button with text: " + buttonText);
-                waitFor(1000);
+                invalidateElementCache();
+                waits.waitForStaleness("clickButton", button.get(), settings.getUiIdleWait());
+            } else {
+                logger.info("No button with text '" + buttonText + "' to click");
             }
         } catch (Exception e) {
-            logger.info("No button with text '" + buttonText + "' to click: " + e.getMessage());
+            logger.info("Failed to click button with text '" + buttonText + "': " + e.getMessage());
         }
         return this;
     }
@@ -198,7 +234,7 @@ public class WikipediaMainPage extends BasePage {
             if (heade3dotMenuElement.isDisplayed()) {
                 heade3dotMenuElement.click();
                 logger.info("Clicked 3-dot menu element");
-                waitFor(1000);
+                waitForUiToSettle("clickHeader3dotMenu");
             }
         } catch (Exception e) {
             logger.info("No 3-dot menu element to click: " + e.getMessage());
@@ -212,7 +248,7 @@ public class WikipediaMainPage extends BasePage {
             if (pageWebView.isDisplayed()) {
                 pageWebView.click();
                 logger.info("Clicked on page web view");
-                waitFor(1000);
+                waitForUiToSettle("clickPageWebView");
             }
         } catch (Exception e) {
             logger.info("No page web view to click: " + e.getMessage());
@@ -227,7 +263,7 @@ public class WikipediaMainPage extends BasePage {
             if (moreTab.isDisplayed()) {
                 moreTab.click();
                 logger.info("Clicked on More tab");
-                waitFor(1000);
+                waitForUiToSettle("clickMoreTab");
             }
         } catch (Exception e) {
             logger.info("No More tab to click: " + e.getMessage());
@@ -241,7 +277,7 @@ public class WikipediaMainPage extends BasePage {
             if (accountContainer.isDisplayed()) {
                 accountContainer.click();
                 logger.info("Clicked on Account container");
-                waitFor(1000);
+                waitForUiToSettle("clickAccountContainer");
             }
         } catch (Exception e) {
             logger.info("No Account container to click: " + e.getMessage());
@@ -255,7 +291,7 @@ public class WikipediaMainPage extends BasePage {
             if (loginBtnInCreatePage.isDisplayed()) {
                 loginBtnInCreatePage.click();
                 logger.info("Clicked on Login button in Create Account page");
-                waitFor(1000);
+                waitForUiToSettle("clickLoginBtnInCreatePage");
             }
         } catch (Exception e) {
             logger.info("No Login button in Create Account page to click: " + e.getMessage());
@@ -264,14 +300,15 @@ public class WikipediaMainPage extends BasePage {
     }
 
     @Step("Perform login with username: {username} and password: {password}")
+    @StepRetry(maxAttempts = 1)
     public WikipediaMainPage enterCredentialsAndLogin(String username, String password) {
+        // Whether or not the login goes through, a login state reached earlier on the session no longer holds
+        PageRegistry.of(driver).authChanged();
         try {
-
-            usernameFieldInLoginPage.sendKeys(username);
-            logger.info("Entered username: " + username);
-
-            passwordFieldInLoginPage.sendKeys(password);
-            logger.info("Entered password: " + password);
+            forms.fill("login", Arrays.asList(
+                    FormField.of("username", locator("usernameFieldInLoginPage"), username),
+                    FormField.secret("password", locator("passwordFieldInLoginPage"), password)));
+            invalidateElementCache();
 
             loginButtonInLoginPage.click();
             logger.info("Clicked on Login button");
@@ -308,10 +345,9 @@ public class WikipediaMainPage extends BasePage {
     }
 
     public WebElement scrollToText(String text) {
-        return driver.findElement(AppiumBy.androidUIAutomator(
-                "new UiScrollable(new UiSelector().scrollable(true))" +
-                        ".scrollIntoView(new UiSelector().text(\"" + text + "\"))"));
-    };
+        return scroller.scrollTo("scrollToText:" + text, AppiumBy.xpath("//*[@text=" + xpathLiteral(text) + "]"))
+                .orElseThrow(() -> new NoSuchElementException("Could not scroll to text: " + text));
+    }
 
     @Step("check if user is logged in")
     public boolean isUserLoggedIn() {
@@ -320,12 +356,13 @@ public class WikipediaMainPage extends BasePage {
             wait.until(ExpectedConditions.visibilityOf(usernameContainer));
             logger.info("User is logged in, Username container is displayed");
             try {
-                WebElement modalOverlay = driver
-                        .findElement(AppiumBy.xpath("//android.view.View[@clickable='true' and not(@resource-id)]"));
-                if (modalOverlay.isDisplayed()) {
-                    modalOverlay.click();
+                Optional<WebElement> modalOverlay = probe.find("modalOverlay",
+                        AppiumBy.xpath("//android.view.View[@clickable='true' and not(@resource-id)]"));
+                if (modalOverlay.isPresent() && modalOverlay.get().isDisplayed()) {
+                    modalOverlay.get().click();
                     logger.info("Clicked outside of modal to dismiss it");
-                    waitFor(1000);
+                    invalidateElementCache();
+                    waits.waitForStaleness("dismissModalOverlay", modalOverlay.get(), settings.getUiIdleWait());
                 }
             } catch (Exception ex) {
                 logger.info("No modal overlay to click outside: " + ex.getMessage());
@@ -337,6 +374,19 @@ public class WikipediaMainPage extends BasePage {
         }
     }
 
+    // Probes the More sheet without waiting, so a logged-out app costs no timeout; closes the sheet again
+    @Step("Read signed-in account name")
+    public Optional<String> signedInAccountName() {
+        this.clickMoreTab();
+        Optional<String> accountName = probe.find("accountName", ACCOUNT_NAME)
+                .map(WebElement::getText)
+                .filter(name -> !name.isEmpty());
+        driver.navigate().back();
+        invalidateElementCache();
+        logger.info("Signed-in account: " + accountName.orElse("none"));
+        return accountName;
+    }
+
     @Step("Click OK button if present")
     public WikipediaMainPage clickOkButtonIfPresent() {
         okButton.click();
@@ -350,6 +400,7 @@ public class WikipediaMainPage extends BasePage {
             this.clickMoreTab();
             wait.until(ExpectedConditions.visibilityOf(contributionsContainer));
             driver.navigate().back();
+            invalidateElementCache();
 
             logger.info("Contributions container is displayed");
             return true;
@@ -360,10 +411,11 @@ public class WikipediaMainPage extends BasePage {
     }
 
     public void logoutIfLoggedIn() {
+        PageRegistry.of(driver).authChanged();
         this.clickMoreTab();
         this.goToSettingsPage();
         this.closeAlertIfPresent();
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
+        WebDriverWait wait = new WebDriverWait(driver, settings.getFieldWait());
         WebElement logoutBtn = this.scrollToText("Log out");
         wait.until(ExpectedConditions.elementToBeClickable(logoutBtn)).click();
         this.clickOkButtonIfPresent();
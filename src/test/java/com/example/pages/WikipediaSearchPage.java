@@ -1,13 +1,21 @@
 package com.example.pages;
 
+import com.example.config.RunConfig;
+import com.example.locators.PageSnapshot;
+import com.example.locators.SnapshotNode;
+import com.example.metrics.SearchLatency;
+import com.example.retry.StepRetry;
 import io.appium.java_client.AppiumBy;
 import io.appium.java_client.AppiumDriver;
 import io.appium.java_client.pagefactory.AndroidFindBy;
 import io.qameta.allure.Step;
+import org.openqa.selenium.By;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.stream.Collectors;
 
 public class WikipediaSearchPage extends BasePage {
     
@@ -32,6 +40,13 @@ public class WikipediaSearchPage extends BasePage {
     @AndroidFindBy(xpath = "//*[@content-desc='Navigate up']")
     private WebElement backButton;
     
+    // Measurement mode settings, see typeAndMeasureResults
+    private static final Duration POLL_INTERVAL = RunConfig.get().getSearchMeasurePoll();
+    private static final Duration STABLE_WINDOW = RunConfig.get().getSearchMeasureStable();
+    private static final int STABLE_POLLS = 3;
+
+    private String lastSearchTerm;
+    
     public WikipediaSearchPage(AppiumDriver driver) {
         super(driver);
     }
@@ -40,7 +55,9 @@ public class WikipediaSearchPage extends BasePage {
     @Step("Verify search page is displayed")
     public boolean isDisplayed() {
         try {
-            boolean isDisplayed = wait.until(ExpectedConditions.visibilityOf(emptySearchMessage)) != null;
+            By emptyMessage = locator("emptySearchMessage");
+            boolean isDisplayed = waits.await("WikipediaSearchPage.isDisplayed", settings.getPageWait(),
+                    () -> snapshot().isVisible(emptyMessage));
             logger.info("Search page displayed: " + isDisplayed);
             return isDisplayed;
         } catch (Exception e) {
@@ -54,9 +71,17 @@ public class WikipediaSearchPage extends BasePage {
         try {
             wait.until(ExpectedConditions.elementToBeClickable(searchInputField));
             searchInputField.clear();
+            lastSearchTerm = searchTerm;
+            if (SearchLatency.isEnabled()) {
+                typeAndMeasureResults(searchTerm);
+                return this;
+            }
             searchInputField.sendKeys(searchTerm);
             logger.info("Entered search term: " + searchTerm);
-            waitFor(2000); // Wait for search results to appear
+            // Returns once the first results are rendered instead of sleeping; polls a plain lookup, since the
+            // list field would run its own wait inside the first poll
+            By resultTitles = locator("searchResultTitles");
+            waits.waitForPopulated("searchResults", () -> findAll(resultTitles), settings.getFieldWait());
         } catch (Exception e) {
             logger.error("Failed to enter search term: " + searchTerm, e);
             throw new RuntimeException("Could not enter search term", e);
@@ -67,8 +92,9 @@ public class WikipediaSearchPage extends BasePage {
     @Step("Verify search results are displayed")
     public boolean areSearchResultsDisplayed() {
         try {
-            wait.until(ExpectedConditions.visibilityOf(searchResultsContainer));
-            boolean hasResults = !searchResultsList.isEmpty() || !searchResultTitles.isEmpty();
+            PageSnapshot results = resultsSnapshot();
+            boolean hasResults = results.count(locator("searchResultsList")) > 0
+                    || results.count(locator("searchResultTitles")) > 0;
             logger.info("Search results displayed: " + hasResults);
             return hasResults;
         } catch (Exception e) {
@@ -80,9 +106,9 @@ public class WikipediaSearchPage extends BasePage {
     @Step("Get number of search results")
     public int getSearchResultsCount() {
         try {
-            wait.until(ExpectedConditions.visibilityOf(searchResultsContainer));
+            PageSnapshot results = resultsSnapshot();
             // Try both possible result containers
-            int count = Math.max(searchResultsList.size(), searchResultTitles.size());
+            int count = Math.max(results.count(locator("searchResultsList")), results.count(locator("searchResultTitles")));
             logger.info("Found " + count + " search results");
             return count;
         } catch (Exception e) {
@@ -92,34 +118,129 @@ public class WikipediaSearchPage extends BasePage {
     }
     
     @Step("Click on first search result")
+    @StepRetry(maxAttempts = 1)
     public WikipediaArticlePage clickFirstResult() {
         try {
-            wait.until(ExpectedConditions.visibilityOf(searchResultsContainer));
+            PageSnapshot results = resultsSnapshot();
             
+            // Decide locally which list has rows, then resolve only that one on the server
             WebElement firstResult = null;
-            if (!searchResultsList.isEmpty()) {
-                firstResult = searchResultsList.get(0);
-            } else if (!searchResultTitles.isEmpty()) {
-                firstResult = searchResultTitles.get(0);
+            if (results.count(locator("searchResultsList")) > 0) {
+                firstResult = find(locator("searchResultsList"));
+            } else if (results.count(locator("searchResultTitles")) > 0) {
+                firstResult = find(locator("searchResultTitles"));
             } else {
                 // Fallback - find any clickable result
-                firstResult = driver.findElement(AppiumBy.xpath("//androidx.recyclerview.widget.RecyclerView[@resource-id='org.wikipedia:id/search_results_list']//android.view.ViewGroup[1]"));
+                firstResult = find(AppiumBy.xpath("//androidx.recyclerview.widget.RecyclerView[@resource-id='org.wikipedia:id/search_results_list']//android.view.ViewGroup[1]"));
             }
             
             wait.until(ExpectedConditions.elementToBeClickable(firstResult));
             String resultText = firstResult.getText();
+            long clickedAt = System.nanoTime();
             firstResult.click();
             
             logger.info("Clicked on first search result: " + resultText);
-            waitFor(3000); // Wait for article to load
+            if (SearchLatency.isEnabled()) {
+                measureArticleLoad(clickedAt);
+            }
+            // Search screen is gone once the clicked row is detached
+            waits.waitForStaleness("openArticle", firstResult, settings.getFieldWait());
         } catch (Exception e) {
             logger.error("Failed to click first search result", e);
             throw new RuntimeException("Could not click first search result", e);
         }
-        return new WikipediaArticlePage(driver);
+        return page(WikipediaArticlePage.class);
+    }
+    
+    /**
+     * Measurement mode: the keystrokes are timestamped and snapshots are taken back to back (or every
+     * search.measure.poll) until the result titles appear and then stay the same for search.measure.stable.
+     * A snapshot is dated at the middle of its round trip.
+     */
+    private void typeAndMeasureResults(String searchTerm) {
+        SearchLatency latency = SearchLatency.global();
+        By titles = locator("searchResultTitles");
+        long start = System.nanoTime();
+        searchInputField.sendKeys(searchTerm);
+        latency.record(searchTerm, SearchLatency.KEYSTROKES, (System.nanoTime() - start) / 1000);
+        logger.info("Entered search term: " + searchTerm);
+
+        long deadline = start + settings.getPageWait().toNanos();
+        String shown = "";
+        long firstAt = -1;
+        long changedAt = -1;
+        int unchangedPolls = 0;
+        while (System.nanoTime() < deadline) {
+            long before = System.nanoTime();
+            PageSnapshot current = snapshot();
+            long observedAt = before + (System.nanoTime() - before) / 2;
+            String rendered = current.findAll(titles).stream()
+                    .filter(SnapshotNode::isDisplayed)
+                    .map(SnapshotNode::getText)
+                    .collect(Collectors.joining("\n"));
+            if (!rendered.isEmpty() && firstAt < 0) {
+                firstAt = observedAt;
+                latency.record(searchTerm, SearchLatency.FIRST_RESULT, (firstAt - start) / 1000);
+            }
+            if (!rendered.equals(shown)) {
+                shown = rendered;
+                changedAt = observedAt;
+                unchangedPolls = 0;
+            } else if (firstAt >= 0 && ++unchangedPolls >= STABLE_POLLS
+                    && observedAt - changedAt >= STABLE_WINDOW.toNanos()) {
+                latency.record(searchTerm, SearchLatency.STABLE_RESULTS, (changedAt - start) / 1000);
+                logger.info("Results for '" + searchTerm + "': first after " + (firstAt - start) / 1_000_000
+                        + " ms, stable after " + (changedAt - start) / 1_000_000 + " ms");
+                invalidateElementCache();
+                return;
+            }
+            pause(POLL_INTERVAL);
+        }
+        invalidateElementCache();
+        logger.warn("Results for '" + searchTerm + "' " + (firstAt < 0 ? "never appeared" : "did not settle")
+                + " within " + settings.getPageWait().toMillis() + " ms");
+    }
+
+    // From the click on a result until the article content is on screen
+    private void measureArticleLoad(long clickedAt) {
+        By[] content = {AppiumBy.id("org.wikipedia:id/page_web_view"), AppiumBy.id("org.wikipedia:id/page_contents_container")};
+        long deadline = clickedAt + settings.getPageWait().toNanos();
+        while (System.nanoTime() < deadline) {
+            long before = System.nanoTime();
+            PageSnapshot current = snapshot();
+            if (current.anyVisible(content)) {
+                long loadedAt = before + (System.nanoTime() - before) / 2;
+                SearchLatency.global().record(lastSearchTerm == null ? "unknown" : lastSearchTerm,
+                        SearchLatency.ARTICLE_LOAD, (loadedAt - clickedAt) / 1000);
+                return;
+            }
+            pause(POLL_INTERVAL);
+        }
+        logger.warn("Article did not load within " + settings.getPageWait().toMillis() + " ms");
+    }
+
+    private static void pause(Duration interval) {
+        if (interval.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(interval.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Polls snapshots until the results container is visible and returns the snapshot that showed it
+    private PageSnapshot resultsSnapshot() {
+        By container = locator("searchResultsContainer");
+        return waits.until("WikipediaSearchPage.results", settings.getPageWait(), () -> {
+            PageSnapshot current = snapshot();
+            return current.isVisible(container) ? current : null;
+        });
     }
     
     @Step("Search for term and click first result: {searchTerm}")
+    @StepRetry(maxAttempts = 1)
     public WikipediaArticlePage searchAndSelectFirstResult(String searchTerm) {
         return this.enterSearchTerm(searchTerm)
                   .clickFirstResult();
@@ -0,0 +1,70 @@
+package com.example.retry;
+
+import org.openqa.selenium.ElementClickInterceptedException;
+import org.openqa.selenium.ElementNotInteractableException;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.SessionNotCreatedException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.remote.UnreachableBrowserException;
+
+/**
+ * Why a step failed, judged from the exception and its causes
+ * (page objects often wrap the driver exception in a RuntimeException)
+ */
+public enum FailureClass {
+    STALE(true),
+    NOT_FOUND(true),
+    NOT_INTERACTABLE(true),
+    SESSION_DEAD(false),
+    ASSERTION(false),
+    OTHER(false);
+
+    private final boolean transient_;
+
+    FailureClass(boolean transient_) {
+        this.transient_ = transient_;
+    }
+
+    // Worth repeating the step: the screen may still be changing; a dead session or a failed check will not recover
+    public boolean isTransient() {
+        return transient_;
+    }
+
+    public static FailureClass of(Throwable failure) {
+        FailureClass found = OTHER;
+        for (Throwable t = failure; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            FailureClass current = classify(t);
+            // Assertions and dead sessions anywhere in the chain win over the transient symptoms they cause
+            if (current == ASSERTION || current == SESSION_DEAD) {
+                return current;
+            }
+            if (found == OTHER) {
+                found = current;
+            }
+        }
+        return found;
+    }
+
+    private static FailureClass classify(Throwable t) {
+        if (t instanceof AssertionError) {
+            return ASSERTION;
+        }
+        if (t instanceof NoSuchSessionException || t instanceof SessionNotCreatedException
+                || t instanceof UnreachableBrowserException) {
+            return SESSION_DEAD;
+        }
+        if (t instanceof StaleElementReferenceException) {
+            return STALE;
+        }
+        // A wait that timed out is an element that did not show up in time
+        if (t instanceof NotFoundException || t instanceof TimeoutException) {
+            return NOT_FOUND;
+        }
+        if (t instanceof ElementNotInteractableException || t instanceof ElementClickInterceptedException) {
+            return NOT_INTERACTABLE;
+        }
+        return OTHER;
+    }
+}
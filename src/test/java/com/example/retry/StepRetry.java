@@ -0,0 +1,20 @@
+package com.example.retry;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Overrides the retry policy of one step; zero keeps the suite default
+ * Page-object @Step methods are retried without it, other methods only when annotated
+ * Use maxAttempts = 1 for steps that must not be repeated
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface StepRetry {
+
+    int maxAttempts() default 0;
+
+    long budgetMillis() default 0;
+}
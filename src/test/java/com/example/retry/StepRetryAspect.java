@@ -0,0 +1,109 @@
+package com.example.retry;
+
+import com.example.config.RunConfig;
+import com.example.history.TestHistory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.DeclarePrecedence;
+import org.aspectj.lang.reflect.MethodSignature;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Repeats a failed step when the failure is transient (stale element, element not there yet, not interactable),
+ * up to a number of attempts and within a time budget measured from the first attempt
+ * Applies to the @Step methods of the page objects and to any method annotated with {@link StepRetry};
+ * defaults come from the run configuration (steps.retry.maxAttempts, steps.retry.budget).
+ * Steps with side effects (logging in, submitting a form, navigating) opt out with @StepRetry(maxAttempts = 1):
+ * a repeat after a partial success would act twice.
+ * Steps call other steps, so only the innermost failing step retries: once it gives up, the steps around it
+ * pass the same failure on instead of replaying it again.
+ * Woven at load time through META-INF/aop.xml; runs outside Allure's step aspect so each attempt is reported.
+ * The duration of each page-object step, retries included, goes to the {@link TestHistory}.
+ */
+@Aspect
+@DeclarePrecedence("com.example.retry.StepRetryAspect, *")
+public class StepRetryAspect {
+
+    private static final Logger logger = LogManager.getLogger(StepRetryAspect.class);
+    private static final int DEFAULT_MAX_ATTEMPTS = RunConfig.get().getStepRetryMaxAttempts();
+    private static final long DEFAULT_BUDGET_MILLIS = RunConfig.get().getStepRetryBudget().toMillis();
+    private static final long BACKOFF_MILLIS = 250;
+    private static final String PAGES_PACKAGE = "com.example.pages.";
+
+    private static final ThreadLocal<Set<Throwable>> GIVEN_UP =
+            ThreadLocal.withInitial(() -> Collections.newSetFromMap(new IdentityHashMap<>()));
+    private static final ThreadLocal<int[]> DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Around("execution(@io.qameta.allure.Step * com.example.pages..*(..)) || execution(@com.example.retry.StepRetry * *(..))")
+    public Object retry(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        StepRetry policy = signature.getMethod().getAnnotation(StepRetry.class);
+        int maxAttempts = policy != null && policy.maxAttempts() > 0 ? policy.maxAttempts() : DEFAULT_MAX_ATTEMPTS;
+        long budgetMillis = policy != null && policy.budgetMillis() > 0 ? policy.budgetMillis() : DEFAULT_BUDGET_MILLIS;
+        String step = signature.getDeclaringType().getSimpleName() + "." + signature.getName();
+        StepRetryStats stats = StepRetryStats.global();
+
+        long start = System.nanoTime();
+        boolean passed = false;
+        DEPTH.get()[0]++;
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    Object result = joinPoint.proceed();
+                    if (attempt > 1) {
+                        stats.recordRecovered(step);
+                        logger.info("Step " + step + " passed on attempt " + attempt);
+                    }
+                    passed = true;
+                    return result;
+                } catch (Throwable failure) {
+                    if (alreadyGivenUp(failure)) {
+                        throw failure;
+                    }
+                    FailureClass failureClass = FailureClass.of(failure);
+                    long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+                    if (!failureClass.isTransient() || attempt >= maxAttempts
+                            || elapsedMillis + BACKOFF_MILLIS > budgetMillis) {
+                        stats.recordFailed(step, failureClass);
+                        GIVEN_UP.get().add(failure);
+                        throw failure;
+                    }
+                    stats.recordRetry(step, failureClass);
+                    logger.warn("Step " + step + " failed with " + failureClass + " on attempt " + attempt + "/" + maxAttempts
+                            + " after " + elapsedMillis + " ms, retrying: " + describe(failure));
+                    Thread.sleep(BACKOFF_MILLIS);
+                }
+            }
+        } finally {
+            if (signature.getDeclaringTypeName().startsWith(PAGES_PACKAGE)) {
+                TestHistory.global().recordStep(step, (System.nanoTime() - start) / 1_000_000, passed);
+            }
+            if (--DEPTH.get()[0] == 0) {
+                GIVEN_UP.get().clear();
+            }
+        }
+    }
+
+    private static boolean alreadyGivenUp(Throwable failure) {
+        Set<Throwable> givenUp = GIVEN_UP.get();
+        for (Throwable t = failure; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (givenUp.contains(t)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Driver exceptions carry build and system info after the first line
+    private static String describe(Throwable failure) {
+        String message = String.valueOf(failure.getMessage());
+        int lineEnd = message.indexOf('\n');
+        return failure.getClass().getSimpleName() + ": " + (lineEnd < 0 ? message : message.substring(0, lineEnd));
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.retry;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Retry outcome per step, shared by all threads
+ * A step that is often recovered is flaky; one that is often exhausted is broken or needs a longer budget
+ */
+public class StepRetryStats {
+
+    private static final StepRetryStats GLOBAL = new StepRetryStats();
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public static StepRetryStats global() {
+        return GLOBAL;
+    }
+
+    void recordRetry(String step, FailureClass failure) {
+        Entry entry = entry(step);
+        entry.retries.incrementAndGet();
+        entry.failures.get(failure).incrementAndGet();
+    }
+
+    void recordRecovered(String step) {
+        entry(step).recovered.incrementAndGet();
+    }
+
+    // Failed for good: not transient, out of attempts or out of budget
+    void recordFailed(String step, FailureClass failure) {
+        Entry entry = entry(step);
+        entry.failed.incrementAndGet();
+        entry.failures.get(failure).incrementAndGet();
+    }
+
+    public long getRetries(String step) {
+        Entry entry = entries.get(step);
+        return entry == null ? 0 : entry.retries.get();
+    }
+
+    public long getRecovered(String step) {
+        Entry entry = entries.get(step);
+        return entry == null ? 0 : entry.recovered.get();
+    }
+
+    public long getFailed(String step) {
+        Entry entry = entries.get(step);
+        return entry == null ? 0 : entry.failed.get();
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    public String summary() {
+        return entries.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, Entry> e) -> e.getValue().retries.get()).reversed())
+                .map(e -> String.format("%-50s retries=%d recovered=%d failed=%d %s",
+                        e.getKey(),
+                        e.getValue().retries.get(),
+                        e.getValue().recovered.get(),
+                        e.getValue().failed.get(),
+                        e.getValue().failures.entrySet().stream()
+                                .filter(f -> f.getValue().get() > 0)
+                                .map(f -> f.getKey() + "=" + f.getValue().get())
+                                .collect(Collectors.joining(" "))))
+                .collect(Collectors.joining(System.lineSeparator()));
+    }
+
+    private Entry entry(String step) {
+        return entries.computeIfAbsent(step, s -> new Entry());
+    }
+
+    private static final class Entry {
+        private final AtomicLong retries = new AtomicLong();
+        private final AtomicLong recovered = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final Map<FailureClass, AtomicLong> failures = new EnumMap<>(FailureClass.class);
+
+        private Entry() {
+            for (FailureClass failure : FailureClass.values()) {
+                failures.put(failure, new AtomicLong());
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.stub;
+
+/**
+ * W3C error raised while handling a stub command; the server turns it into the matching error response
+ */
+class StubCommandException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+    private final String error;
+
+    StubCommandException(int status, String error, String message) {
+        super(message);
+        this.status = status;
+        this.error = error;
+    }
+
+    static StubCommandException noSuchElement(String message) {
+        return new StubCommandException(404, "no such element", message);
+    }
+
+    static StubCommandException staleElement(String elementId) {
+        return new StubCommandException(404, "stale element reference",
+                "The element '" + elementId + "' does not exist in DOM anymore");
+    }
+
+    static StubCommandException invalidSelector(String message) {
+        return new StubCommandException(400, "invalid selector", message);
+    }
+
+    int getStatus() {
+        return status;
+    }
+
+    String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.stub;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Article titles the stub can find, loaded from stub/wikipedia/search_index.tsv
+ * A title matches when every word of the query starts one of its words, case-insensitively;
+ * matches come back in file order, so the first line that matches is the first result
+ */
+final class StubSearchIndex {
+
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final StubSearchIndex DEFAULT = load("stub/wikipedia/search_index.tsv");
+
+    private final List<Entry> entries;
+
+    private StubSearchIndex(List<Entry> entries) {
+        this.entries = Collections.unmodifiableList(entries);
+    }
+
+    static StubSearchIndex getDefault() {
+        return DEFAULT;
+    }
+
+    List<Entry> search(String query, int limit) {
+        List<String> queryWords = words(query);
+        if (queryWords.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return entries.stream()
+                .filter(entry -> queryWords.stream().allMatch(q -> entry.words.stream().anyMatch(w -> w.startsWith(q))))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    private static StubSearchIndex load(String resource) {
+        try (InputStream in = StubSearchIndex.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing stub search index " + resource);
+            }
+            List<Entry> entries = new ArrayList<>();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] columns = line.split("\t", 2);
+                entries.add(new Entry(columns[0], columns.length > 1 ? columns[1] : ""));
+            }
+            return new StubSearchIndex(entries);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not load stub search index " + resource, e);
+        }
+    }
+
+    private static List<String> words(String text) {
+        return Arrays.stream(WORD_SEPARATOR.split(text.toLowerCase(Locale.ROOT)))
+                .filter(word -> !word.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    static final class Entry {
+        final String title;
+        final String description;
+        private final List<String> words;
+
+        private Entry(String title, String description) {
+            this.title = title;
+            this.description = description;
+            this.words = words(title);
+        }
+    }
+}
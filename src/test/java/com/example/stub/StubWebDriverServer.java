@@ -0,0 +1,476 @@
+package com.example.stub;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * In-process W3C WebDriver server used to exercise the framework without a device
+ * Answers status, session lifecycle, timeouts, window rect and the mobile app-management scripts; element, source and
+ * navigation commands are served from a simulated Wikipedia app built on recorded UI hierarchies
+ */
+public class StubWebDriverServer implements AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(StubWebDriverServer.class);
+    private static final Json JSON = new Json();
+    private static final String ELEMENT_KEY = "element-6066-11e4-a52e-4f735466cecf";
+    // 1x1 PNG returned for screenshots
+    private static final String SCREENSHOT =
+            "iVBORw0KGgoAAAANSUhEUgAAAAEAAAABCAYAAAAfFcSJAAAADUlEQVR42mNkYPhfDwAChwGA60e6kgAAAABJRU5ErkJggg==";
+
+    static {
+        // Without TCP_NODELAY every small response waits out the peer's delayed ACK (~40 ms per command)
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final Map<String, StubSession> sessions = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> commandCounts = new ConcurrentHashMap<>();
+    private final AtomicLong sessionsCreated = new AtomicLong();
+    private final Map<String, Duration> commandDelays = new ConcurrentHashMap<>();
+    private final Map<String, Supplier<StubCommandException>> scriptFailures = new ConcurrentHashMap<>();
+    private volatile boolean hung;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public StubWebDriverServer start() {
+        try {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start stub WebDriver server", e);
+        }
+        server.createContext("/", this::handle);
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.start();
+        logger.info("Stub WebDriver server started at " + getUrl());
+        return this;
+    }
+
+    public URL getUrl() {
+        try {
+            return URI.create("http://127.0.0.1:" + server.getAddress().getPort()).toURL();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Simulate a crashed UiAutomator2 server for the given session
+     */
+    public void killSession(String sessionId) {
+        sessions.remove(sessionId);
+    }
+
+    /**
+     * Simulate a UiAutomator2 server that died on the device while Appium keeps the session:
+     * every later command of the session fails the way Appium reports a crashed instrumentation
+     */
+    public void crashInstrumentation(String sessionId) {
+        StubSession session = sessions.get(sessionId);
+        if (session != null) {
+            session.crashed = true;
+        }
+    }
+
+    /**
+     * Simulate a device that stopped answering: session commands block until {@link #setHung(boolean)} clears it
+     * Status and new-session requests are still answered, as Appium itself is up
+     */
+    public void setHung(boolean hung) {
+        this.hung = hung;
+    }
+
+    /**
+     * Make a command (as counted, e.g. "GET source") take at least the given time, like a slow device
+     */
+    public void setCommandDelay(String command, Duration delay) {
+        commandDelays.put(command, delay);
+    }
+
+    /**
+     * Make a mobile: script fail with the given W3C error, e.g. 404 "unknown command" for a driver without it
+     */
+    public void failScript(String script, int status, String error, String message) {
+        scriptFailures.put(script, () -> new StubCommandException(status, error, message));
+    }
+
+    /**
+     * Name of the screen the simulated app is showing, e.g. "main" or "article"
+     */
+    public String getCurrentScreen(String sessionId) {
+        StubSession session = sessions.get(sessionId);
+        return session == null ? null : session.app.getScreenName();
+    }
+
+    public long getSessionsCreated() {
+        return sessionsCreated.get();
+    }
+
+    public int getLiveSessions() {
+        return sessions.size();
+    }
+
+    public long getCommandCount(String command) {
+        AtomicLong count = commandCounts.get(command);
+        return count == null ? 0 : count.get();
+    }
+
+    // Requests answered so far, of any command
+    public long getCommandCount() {
+        return commandCounts.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    @Override
+    public void close() {
+        hung = false;
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            logger.info("Stub WebDriver server stopped");
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            String[] parts = exchange.getRequestURI().getPath().replaceAll("^/+|/+$", "").split("/");
+            Map<String, Object> body = readBody(exchange);
+
+            if (parts.length == 1 && "status".equals(parts[0])) {
+                count("status");
+                Map<String, Object> status = new HashMap<>();
+                status.put("ready", true);
+                status.put("message", "stub server ready");
+                sendValue(exchange, status);
+                return;
+            }
+            if (parts.length == 1 && "session".equals(parts[0]) && "POST".equals(method)) {
+                count("newSession");
+                sendValue(exchange, newSession(body));
+                return;
+            }
+            if (parts.length < 2 || !"session".equals(parts[0])) {
+                sendError(exchange, 404, "unknown command", "Unknown command " + method + " " + exchange.getRequestURI());
+                return;
+            }
+
+            StubSession session = sessions.get(parts[1]);
+            if (session == null) {
+                sendError(exchange, 404, "invalid session id", "No active session with id " + parts[1]);
+                return;
+            }
+            String command = method + " " + String.join("/", Arrays.copyOfRange(parts, 2, parts.length));
+            count(command.trim());
+            boolean delete = parts.length == 2 && "DELETE".equals(method);
+            while (hung && !delete) {
+                Thread.sleep(20);
+            }
+            if (session.crashed && !delete) {
+                sendError(exchange, 500, "unknown error", "An unknown server-side error occurred while processing the"
+                        + " command. Original error: 'POST /" + String.join("/", Arrays.copyOfRange(parts, 2, parts.length))
+                        + "' cannot be proxied to UiAutomator2 server because the instrumentation process is not"
+                        + " running (probably crashed). Check the server log and/or the logcat output for more details");
+                return;
+            }
+            // Like Appium, one command of a session at a time; later ones queue behind a slow one
+            synchronized (session) {
+                Duration delay = commandDelays.get(command.trim());
+                if (delay != null) {
+                    Thread.sleep(delay.toMillis());
+                }
+                handleSessionCommand(exchange, session, method, parts, body);
+            }
+        } catch (StubCommandException e) {
+            sendError(exchange, e.getStatus(), e.getError(), e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.error("Stub server failed to handle request", e);
+            sendError(exchange, 500, "unknown error", String.valueOf(e.getMessage()));
+        }
+    }
+
+    private void handleSessionCommand(HttpExchange exchange, StubSession session, String method,
+                                      String[] parts, Map<String, Object> body) throws IOException {
+        if (parts.length == 2 && "DELETE".equals(method)) {
+            sessions.remove(session.id);
+            sendValue(exchange, null);
+            return;
+        }
+        String resource = parts.length > 2 ? parts[2] : "";
+        switch (resource) {
+            case "timeouts":
+                if ("POST".equals(method)) {
+                    Object implicit = body.get("implicit");
+                    if (implicit instanceof Number) {
+                        session.implicitWaitMillis = ((Number) implicit).longValue();
+                    }
+                    sendValue(exchange, null);
+                } else {
+                    Map<String, Object> timeouts = new HashMap<>();
+                    timeouts.put("implicit", session.implicitWaitMillis);
+                    timeouts.put("pageLoad", 300000);
+                    timeouts.put("script", 30000);
+                    sendValue(exchange, timeouts);
+                }
+                return;
+            case "window":
+                if (parts.length > 3 && "rect".equals(parts[3])) {
+                    Map<String, Object> rect = new HashMap<>();
+                    rect.put("x", 0);
+                    rect.put("y", 0);
+                    rect.put("width", 1080);
+                    rect.put("height", 2280);
+                    sendValue(exchange, rect);
+                } else {
+                    sendError(exchange, 404, "unknown command", "Stub does not implement " + method + " window");
+                }
+                return;
+            case "execute":
+                sendValue(exchange, executeScript(session, body));
+                return;
+            case "element":
+            case "elements":
+                if (parts.length == 3) {
+                    sendValue(exchange, findElements(session, resource, body, null));
+                } else {
+                    handleElementCommand(exchange, session, method, parts, body);
+                }
+                return;
+            case "source":
+                sendValue(exchange, session.app.pageSource());
+                return;
+            case "back":
+                session.app.back();
+                sendValue(exchange, null);
+                return;
+            case "screenshot":
+                sendValue(exchange, SCREENSHOT);
+                return;
+            default:
+                sendError(exchange, 404, "unknown command", "Stub does not implement " + method + " " + resource);
+        }
+    }
+
+    // session/{id}/element/{elementId}/{command}[/{name}]
+    private void handleElementCommand(HttpExchange exchange, StubSession session, String method,
+                                      String[] parts, Map<String, Object> body) throws IOException {
+        String elementId = parts[3];
+        String command = parts.length > 4 ? parts[4] : "";
+        WikipediaStubApp app = session.app;
+        switch (command) {
+            case "element":
+            case "elements":
+                sendValue(exchange, findElements(session, command, body, elementId));
+                return;
+            case "click":
+                app.click(elementId);
+                sendValue(exchange, null);
+                return;
+            case "value":
+                app.sendKeys(elementId, String.valueOf(body.get("text")));
+                sendValue(exchange, null);
+                return;
+            case "clear":
+                app.clear(elementId);
+                sendValue(exchange, null);
+                return;
+            case "text":
+                sendValue(exchange, app.text(elementId));
+                return;
+            case "name":
+                sendValue(exchange, app.tagName(elementId));
+                return;
+            case "displayed":
+                sendValue(exchange, app.isDisplayed(elementId));
+                return;
+            case "enabled":
+                sendValue(exchange, app.isEnabled(elementId));
+                return;
+            case "selected":
+                sendValue(exchange, "true".equals(app.attribute(elementId, "selected")));
+                return;
+            case "attribute":
+                sendValue(exchange, app.attribute(elementId, parts.length > 5 ? parts[5] : ""));
+                return;
+            case "rect":
+                sendValue(exchange, app.rect(elementId));
+                return;
+            default:
+                sendError(exchange, 404, "unknown command", "Stub does not implement " + method + " element/" + command);
+        }
+    }
+
+    // W3C find element(s); a single-element lookup that matches nothing is a no such element error
+    private Object findElements(StubSession session, String resource, Map<String, Object> body, String contextId) {
+        String using = String.valueOf(body.get("using"));
+        String value = String.valueOf(body.get("value"));
+        List<String> ids = session.app.find(using, value, contextId);
+        if ("element".equals(resource)) {
+            if (ids.isEmpty()) {
+                throw StubCommandException.noSuchElement(
+                        "An element could not be located on the page using the given search parameters");
+            }
+            return elementReference(ids.get(0));
+        }
+        List<Map<String, String>> references = new ArrayList<>();
+        for (String id : ids) {
+            references.add(elementReference(id));
+        }
+        return references;
+    }
+
+    private static Map<String, String> elementReference(String id) {
+        Map<String, String> reference = new HashMap<>();
+        reference.put(ELEMENT_KEY, id);
+        reference.put("ELEMENT", id);
+        return reference;
+    }
+
+    private Object executeScript(StubSession session, Map<String, Object> body) {
+        String script = String.valueOf(body.get("script"));
+        count(script);
+        Supplier<StubCommandException> failure = scriptFailures.get(script);
+        if (failure != null) {
+            throw failure.get();
+        }
+        switch (script) {
+            case "mobile: terminateApp":
+                boolean wasRunning = session.appRunning;
+                session.appRunning = false;
+                return wasRunning;
+            case "mobile: activateApp":
+                if (!session.appRunning) {
+                    session.app.launch();
+                }
+                session.appRunning = true;
+                session.activations++;
+                return null;
+            case "mobile: startActivity":
+                // Force-stop and a fresh task: back to the main screen, app data (login) is kept
+                session.app.launch();
+                session.appRunning = true;
+                session.activations++;
+                return null;
+            case "mobile: scrollGesture":
+                return session.app.scroll(String.valueOf(scriptArgs(body).get("direction")));
+            case "mobile: replaceElementValue":
+                Map<String, Object> replace = scriptArgs(body);
+                session.app.replaceValue(String.valueOf(replace.get("elementId")), String.valueOf(replace.get("text")));
+                return null;
+            case "mobile: queryAppState":
+                return session.appRunning ? 4 : 1;
+            default:
+                return null;
+        }
+    }
+
+    // executeScript sends the mobile: arguments as a one-element array of maps
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> scriptArgs(Map<String, Object> body) {
+        Object args = body.get("args");
+        if (args instanceof List && !((List<?>) args).isEmpty() && ((List<?>) args).get(0) instanceof Map) {
+            return (Map<String, Object>) ((List<?>) args).get(0);
+        }
+        return Collections.emptyMap();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> newSession(Map<String, Object> body) {
+        Map<String, Object> requested = new LinkedHashMap<>();
+        Object capabilities = body.get("capabilities");
+        if (capabilities instanceof Map) {
+            Object alwaysMatch = ((Map<String, Object>) capabilities).get("alwaysMatch");
+            if (alwaysMatch instanceof Map) {
+                requested.putAll((Map<String, Object>) alwaysMatch);
+            }
+        }
+        requested.putIfAbsent("platformName", "Android");
+
+        StubSession session = new StubSession(UUID.randomUUID().toString(), requested);
+        sessions.put(session.id, session);
+        sessionsCreated.incrementAndGet();
+
+        Map<String, Object> value = new HashMap<>();
+        value.put("sessionId", session.id);
+        value.put("capabilities", requested);
+        return value;
+    }
+
+    private void count(String command) {
+        commandCounts.computeIfAbsent(command, c -> new AtomicLong()).incrementAndGet();
+    }
+
+    private static Map<String, Object> readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            String raw = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            if (raw.isBlank()) {
+                return Collections.emptyMap();
+            }
+            return JSON.toType(raw, Json.MAP_TYPE);
+        }
+    }
+
+    private static void sendValue(HttpExchange exchange, Object value) throws IOException {
+        send(exchange, 200, Collections.singletonMap("value", value));
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String error, String message) throws IOException {
+        Map<String, Object> value = new HashMap<>();
+        value.put("error", error);
+        value.put("message", message);
+        value.put("stacktrace", "");
+        send(exchange, status, Collections.singletonMap("value", value));
+    }
+
+    private static void send(HttpExchange exchange, int status, Object payload) throws IOException {
+        byte[] bytes = JSON.toJson(payload).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    static final class StubSession {
+        final String id;
+        final Map<String, Object> capabilities;
+        volatile long implicitWaitMillis;
+        volatile boolean appRunning = true;
+        volatile boolean crashed;
+        volatile int activations;
+        final WikipediaStubApp app = new WikipediaStubApp();
+
+        StubSession(String id, Map<String, Object> capabilities) {
+            this.id = id;
+            this.capabilities = capabilities;
+            app.launch();
+        }
+    }
+}
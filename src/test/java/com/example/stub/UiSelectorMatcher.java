@@ -0,0 +1,222 @@
+package com.example.stub;
+
+import com.example.locators.SnapshotNode;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Evaluates the subset of UiSelector / UiScrollable syntax the framework sends (-android uiautomator)
+ * against a parsed hierarchy. Scrolling is a no-op: the recorded hierarchy already contains every node.
+ */
+final class UiSelectorMatcher {
+
+    private final String source;
+    private int pos;
+
+    private UiSelectorMatcher(String source) {
+        this.source = source;
+    }
+
+    static List<SnapshotNode> find(String expression, List<SnapshotNode> nodes) {
+        Set<SnapshotNode> found = new LinkedHashSet<>();
+        for (String statement : expression.split(";")) {
+            if (!statement.isBlank()) {
+                found.addAll(new UiSelectorMatcher(statement.trim()).parseStatement().evaluate(nodes));
+            }
+        }
+        return new ArrayList<>(found);
+    }
+
+    private Query parseStatement() {
+        if (source.startsWith("new UiScrollable", pos)) {
+            expect("new UiScrollable(");
+            Selector container = parseSelector();
+            expect(")");
+            Query query = nodes -> container.matchAll(nodes);
+            while (peek('.')) {
+                expect(".");
+                String method = identifier();
+                expect("(");
+                if (method.equals("scrollIntoView") || method.equals("getChildByText")) {
+                    Selector target = parseSelector();
+                    skipArguments();
+                    query = nodes -> target.matchAll(nodes);
+                } else {
+                    skipArguments();
+                }
+            }
+            return query;
+        }
+        Selector selector = parseSelector();
+        return selector::matchAll;
+    }
+
+    private Selector parseSelector() {
+        expect("new UiSelector()");
+        Selector selector = new Selector();
+        while (peek('.')) {
+            int mark = pos;
+            expect(".");
+            String method = identifier();
+            expect("(");
+            if (method.equals("childSelector") || method.equals("fromParent")) {
+                selector.child = parseSelector();
+                expect(")");
+                continue;
+            }
+            String argument = argument();
+            expect(")");
+            if (!selector.add(method, argument)) {
+                pos = mark;
+                break;
+            }
+        }
+        return selector;
+    }
+
+    private String argument() {
+        skipSpaces();
+        if (peek('"')) {
+            pos++;
+            StringBuilder value = new StringBuilder();
+            while (source.charAt(pos) != '"') {
+                char c = source.charAt(pos++);
+                value.append(c == '\\' ? source.charAt(pos++) : c);
+            }
+            pos++;
+            return value.toString();
+        }
+        int start = pos;
+        while (pos < source.length() && source.charAt(pos) != ')') {
+            pos++;
+        }
+        return source.substring(start, pos).trim();
+    }
+
+    private void skipArguments() {
+        int depth = 1;
+        while (pos < source.length() && depth > 0) {
+            char c = source.charAt(pos++);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            }
+        }
+    }
+
+    private String identifier() {
+        int start = pos;
+        while (pos < source.length() && Character.isJavaIdentifierPart(source.charAt(pos))) {
+            pos++;
+        }
+        return source.substring(start, pos);
+    }
+
+    private boolean peek(char c) {
+        skipSpaces();
+        return pos < source.length() && source.charAt(pos) == c;
+    }
+
+    private void expect(String token) {
+        skipSpaces();
+        if (!source.startsWith(token, pos)) {
+            throw new IllegalArgumentException("Unsupported UiSelector near: " + source.substring(pos));
+        }
+        pos += token.length();
+    }
+
+    private void skipSpaces() {
+        while (pos < source.length() && Character.isWhitespace(source.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private interface Query {
+        List<SnapshotNode> evaluate(List<SnapshotNode> nodes);
+    }
+
+    private static final class Selector {
+        private final List<Predicate<SnapshotNode>> predicates = new ArrayList<>();
+        private Selector child;
+        private int instance = -1;
+
+        boolean add(String method, String value) {
+            switch (method) {
+                case "className":
+                    predicates.add(n -> n.getClassName().equals(value));
+                    return true;
+                case "text":
+                    predicates.add(n -> n.getText().equals(value));
+                    return true;
+                case "textContains":
+                    predicates.add(n -> n.getText().contains(value));
+                    return true;
+                case "textStartsWith":
+                    predicates.add(n -> n.getText().startsWith(value));
+                    return true;
+                case "textMatches":
+                    predicates.add(n -> n.getText().matches(value));
+                    return true;
+                case "description":
+                    predicates.add(n -> n.getContentDesc().equals(value));
+                    return true;
+                case "descriptionContains":
+                    predicates.add(n -> n.getContentDesc().contains(value));
+                    return true;
+                case "resourceId":
+                    predicates.add(n -> n.getResourceId().equals(value));
+                    return true;
+                case "resourceIdMatches":
+                    predicates.add(n -> n.getResourceId().matches(value));
+                    return true;
+                case "scrollable":
+                case "clickable":
+                case "enabled":
+                case "checked":
+                case "selected":
+                case "focusable":
+                    predicates.add(n -> n.attribute(method).equals(value));
+                    return true;
+                case "instance":
+                    instance = Integer.parseInt(value);
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        List<SnapshotNode> matchAll(List<SnapshotNode> nodes) {
+            List<SnapshotNode> matches = new ArrayList<>();
+            for (SnapshotNode node : nodes) {
+                if (predicates.stream().allMatch(p -> p.test(node))) {
+                    matches.add(node);
+                }
+            }
+            if (child != null) {
+                Set<SnapshotNode> descendants = new LinkedHashSet<>();
+                for (SnapshotNode parent : matches) {
+                    descendants.addAll(child.matchAll(descendantsOf(parent)));
+                }
+                matches = new ArrayList<>(descendants);
+            }
+            if (instance >= 0) {
+                return instance < matches.size() ? List.of(matches.get(instance)) : List.of();
+            }
+            return matches;
+        }
+
+        private static List<SnapshotNode> descendantsOf(SnapshotNode parent) {
+            List<SnapshotNode> result = new ArrayList<>();
+            for (SnapshotNode node : parent.getChildren()) {
+                result.add(node);
+                result.addAll(descendantsOf(node));
+            }
+            return result;
+        }
+    }
+}
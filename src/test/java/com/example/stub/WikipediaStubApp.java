@@ -0,0 +1,601 @@
+package com.example.stub;
+
+import com.example.locators.PageSnapshot;
+import com.example.locators.SnapshotNode;
+import io.appium.java_client.AppiumBy;
+import org.openqa.selenium.By;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Simulated Wikipedia app behind one stub session
+ * Screens are recorded UiAutomator2 hierarchies (src/test/resources/stub/wikipedia); clicks and typing
+ * drive the transitions and validation messages the page objects depend on
+ */
+final class WikipediaStubApp {
+
+    static final String MAIN = "main";
+    static final String SEARCH = "search";
+    static final String ARTICLE = "article";
+    static final String MORE = "more";
+    static final String CREATE_ACCOUNT = "create_account";
+    static final String LOGIN = "login";
+    static final String SETTINGS = "settings";
+    static final String LOGOUT_DIALOG = "logout_dialog";
+
+    private static final String RECORDINGS_PATH = "stub/wikipedia/";
+    // Rows of the recorded search results list
+    private static final int RESULT_ROW_HEIGHT = 189;
+    private static final int MAX_RESULT_ROWS = 8;
+    private static final Pattern BOUNDS = Pattern.compile("\\[(-?\\d+),(-?\\d+)]\\[(-?\\d+),(-?\\d+)]");
+    private static final String ID = "org.wikipedia:id/";
+    private static final Set<String> TAKEN_USERNAMES = Set.of("testuser", "admin");
+    private static final int MIN_PASSWORD_LENGTH = 8;
+    private static final Map<String, byte[]> RECORDINGS = new ConcurrentHashMap<>();
+
+    private final Deque<Screen> backStack = new ArrayDeque<>();
+    private final Map<String, Element> elementsById = new HashMap<>();
+    private final Map<Element, String> idsByElement = new IdentityHashMap<>();
+    private Screen screen;
+    private boolean loggedIn;
+    private String accountName = "";
+    private long nextElementId;
+
+    // Serialized source and its parsed snapshot are rebuilt only after the hierarchy changed
+    private String source;
+    private PageSnapshot snapshot;
+    private List<Element> documentOrder;
+
+    synchronized void launch() {
+        backStack.clear();
+        show(MAIN);
+    }
+
+    synchronized String getScreenName() {
+        return screen.name;
+    }
+
+    synchronized boolean isLoggedIn() {
+        return loggedIn;
+    }
+
+    synchronized String pageSource() {
+        if (source == null) {
+            StringBuilder xml = new StringBuilder("<?xml version='1.0' encoding='UTF-8' standalone='yes' ?>\n");
+            serialize(screen.document.getDocumentElement(), xml, 0);
+            source = xml.toString();
+        }
+        return source;
+    }
+
+    /**
+     * Element ids matching the locator, optionally restricted to descendants of another element
+     */
+    synchronized List<String> find(String using, String value, String contextId) {
+        Element context = contextId == null ? null : element(contextId);
+        PageSnapshot current = snapshot();
+        List<SnapshotNode> matches;
+        try {
+            if ("-android uiautomator".equals(using)) {
+                matches = UiSelectorMatcher.find(value, current.getNodes());
+            } else {
+                matches = current.findAll(toBy(using, value));
+            }
+        } catch (IllegalArgumentException e) {
+            throw StubCommandException.invalidSelector(e.getMessage());
+        }
+
+        Map<SnapshotNode, Element> domNodes = new IdentityHashMap<>();
+        List<SnapshotNode> nodes = current.getNodes();
+        for (int i = 0; i < nodes.size(); i++) {
+            domNodes.put(nodes.get(i), documentOrder.get(i));
+        }
+        List<String> ids = new ArrayList<>();
+        boolean scrolled = false;
+        for (SnapshotNode node : matches) {
+            Element element = domNodes.get(node);
+            if (context != null && !isDescendant(element, context)) {
+                continue;
+            }
+            // UiScrollable brings its target on screen
+            if (value.startsWith("new UiScrollable") && "false".equals(element.getAttribute("displayed"))) {
+                element.setAttribute("displayed", "true");
+                scrolled = true;
+            }
+            ids.add(idOf(element));
+        }
+        if (scrolled) {
+            changed();
+        }
+        return ids;
+    }
+
+    synchronized String attribute(String elementId, String name) {
+        Element element = element(elementId);
+        if ("className".equals(name)) {
+            name = "class";
+        } else if ("resourceId".equals(name)) {
+            name = "resource-id";
+        } else if ("contentDescription".equals(name)) {
+            name = "content-desc";
+        }
+        return element.hasAttribute(name) ? element.getAttribute(name) : null;
+    }
+
+    synchronized String text(String elementId) {
+        return element(elementId).getAttribute("text");
+    }
+
+    synchronized String tagName(String elementId) {
+        return element(elementId).getAttribute("class");
+    }
+
+    synchronized boolean isDisplayed(String elementId) {
+        return !"false".equals(element(elementId).getAttribute("displayed"));
+    }
+
+    synchronized boolean isEnabled(String elementId) {
+        return !"false".equals(element(elementId).getAttribute("enabled"));
+    }
+
+    synchronized Map<String, Object> rect(String elementId) {
+        String[] bounds = element(elementId).getAttribute("bounds").replaceAll("[\\[\\]]", ",").split(",+");
+        int left = Integer.parseInt(bounds[1]);
+        int top = Integer.parseInt(bounds[2]);
+        Map<String, Object> rect = new HashMap<>();
+        rect.put("x", left);
+        rect.put("y", top);
+        rect.put("width", Integer.parseInt(bounds[3]) - left);
+        rect.put("height", Integer.parseInt(bounds[4]) - top);
+        return rect;
+    }
+
+    synchronized void click(String elementId) {
+        Element element = element(elementId);
+        if (within(element, e -> "Navigate up".equals(e.getAttribute("content-desc")))) {
+            back();
+            return;
+        }
+        switch (screen.name) {
+            case MAIN:
+                if (within(element, hasId("search_container")) || within(element, hasId("nav_tab_search"))) {
+                    navigate(SEARCH);
+                } else if (within(element, hasId("nav_tab_more"))) {
+                    navigate(MORE);
+                }
+                break;
+            case MORE:
+                if (within(element, hasId("main_drawer_account_container")) && !loggedIn) {
+                    navigate(CREATE_ACCOUNT);
+                } else if (within(element, hasId("main_drawer_settings_container"))) {
+                    navigate(SETTINGS);
+                } else if (within(element, hasId("nav_tab_explore"))) {
+                    back();
+                }
+                break;
+            case SEARCH:
+                Element row = ancestorOrSelf(element, hasId("page_list_item_container"));
+                if (row != null) {
+                    Element title = first(row, hasId("page_list_item_title"));
+                    navigate(ARTICLE);
+                    setArticleTitle(title == null ? "" : title.getAttribute("text"));
+                } else if (within(element, hasId("search_close_btn"))) {
+                    setText(first(screen.document.getDocumentElement(), hasId("search_src_text")), "");
+                }
+                break;
+            case ARTICLE:
+                if (within(element, hasId("page_toolbar_button_search"))) {
+                    navigate(SEARCH);
+                }
+                break;
+            case CREATE_ACCOUNT:
+                if (within(element, hasId("create_account_login_button"))) {
+                    navigate(LOGIN);
+                } else if (within(element, hasId("create_account_submit_button"))) {
+                    submitRegistration();
+                }
+                break;
+            case LOGIN:
+                if (within(element, hasId("login_button"))) {
+                    submitLogin();
+                } else if (within(element, hasId("login_create_account_button"))) {
+                    back();
+                }
+                break;
+            case SETTINGS:
+                if (within(element, e -> "Log out".equals(e.getAttribute("text")))) {
+                    navigate(LOGOUT_DIALOG);
+                }
+                break;
+            case LOGOUT_DIALOG:
+                if (within(element, e -> "android:id/button1".equals(e.getAttribute("resource-id")))) {
+                    loggedIn = false;
+                    accountName = "";
+                    launch();
+                } else if (within(element, e -> "android:id/button2".equals(e.getAttribute("resource-id")))) {
+                    back();
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    synchronized void sendKeys(String elementId, String keys) {
+        Element element = element(elementId);
+        if (!"android.widget.EditText".equals(element.getAttribute("class"))) {
+            return;
+        }
+        setText(element, valueOf(element) + keys);
+    }
+
+    // mobile: replaceElementValue sets the whole text at once, without clearing or typing
+    synchronized void replaceValue(String elementId, String text) {
+        Element element = element(elementId);
+        if ("android.widget.EditText".equals(element.getAttribute("class"))) {
+            setText(element, text);
+        }
+    }
+
+    synchronized void clear(String elementId) {
+        Element element = element(elementId);
+        if ("android.widget.EditText".equals(element.getAttribute("class"))) {
+            setText(element, "");
+        }
+    }
+
+    /**
+     * mobile: scrollGesture on the first scrollable container: rows recorded as off-screen (displayed="false")
+     * come into view on the first downward scroll; returns whether the container could scroll further
+     */
+    synchronized boolean scroll(String direction) {
+        Element container = first(screen.document.getDocumentElement(), e -> "true".equals(e.getAttribute("scrollable")));
+        if (container == null || !"down".equals(direction)) {
+            return false;
+        }
+        NodeList descendants = container.getElementsByTagName("*");
+        boolean revealed = false;
+        for (int i = 0; i < descendants.getLength(); i++) {
+            Element element = (Element) descendants.item(i);
+            if ("false".equals(element.getAttribute("displayed"))) {
+                element.setAttribute("displayed", "true");
+                revealed = true;
+            }
+        }
+        if (revealed) {
+            changed();
+        }
+        return false;
+    }
+
+    synchronized void back() {
+        if (!backStack.isEmpty()) {
+            screen = backStack.pop();
+            changed();
+        }
+    }
+
+    private void navigate(String name) {
+        backStack.push(screen);
+        show(name);
+    }
+
+    private void show(String name) {
+        String recording = name;
+        if (MORE.equals(name) && loggedIn) {
+            recording = "more_logged_in";
+        }
+        Document document = recording(recording);
+        screen = new Screen(name, document);
+        if (MORE.equals(name) && loggedIn) {
+            first(document.getDocumentElement(), hasId("main_drawer_account_name")).setAttribute("text", accountName);
+        }
+        if (SETTINGS.equals(name) && !loggedIn) {
+            Element logout = first(document.getDocumentElement(), e -> "Log out".equals(e.getAttribute("text")));
+            logout.getParentNode().getParentNode().removeChild(logout.getParentNode());
+        }
+        changed();
+    }
+
+    // Typing into a field: search results follow the query, registration checks the user name
+    private void setText(Element field, String value) {
+        field.setAttribute("text", value.isEmpty() ? field.getAttribute("hint") : value);
+        if (hasId("search_src_text").test(field)) {
+            showSearchResults(value);
+        } else if (CREATE_ACCOUNT.equals(screen.name) && "Username".equals(field.getAttribute("hint"))) {
+            showError(field, TAKEN_USERNAMES.contains(value)
+                    ? "The user name \"" + value + "\" is not available. Please choose a different name."
+                    : null);
+        }
+        changed();
+    }
+
+    // Results are the search index entries matching the query, rendered with the first recorded row as template
+    private void showSearchResults(String query) {
+        Element display = first(screen.document.getDocumentElement(), hasId("search_results_display"));
+        while (display.getFirstChild() != null) {
+            display.removeChild(display.getFirstChild());
+        }
+        List<StubSearchIndex.Entry> matches = StubSearchIndex.getDefault().search(query, MAX_RESULT_ROWS);
+        if (matches.isEmpty()) {
+            display.appendChild(screen.document.importNode(recording("search_empty").getDocumentElement(), true));
+            return;
+        }
+        Element list = (Element) screen.document.importNode(recording("search_results").getDocumentElement(), true);
+        Element template = first(list, hasId("page_list_item_container"));
+        while (list.getFirstChild() != null) {
+            list.removeChild(list.getFirstChild());
+        }
+        for (int i = 0; i < matches.size(); i++) {
+            Element row = (Element) template.cloneNode(true);
+            row.setAttribute("index", String.valueOf(i));
+            first(row, hasId("page_list_item_title")).setAttribute("text", matches.get(i).title);
+            first(row, hasId("page_list_item_description")).setAttribute("text", matches.get(i).description);
+            shiftBounds(row, i * RESULT_ROW_HEIGHT);
+            list.appendChild(row);
+        }
+        display.appendChild(list);
+    }
+
+    private static void shiftBounds(Element root, int dy) {
+        List<Element> elements = new ArrayList<>();
+        elements.add(root);
+        NodeList descendants = root.getElementsByTagName("*");
+        for (int i = 0; i < descendants.getLength(); i++) {
+            elements.add((Element) descendants.item(i));
+        }
+        for (Element element : elements) {
+            Matcher bounds = BOUNDS.matcher(element.getAttribute("bounds"));
+            if (bounds.matches()) {
+                element.setAttribute("bounds", "[" + bounds.group(1) + "," + (Integer.parseInt(bounds.group(2)) + dy) + "]["
+                        + bounds.group(3) + "," + (Integer.parseInt(bounds.group(4)) + dy) + "]");
+            }
+        }
+    }
+
+    private void submitRegistration() {
+        Element password = first(screen.document.getDocumentElement(),
+                e -> "Password".equals(e.getAttribute("hint")));
+        String value = valueOf(password);
+        if (value.length() < MIN_PASSWORD_LENGTH) {
+            showError(password, "The password must be at least " + MIN_PASSWORD_LENGTH + " characters");
+            changed();
+        }
+    }
+
+    private void submitLogin() {
+        Element root = screen.document.getDocumentElement();
+        String username = valueOf(first(root, e -> "Username".equals(e.getAttribute("hint"))));
+        String password = valueOf(first(root, e -> "Password".equals(e.getAttribute("hint"))));
+        if (!username.isEmpty() && !password.isEmpty()) {
+            loggedIn = true;
+            accountName = username;
+            launch();
+        }
+    }
+
+    // Validation message below the field, replacing any previous one
+    private void showError(Element field, String message) {
+        Element existing = first(screen.document.getDocumentElement(), hasId("textinput_error"));
+        if (existing != null) {
+            existing.getParentNode().removeChild(existing);
+        }
+        if (message == null) {
+            return;
+        }
+        Element error = screen.document.createElement("android.widget.TextView");
+        error.setAttribute("index", "1");
+        error.setAttribute("package", "org.wikipedia");
+        error.setAttribute("class", "android.widget.TextView");
+        error.setAttribute("text", message);
+        error.setAttribute("resource-id", ID + "textinput_error");
+        error.setAttribute("content-desc", "");
+        error.setAttribute("clickable", "false");
+        error.setAttribute("enabled", "true");
+        error.setAttribute("focusable", "false");
+        error.setAttribute("scrollable", "false");
+        error.setAttribute("displayed", "true");
+        error.setAttribute("bounds", field.getAttribute("bounds"));
+        field.getParentNode().appendChild(error);
+    }
+
+    private void setArticleTitle(String title) {
+        Element content = first(screen.document.getDocumentElement(), e -> "pcs".equals(e.getAttribute("resource-id")));
+        first(content, e -> "android.widget.TextView".equals(e.getAttribute("class"))).setAttribute("text", title);
+    }
+
+    private Element element(String elementId) {
+        Element element = elementsById.get(elementId);
+        if (element == null) {
+            throw StubCommandException.noSuchElement("No element with id " + elementId);
+        }
+        if (element.getOwnerDocument() != screen.document || !isAttached(element)) {
+            throw StubCommandException.staleElement(elementId);
+        }
+        return element;
+    }
+
+    private String idOf(Element element) {
+        return idsByElement.computeIfAbsent(element, e -> {
+            String id = String.valueOf(++nextElementId);
+            elementsById.put(id, e);
+            return id;
+        });
+    }
+
+    private PageSnapshot snapshot() {
+        if (snapshot == null) {
+            snapshot = PageSnapshot.parse(pageSource());
+            documentOrder = new ArrayList<>();
+            NodeList all = screen.document.getElementsByTagName("*");
+            for (int i = 1; i < all.getLength(); i++) {
+                documentOrder.add((Element) all.item(i));
+            }
+        }
+        return snapshot;
+    }
+
+    private void changed() {
+        source = null;
+        snapshot = null;
+        documentOrder = null;
+    }
+
+    private static String valueOf(Element field) {
+        String text = field.getAttribute("text");
+        return text.equals(field.getAttribute("hint")) ? "" : text;
+    }
+
+    private static By toBy(String using, String value) {
+        switch (using) {
+            case "id":
+                return AppiumBy.id(value);
+            case "accessibility id":
+                return AppiumBy.accessibilityId(value);
+            case "class name":
+                return AppiumBy.className(value);
+            case "xpath":
+                return AppiumBy.xpath(value);
+            default:
+                throw StubCommandException.invalidSelector("Locator strategy '" + using + "' is not supported by the stub");
+        }
+    }
+
+    private static Predicate<Element> hasId(String id) {
+        return e -> (ID + id).equals(e.getAttribute("resource-id"));
+    }
+
+    private static boolean within(Element element, Predicate<Element> predicate) {
+        return ancestorOrSelf(element, predicate) != null;
+    }
+
+    private static Element ancestorOrSelf(Element element, Predicate<Element> predicate) {
+        for (Node node = element; node instanceof Element; node = node.getParentNode()) {
+            if (predicate.test((Element) node)) {
+                return (Element) node;
+            }
+        }
+        return null;
+    }
+
+    private static Element first(Element root, Predicate<Element> predicate) {
+        NodeList all = root.getElementsByTagName("*");
+        for (int i = 0; i < all.getLength(); i++) {
+            if (predicate.test((Element) all.item(i))) {
+                return (Element) all.item(i);
+            }
+        }
+        return null;
+    }
+
+    private static boolean isDescendant(Element element, Element ancestor) {
+        for (Node node = element.getParentNode(); node != null; node = node.getParentNode()) {
+            if (node == ancestor) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isAttached(Element element) {
+        Node node = element;
+        while (node.getParentNode() != null) {
+            node = node.getParentNode();
+        }
+        return node.getNodeType() == Node.DOCUMENT_NODE;
+    }
+
+    // Raw bytes are shared between sessions; every screen gets its own freshly parsed DOM
+    private static Document recording(String name) {
+        byte[] xml = RECORDINGS.computeIfAbsent(name, n -> {
+            try (InputStream in = WikipediaStubApp.class.getClassLoader().getResourceAsStream(RECORDINGS_PATH + n + ".xml")) {
+                if (in == null) {
+                    throw new IllegalStateException("Missing recorded hierarchy " + RECORDINGS_PATH + n + ".xml");
+                }
+                return in.readAllBytes();
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not load recorded hierarchy " + n, e);
+            }
+        });
+        try {
+            return newBuilder().parse(new ByteArrayInputStream(xml));
+        } catch (SAXException | IOException e) {
+            throw new IllegalStateException("Could not parse recorded hierarchy " + name, e);
+        }
+    }
+
+    private static DocumentBuilder newBuilder() {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            return factory.newDocumentBuilder();
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void serialize(Element element, StringBuilder xml, int depth) {
+        xml.append("  ".repeat(depth)).append('<').append(element.getTagName());
+        NamedNodeMap attributes = element.getAttributes();
+        for (int i = 0; i < attributes.getLength(); i++) {
+            xml.append(' ').append(attributes.item(i).getNodeName()).append("=\"")
+                    .append(escape(attributes.item(i).getNodeValue())).append('"');
+        }
+        NodeList children = element.getChildNodes();
+        boolean hasChildren = false;
+        for (int i = 0; i < children.getLength(); i++) {
+            if (children.item(i) instanceof Element) {
+                if (!hasChildren) {
+                    xml.append(">\n");
+                    hasChildren = true;
+                }
+                serialize((Element) children.item(i), xml, depth + 1);
+            }
+        }
+        if (hasChildren) {
+            xml.append("  ".repeat(depth)).append("</").append(element.getTagName()).append(">\n");
+        } else {
+            xml.append(" />\n");
+        }
+    }
+
+    private static String escape(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;")
+                .replace("\"", "&quot;").replace("\n", "&#10;");
+    }
+
+    private static final class Screen {
+        private final String name;
+        private final Document document;
+
+        private Screen(String name, Document document) {
+            this.name = name;
+            this.document = document;
+        }
+    }
+}
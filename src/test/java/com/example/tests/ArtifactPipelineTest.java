@@ -0,0 +1,109 @@
+package com.example.tests;
+
+import com.example.artifacts.ArtifactPipeline;
+import com.example.artifacts.ScreenshotEncoder;
+
+import io.qameta.allure.*;
+import io.qameta.allure.model.TestResult;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.imageio.ImageIO;
+
+import org.assertj.core.api.Assertions;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@Epic("Test Framework")
+@Feature("Artifact Pipeline")
+public class ArtifactPipelineTest {
+
+        private Path workDir;
+        private AllureLifecycle lifecycle;
+        private String testUuid;
+
+        // A private Allure lifecycle so the generated attachments do not end up in this test's report
+        @BeforeMethod
+        public void startAllureTest() throws IOException {
+                workDir = Files.createTempDirectory("artifacts");
+                lifecycle = new AllureLifecycle(new FileSystemResultsWriter(workDir.resolve("allure-results")));
+                testUuid = UUID.randomUUID().toString();
+                lifecycle.scheduleTestCase(new TestResult().setUuid(testUuid).setName("screenshots"));
+                lifecycle.startTestCase(testUuid);
+        }
+
+        @AfterMethod(alwaysRun = true)
+        public void stopAllureTest() {
+                lifecycle.stopTestCase(testUuid);
+                lifecycle.writeTestCase(testUuid);
+        }
+
+        @Test(description = "Identical screenshots are written once and every attachment is streamed from that file")
+        @Story("Deduplication")
+        public void testIdenticalScreenshotsAreWrittenOnce() throws Exception {
+                ArtifactPipeline pipeline = new ArtifactPipeline(workDir.resolve("screenshots"), 1, 1,
+                                new ScreenshotEncoder(ScreenshotEncoder.Format.PNG, 1, 0.8f), lifecycle);
+                byte[] png = png(40, 20, Color.RED);
+
+                for (int i = 0; i < 5; i++) {
+                        pipeline.attachScreenshot("Screenshot", "same", png);
+                }
+                pipeline.attachScreenshot("Screenshot", "other", png(40, 20, Color.BLUE));
+
+                Assertions.assertThat(pipeline.awaitIdle(Duration.ofSeconds(10))).isTrue();
+                Assertions.assertThat(pipeline.getWritten()).isEqualTo(2);
+                Assertions.assertThat(pipeline.getDeduplicated()).isEqualTo(4);
+                Assertions.assertThat(pipeline.getFailures()).isZero();
+                Assertions.assertThat(files(workDir.resolve("screenshots"))).hasSize(2);
+                List<Path> attachments = files(workDir.resolve("allure-results"));
+                Assertions.assertThat(attachments).hasSize(6);
+                Assertions.assertThat(Files.readAllBytes(attachments.get(0))).isNotEmpty();
+        }
+
+        @Test(description = "Screenshots can be downscaled and re-encoded as JPEG")
+        @Story("Encoding")
+        public void testDownscaledJpeg() throws Exception {
+                ArtifactPipeline pipeline = new ArtifactPipeline(workDir.resolve("screenshots"), 1, 4,
+                                new ScreenshotEncoder(ScreenshotEncoder.Format.JPEG, 0.5, 0.8f), lifecycle);
+
+                pipeline.attachScreenshot("Screenshot", "scaled", png(40, 20, Color.GREEN));
+
+                Assertions.assertThat(pipeline.awaitIdle(Duration.ofSeconds(10))).isTrue();
+                List<Path> screenshots = files(workDir.resolve("screenshots"));
+                Assertions.assertThat(screenshots).hasSize(1);
+                Assertions.assertThat(screenshots.get(0).getFileName().toString()).endsWith(".jpg");
+                BufferedImage image = ImageIO.read(new ByteArrayInputStream(Files.readAllBytes(screenshots.get(0))));
+                Assertions.assertThat(image.getWidth()).isEqualTo(20);
+                Assertions.assertThat(image.getHeight()).isEqualTo(10);
+        }
+
+        private static byte[] png(int width, int height, Color color) throws IOException {
+                BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+                Graphics2D graphics = image.createGraphics();
+                graphics.setColor(color);
+                graphics.fillRect(0, 0, width, height);
+                graphics.dispose();
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                ImageIO.write(image, "png", out);
+                return out.toByteArray();
+        }
+
+        private static List<Path> files(Path directory) throws IOException {
+                try (Stream<Path> files = Files.list(directory)) {
+                        return files.sorted().collect(Collectors.toList());
+                }
+        }
+}
@@ -0,0 +1,45 @@
+package com.example.tests;
+
+import com.example.fixtures.AuthState;
+import com.example.fixtures.AuthStateFixture;
+import com.example.metrics.LatencyTable;
+import com.example.pages.PageRegistry;
+import com.example.pages.WikipediaMainPage;
+
+import io.qameta.allure.*;
+
+import org.assertj.core.api.Assertions;
+import org.testng.annotations.Test;
+
+@Epic("Test Framework")
+@Feature("Auth State Fixture")
+public class AuthStateFixtureTest extends StubServerTest {
+
+        private static final String DEVICE = "auth-fixture-test-device";
+
+        @Test(description = "UI login runs once; a cached state is then taken without touching the app until a page logs out")
+        @Story("Auth state")
+        public void testLoginIsCachedPerDevice() {
+                AuthStateFixture fixture = new AuthStateFixture();
+                LatencyTable timings = fixture.getTimings();
+                AuthState loggedIn = AuthState.loggedInAs("appiumdemo", "appium123");
+
+                fixture.require(driver, DEVICE, loggedIn);
+                Assertions.assertThat(timings.count(AuthStateFixture.UI_FLOW)).isEqualTo(1);
+
+                long commandsBefore = server.getCommandCount();
+                fixture.require(driver, DEVICE, loggedIn);
+                Assertions.assertThat(timings.count(AuthStateFixture.CACHE_HIT)).isEqualTo(1);
+                Assertions.assertThat(server.getCommandCount() - commandsBefore)
+                                .as("a cache hit does not touch the app")
+                                .isZero();
+
+                PageRegistry.of(driver).get(WikipediaMainPage.class).logoutIfLoggedIn();
+                fixture.require(driver, DEVICE, loggedIn);
+                Assertions.assertThat(timings.count(AuthStateFixture.CACHE_HIT))
+                                .as("the page's logout dropped the cached login")
+                                .isEqualTo(1);
+                Assertions.assertThat(timings.count(AuthStateFixture.UI_FLOW)).isEqualTo(2);
+                Assertions.assertThat(server.getCurrentScreen(driver.getSessionId().toString())).isEqualTo("main");
+        }
+}
@@ -0,0 +1,50 @@
+package com.example.tests;
+
+import com.example.driver.TimedCommandExecutor;
+import com.example.metrics.CommandLatency;
+import com.example.pages.PageRegistry;
+import com.example.pages.WikipediaMainPage;
+
+import io.appium.java_client.AppiumDriver;
+import io.qameta.allure.*;
+
+import java.util.Map;
+
+import org.assertj.core.api.Assertions;
+import org.testng.annotations.Test;
+
+@Epic("Test Framework")
+@Feature("Command Latency")
+public class CommandLatencyTest extends StubServerTest {
+
+        private CommandLatency latency;
+
+        @Override
+        protected AppiumDriver openDriver() {
+                latency = new CommandLatency();
+                return newDriver(new TimedCommandExecutor(server.getUrl(), latency));
+        }
+
+        @Test(description = "Commands are grouped by @Step template, not by the step name rendered with its arguments")
+        @Story("Step keys")
+        public void testStepsAreKeyedByTemplate() {
+                PageRegistry.of(driver).get(WikipediaMainPage.class).tapSearchBox()
+                                .enterSearchTerm("Java programming")
+                                .enterSearchTerm("Appium");
+
+                Map<String, Map<String, Object>> steps = latency.getRun().getByStep().toMap();
+                Assertions.assertThat(steps).containsKey("Enter search term: {searchTerm}");
+                Assertions.assertThat(steps.keySet()).noneMatch(step -> step.contains("Java programming") || step.contains("Appium"));
+        }
+
+        @Test(description = "Commands issued from woven @Step bodies are tagged with the page method, not AspectJ's body method")
+        @Story("Page methods")
+        public void testWovenStepsAreTaggedWithTheirMethod() {
+                PageRegistry.of(driver).get(WikipediaMainPage.class).tapSearchBox().enterSearchTerm("Java programming");
+
+                Map<String, Map<String, Object>> pageMethods = latency.getRun().getByPageMethod().toMap();
+                Assertions.assertThat(pageMethods).containsKeys("WikipediaMainPage.tapSearchBox",
+                                "WikipediaSearchPage.enterSearchTerm");
+                Assertions.assertThat(pageMethods.keySet()).noneMatch(method -> method.contains("_aroundBody"));
+        }
+}
@@ -0,0 +1,146 @@
+package com.example.tests;
+
+import com.example.driver.DriverPool;
+import com.example.driver.SessionBaseline;
+
+import io.appium.java_client.AppiumBy;
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.android.AndroidDriver;
+import io.qameta.allure.*;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.assertj.core.api.Assertions;
+import org.openqa.selenium.remote.SessionId;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@Epic("Test Framework")
+@Feature("Driver Pool")
+public class DriverPoolTest extends StubServerTest {
+
+        private DriverPool pool;
+
+        @Override
+        protected AppiumDriver openDriver() {
+                // Sessions come from the pools under test
+                return null;
+        }
+
+        @BeforeMethod
+        public void createPool() {
+                pool = new DriverPool(caps -> new AndroidDriver(server.getUrl(), caps), 1, Duration.ofSeconds(5));
+        }
+
+        @AfterMethod(alwaysRun = true)
+        public void shutdownPool() {
+                pool.shutdown();
+        }
+
+        @Test(description = "Warm session is reused and app state is reset instead of creating a new session")
+        @Story("Session reuse")
+        public void testWarmSessionIsReused() {
+                AppiumDriver first = pool.lease(options());
+                SessionId firstId = first.getSessionId();
+                pool.release(first);
+
+                AppiumDriver second = pool.lease(options());
+                Assertions.assertThat(second.getSessionId())
+                                .as("Second lease should reuse the warm session")
+                                .isEqualTo(firstId);
+                Assertions.assertThat(server.getSessionsCreated()).isEqualTo(1);
+                Assertions.assertThat(pool.getMetrics().getWarmHits()).isEqualTo(1);
+                Assertions.assertThat(pool.getMetrics().getResets()).isEqualTo(1);
+                pool.release(second);
+        }
+
+        @Test(description = "Dead session is recycled on release and a fresh one is created on the next lease")
+        @Story("Session recycling")
+        public void testDeadSessionIsRecycled() {
+                AppiumDriver first = pool.lease(options());
+                SessionId firstId = first.getSessionId();
+                server.killSession(firstId.toString());
+                pool.release(first);
+
+                Assertions.assertThat(pool.idleCount()).isZero();
+                Assertions.assertThat(pool.getMetrics().getSessionsRecycled()).isEqualTo(1);
+
+                AppiumDriver second = pool.lease(options());
+                Assertions.assertThat(second.getSessionId()).isNotEqualTo(firstId);
+                Assertions.assertThat(server.getSessionsCreated()).isEqualTo(2);
+                pool.release(second);
+        }
+
+        @Test(description = "An invalidated session is quit without a health check and replaced on the next lease")
+        @Story("Session recycling")
+        public void testInvalidatedSessionIsReplaced() {
+                AppiumDriver first = pool.lease(options());
+                SessionId firstId = first.getSessionId();
+                pool.invalidate(first);
+
+                Assertions.assertThat(server.getCommandCount("GET timeouts")).isZero();
+                Assertions.assertThat(first.getSessionId()).isNull();
+                Assertions.assertThat(pool.idleCount()).isZero();
+                Assertions.assertThat(pool.getMetrics().getLeases())
+                                .isEqualTo(pool.getMetrics().getReturns());
+
+                AppiumDriver second = pool.lease(options());
+                Assertions.assertThat(second.getSessionId()).isNotEqualTo(firstId);
+                pool.release(second);
+        }
+
+        @Test(description = "Baseline steps run once per session and reused sessions are restored by an activity restart")
+        @Story("Session baseline")
+        public void testBaselineIsRestoredWithoutReplayingSteps() {
+                AtomicInteger baselineRuns = new AtomicInteger();
+                SessionBaseline baseline = new SessionBaseline("org.wikipedia", "org.wikipedia.main.MainActivity",
+                                driver -> baselineRuns.incrementAndGet());
+                DriverPool baselinePool = new DriverPool(caps -> new AndroidDriver(server.getUrl(), caps), 1,
+                                Duration.ofSeconds(5), baseline);
+                try {
+                        AppiumDriver first = baselinePool.lease(options());
+                        first.findElement(AppiumBy.id("org.wikipedia:id/search_container")).click();
+                        baselinePool.release(first);
+
+                        AppiumDriver second = baselinePool.lease(options());
+                        Assertions.assertThat(baselineRuns.get()).isEqualTo(1);
+                        Assertions.assertThat(server.getCommandCount("mobile: startActivity")).isEqualTo(1);
+                        Assertions.assertThat(server.getCurrentScreen(second.getSessionId().toString()))
+                                        .isEqualTo("main");
+                        Assertions.assertThat(baseline.getTimings().count(SessionBaseline.COLD_START)).isEqualTo(1);
+                        Assertions.assertThat(baseline.getTimings().count(SessionBaseline.RESTORED_START)).isEqualTo(1);
+                        baselinePool.release(second);
+                } finally {
+                        baselinePool.shutdown();
+                }
+        }
+
+        @Test(description = "Only a server that does not know mobile: startActivity stops being asked for it")
+        @Story("Session baseline")
+        public void testStartActivityIsDroppedOnlyWhenUnsupported() {
+                SessionBaseline baseline = new SessionBaseline("org.wikipedia", "org.wikipedia.main.MainActivity",
+                                driver -> { });
+                DriverPool baselinePool = new DriverPool(caps -> new AndroidDriver(server.getUrl(), caps), 1,
+                                Duration.ofSeconds(5), baseline);
+                try {
+                        baselinePool.release(baselinePool.lease(options()));
+                        server.failScript("mobile: startActivity", 500, "unknown error", "Activity did not start in time");
+                        baselinePool.release(baselinePool.lease(options()));
+                        baselinePool.release(baselinePool.lease(options()));
+                        Assertions.assertThat(server.getCommandCount("mobile: startActivity"))
+                                        .as("a failed start is tried again on the next reuse")
+                                        .isEqualTo(2);
+
+                        server.failScript("mobile: startActivity", 404, "unknown command",
+                                        "Unknown mobile command \"startActivity\"");
+                        baselinePool.release(baselinePool.lease(options()));
+                        baselinePool.release(baselinePool.lease(options()));
+                        Assertions.assertThat(server.getCommandCount("mobile: startActivity")).isEqualTo(3);
+                        Assertions.assertThat(baseline.getTimings().count(SessionBaseline.FALLBACK_START)).isEqualTo(4);
+                } finally {
+                        baselinePool.shutdown();
+                }
+        }
+}
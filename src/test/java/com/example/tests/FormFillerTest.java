@@ -0,0 +1,70 @@
+package com.example.tests;
+
+import com.example.locators.PageSnapshot;
+import com.example.pages.RegistrationPage;
+import com.example.pages.WikipediaMainPage;
+
+import io.appium.java_client.AppiumBy;
+import io.appium.java_client.AppiumDriver;
+import io.qameta.allure.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.assertj.core.api.Assertions;
+import org.testng.annotations.Test;
+
+@Epic("Test Framework")
+@Feature("Form Filler")
+public class FormFillerTest extends StubServerTest {
+
+        @Test(description = "All registration fields are resolved with one lookup and set without clear/sendKeys round trips")
+        @Story("Batched fill")
+        public void testRegistrationFormIsFilledInOnePass() {
+                new WikipediaMainPage(driver).clickMoreTab().clickAccountContainer();
+                RegistrationPage registrationPage = new RegistrationPage(driver);
+                Assertions.assertThat(registrationPage.isDisplayed()).isTrue();
+                long lookupsBefore = server.getCommandCount("POST elements");
+
+                registrationPage.fillRegistrationForm("newuser", "longpassword", "longpassword", "");
+
+                Assertions.assertThat(server.getCommandCount("POST elements") - lookupsBefore)
+                                .as("one findElements for all inputs")
+                                .isEqualTo(1);
+                Assertions.assertThat(server.getCommandCount("mobile: replaceElementValue"))
+                                .as("the empty optional email is left untouched")
+                                .isEqualTo(3);
+                List<String> texts = PageSnapshot.capture(driver).findAll(AppiumBy.className("android.widget.EditText"))
+                                .stream().map(node -> node.getText()).collect(Collectors.toList());
+                Assertions.assertThat(texts).containsExactly("newuser", "longpassword", "longpassword", "Email (Optional)");
+        }
+
+        @Test(description = "A failing replaceElementValue falls back per value; only an unknown script is not tried again")
+        @Story("Fallback")
+        public void testReplaceValueIsDroppedOnlyWhenUnsupported() {
+                new WikipediaMainPage(driver).clickMoreTab().clickAccountContainer();
+                RegistrationPage registrationPage = new RegistrationPage(driver);
+                server.failScript("mobile: replaceElementValue", 500, "unknown error", "Could not set the text in time");
+
+                registrationPage.fillRegistrationForm("newuser", "longpassword", "longpassword", "");
+                Assertions.assertThat(server.getCommandCount("mobile: replaceElementValue")).isEqualTo(3);
+
+                server.failScript("mobile: replaceElementValue", 404, "unknown command",
+                                "Unknown mobile command \"replaceElementValue\"");
+                AppiumDriver other = newDriver();
+                try {
+                        new WikipediaMainPage(other).clickMoreTab().clickAccountContainer();
+                        new RegistrationPage(other).fillRegistrationForm("otheruser", "otherpassword", "otherpassword", "");
+                        List<String> texts = PageSnapshot.capture(other)
+                                        .findAll(AppiumBy.className("android.widget.EditText"))
+                                        .stream().map(node -> node.getText()).collect(Collectors.toList());
+                        Assertions.assertThat(texts)
+                                        .containsExactly("otheruser", "otherpassword", "otherpassword", "Email (Optional)");
+                } finally {
+                        other.quit();
+                }
+                Assertions.assertThat(server.getCommandCount("mobile: replaceElementValue"))
+                                .as("not sent again to a server that said it does not know it")
+                                .isEqualTo(4);
+        }
+}
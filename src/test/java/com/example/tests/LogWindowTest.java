@@ -0,0 +1,51 @@
+package com.example.tests;
+
+import com.example.utils.LogWindow;
+
+import io.qameta.allure.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.assertj.core.api.Assertions;
+import org.testng.annotations.Test;
+
+@Epic("Test Framework")
+@Feature("Log Attachments")
+public class LogWindowTest {
+
+        @Test(description = "Only the lines the test's thread logged after the mark are streamed back")
+        @Story("Per-test log window")
+        public void testWindowKeepsOwnThreadLinesAfterMark() throws IOException {
+                Path log = Files.createTempFile("test-execution", ".log");
+                String me = Thread.currentThread().getName();
+                append(log, "2024-01-01 10:00:00.000 [" + me + "] INFO  Before - previous test\n");
+
+                LogWindow window = LogWindow.mark(log);
+                append(log, "2024-01-01 10:00:01.000 [" + me + "] INFO  Test - started\n"
+                                + "2024-01-01 10:00:01.100 [other-thread] INFO  Test - someone else\n"
+                                + "2024-01-01 10:00:01.200 [" + me + "] ERROR Test - failed\n"
+                                + "java.lang.IllegalStateException: boom\n"
+                                + "\tat com.example.Foo.bar(Foo.java:1)\n"
+                                + "2024-01-01 10:00:01.300 [other-thread] ERROR Test - other failure\n"
+                                + "\tat com.example.Other.baz(Other.java:2)\n");
+
+                String content;
+                try (InputStream in = window.open()) {
+                        content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                }
+                Assertions.assertThat(content.split("\\R")).containsExactly(
+                                "2024-01-01 10:00:01.000 [" + me + "] INFO  Test - started",
+                                "2024-01-01 10:00:01.200 [" + me + "] ERROR Test - failed",
+                                "java.lang.IllegalStateException: boom",
+                                "\tat com.example.Foo.bar(Foo.java:1)");
+        }
+
+        private static void append(Path log, String text) throws IOException {
+                Files.write(log, text.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        }
+}
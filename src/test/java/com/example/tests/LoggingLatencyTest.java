@@ -0,0 +1,64 @@
+package com.example.tests;
+
+import com.example.pages.BasePage;
+
+import io.qameta.allure.*;
+
+import org.HdrHistogram.Histogram;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.ThreadContext;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.async.AsyncLoggerConfig;
+import org.assertj.core.api.Assertions;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+@Epic("Test Framework")
+@Feature("Logging")
+public class LoggingLatencyTest {
+
+        // Configured in log4j2.xml like the page-object loggers, minus the console
+        private static final Logger probeLogger = LogManager.getLogger("com.example.tests.LatencyProbe");
+        // -Dlogging.budget.p99.micros overrides the budget for slow CI machines
+        private static final long P99_BUDGET_MICROS = Long.getLong("logging.budget.p99.micros", 100);
+
+        @AfterMethod(alwaysRun = true)
+        public void clearThreadContext() {
+                ThreadContext.clearMap();
+        }
+
+        @Test(description = "Page-object loggers publish to the async ring buffer instead of writing on the test thread")
+        @Story("Async loggers")
+        public void testPageLoggersAreAsync() {
+                LoggerContext context = (LoggerContext) LogManager.getContext(false);
+                Assertions.assertThat(context.getConfiguration().getLoggerConfig(BasePage.class.getName()))
+                                .isInstanceOf(AsyncLoggerConfig.class);
+                Assertions.assertThat(context.getConfiguration().getLoggerConfig(probeLogger.getName()))
+                                .as("the latency probe takes the same path")
+                                .isInstanceOf(AsyncLoggerConfig.class);
+        }
+
+        @Test(description = "An info call from a page object with the test ThreadContext set stays within the latency budget")
+        @Story("Hot-path latency")
+        public void testInfoLatencyWithinBudget() {
+                ThreadContext.put("test", "LoggingLatencyTest.probe");
+                ThreadContext.put("device", "none");
+                Histogram histogram = new Histogram(3);
+                for (int i = 0; i < 7000; i++) {
+                        long start = System.nanoTime();
+                        probeLogger.info("Clicked element {} on page {}", i, "WikipediaMainPage");
+                        long micros = (System.nanoTime() - start) / 1000;
+                        // The first 2000 calls warm up the logger and the JIT
+                        if (i >= 2000) {
+                                histogram.recordValue(micros);
+                        }
+                }
+                Allure.addAttachment("Logging latency (µs)", "p50=" + histogram.getValueAtPercentile(50)
+                                + ", p99=" + histogram.getValueAtPercentile(99)
+                                + ", max=" + histogram.getMaxValue());
+                Assertions.assertThat(histogram.getValueAtPercentile(99))
+                                .as("p99 info latency in µs")
+                                .isLessThanOrEqualTo(P99_BUDGET_MICROS);
+        }
+}
@@ -0,0 +1,62 @@
+package com.example.tests;
+
+import com.example.locators.PageFields;
+import com.example.pages.PageRegistry;
+import com.example.pages.RegistrationPage;
+import com.example.pages.WikipediaArticlePage;
+import com.example.pages.WikipediaMainPage;
+import com.example.pages.WikipediaSearchPage;
+
+import io.appium.java_client.AppiumDriver;
+import io.qameta.allure.*;
+
+import org.assertj.core.api.Assertions;
+import org.testng.annotations.Test;
+
+@Epic("Test Framework")
+@Feature("Page Registry")
+public class PageRegistryTest extends StubServerTest {
+
+        @Test(description = "Building a page sends no command; fields are looked up on first use")
+        @Story("Lazy fields")
+        public void testFieldsResolveOnFirstUse() {
+                Assertions.assertThat(PageFields.of(WikipediaMainPage.class)).isSameAs(PageFields.of(WikipediaMainPage.class));
+                Assertions.assertThat(PageFields.of(WikipediaMainPage.class).size()).isEqualTo(19);
+
+                WikipediaMainPage mainPage = new WikipediaMainPage(driver);
+                new RegistrationPage(driver);
+                Assertions.assertThat(server.getCommandCount("POST element") + server.getCommandCount("POST elements"))
+                                .isZero();
+
+                mainPage.tapSearchBox();
+                Assertions.assertThat(server.getCommandCount("POST element") + server.getCommandCount("POST elements"))
+                                .isPositive();
+                Assertions.assertThat(server.getCurrentScreen(driver.getSessionId().toString())).isEqualTo("search");
+        }
+
+        @Test(description = "Navigation hands out the session's page instances instead of building new ones")
+        @Story("Reuse per session")
+        public void testPagesAreReusedPerSession() {
+                PageRegistry registry = PageRegistry.of(driver);
+                WikipediaMainPage mainPage = registry.get(WikipediaMainPage.class);
+                Assertions.assertThat(registry.get(WikipediaMainPage.class)).isSameAs(mainPage);
+
+                WikipediaSearchPage searchPage = mainPage.tapSearchBox();
+                Assertions.assertThat(searchPage).isSameAs(registry.get(WikipediaSearchPage.class));
+                searchPage.enterSearchTerm("Java programming");
+                WikipediaArticlePage articlePage = searchPage.clickFirstResult();
+                Assertions.assertThat(articlePage.isDisplayed()).isTrue();
+
+                // The reused search page looks its elements up again on the screen it returned to
+                WikipediaSearchPage back = articlePage.goBack();
+                Assertions.assertThat(back).isSameAs(searchPage);
+                Assertions.assertThat(back.getSearchResultsCount()).isGreaterThan(0);
+                Assertions.assertThat(registry.size()).isEqualTo(3);
+
+                AppiumDriver other = newDriver();
+                Assertions.assertThat(PageRegistry.of(other).get(WikipediaMainPage.class)).isNotSameAs(mainPage);
+                other.quit();
+                Assertions.assertThatThrownBy(() -> PageRegistry.of(other)).isInstanceOf(IllegalStateException.class);
+                Assertions.assertThat(PageRegistry.of(driver)).isSameAs(registry);
+        }
+}
@@ -0,0 +1,169 @@
+package com.example.tests;
+
+import com.example.config.DeviceSettings;
+import com.example.config.RunConfig;
+import com.example.driver.DeviceAllocator;
+
+import io.qameta.allure.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Properties;
+
+import org.assertj.core.api.Assertions;
+import org.testng.annotations.Test;
+
+@Epic("Test Framework")
+@Feature("Run Configuration")
+public class RunConfigTest {
+
+        @Test(description = "Without a profile the local one is used; -Dappium.server=stub selects the stub profile")
+        @Story("Profiles")
+        public void testProfileSelection() {
+                RunConfig local = RunConfig.load(new Properties());
+                Assertions.assertThat(local.getProfile()).isEqualTo("local");
+                Assertions.assertThat(local.getAppPackage()).isEqualTo("org.wikipedia");
+                Assertions.assertThat(local.getAppiumServer()).isEqualTo("http://127.0.0.1:4723");
+                Assertions.assertThat(local.getImplicitWait()).isEqualTo(Duration.ZERO);
+                Assertions.assertThat(local.deviceSettings(null).getPageWait()).isEqualTo(Duration.ofSeconds(15));
+
+                RunConfig stub = RunConfig.load(properties("appium.server", "stub"));
+                Assertions.assertThat(stub.getProfile()).isEqualTo("stub");
+                Assertions.assertThat(stub.isStub()).isTrue();
+                Assertions.assertThat(stub.deviceSettings(null).getFieldWait()).isEqualTo(Duration.ofSeconds(3));
+        }
+
+        @Test(description = "System properties win over the profile, which wins over the defaults")
+        @Story("Profiles")
+        public void testSystemPropertiesOverrideProfile() {
+                RunConfig config = RunConfig.load(properties(
+                                "profile", "farm",
+                                "appium.server", "http://farm.example:4444",
+                                "parallel.threadCount", "12",
+                                "waits.page", "1500ms",
+                                "java.vendor", "ignored"));
+
+                Assertions.assertThat(config.getAppiumServer()).isEqualTo("http://farm.example:4444");
+                Assertions.assertThat(config.getThreadCount()).isEqualTo(12);
+                Assertions.assertThat(config.getDataProviderThreadCount()).isEqualTo(8);
+                Assertions.assertThat(config.getPoolLeaseTimeout()).isEqualTo(Duration.ofMinutes(10));
+                Assertions.assertThat(config.getPoolMaxSessionsPerDevice()).isEqualTo(1);
+                Assertions.assertThat(config.deviceSettings(null).getPageWait()).isEqualTo(Duration.ofMillis(1500));
+                Assertions.assertThat(config.value("java.vendor")).isNull();
+        }
+
+        @Test(description = "A device class overrides only the settings it names and falls back to the run's values")
+        @Story("Device classes")
+        public void testDeviceClassOverrides() {
+                RunConfig config = RunConfig.load(properties(
+                                "profile", "farm",
+                                "appium.server", "http://farm.example:4444",
+                                "deviceClass.tablet.waits.field", "40s"));
+
+                DeviceSettings lowend = config.deviceSettings("lowend");
+                Assertions.assertThat(lowend.getPageWait()).isEqualTo(Duration.ofSeconds(30));
+                Assertions.assertThat(lowend.getNewCommandTimeout()).isEqualTo(Duration.ofSeconds(120));
+                DeviceSettings tablet = config.deviceSettings("tablet");
+                Assertions.assertThat(tablet.getFieldWait()).isEqualTo(Duration.ofSeconds(40));
+                Assertions.assertThat(tablet.getPageWait()).isEqualTo(Duration.ofSeconds(20));
+                Assertions.assertThat(config.deviceSettings("unknown").getDeviceClass())
+                                .isEqualTo(RunConfig.DEFAULT_DEVICE_CLASS);
+
+                List<DeviceAllocator.Device> devices =
+                                DeviceAllocator.fromSpec("emulator-5554@lowend,R58M:8210@tablet,emulator-5556").getDevices();
+                Assertions.assertThat(devices).extracting(DeviceAllocator.Device::getDeviceClass)
+                                .containsExactly("lowend", "tablet", null);
+                Assertions.assertThat(devices.get(1).getSystemPort()).isEqualTo(8210);
+                Assertions.assertThat(devices.get(1).getUdid()).isEqualTo("R58M");
+        }
+
+        @Test(description = "adb-over-TCP serials keep their port and devices without a port skip the ports already given")
+        @Story("Device list")
+        public void testDeviceSpecPorts() {
+                List<DeviceAllocator.Device> devices = DeviceAllocator
+                                .fromSpec("a:8201,b,192.168.1.5:5555@tablet,192.168.1.6:5555:8200,c").getDevices();
+
+                Assertions.assertThat(devices).extracting(DeviceAllocator.Device::getUdid)
+                                .containsExactly("a", "b", "192.168.1.5:5555", "192.168.1.6:5555", "c");
+                Assertions.assertThat(devices).extracting(DeviceAllocator.Device::getSystemPort)
+                                .containsExactly(8201, 8202, 8203, 8200, 8204);
+                Assertions.assertThat(devices.get(2).getDeviceClass()).isEqualTo("tablet");
+                Assertions.assertThatThrownBy(() -> DeviceAllocator.fromSpec("a:8201,b:8201"))
+                                .isInstanceOf(IllegalArgumentException.class)
+                                .hasMessageContaining("8201");
+        }
+
+        @Test(description = "A config file sits between the profile and system properties")
+        @Story("Profiles")
+        public void testConfigFile() throws IOException {
+                Path file = Files.createTempFile("run", ".properties");
+                Files.write(file, List.of("waits.uiIdle=700ms", "pool.maxSessionsPerDevice=2"), StandardCharsets.UTF_8);
+
+                RunConfig config = RunConfig.load(properties(
+                                "config.file", file.toString(),
+                                "pool.maxSessionsPerDevice", "3"));
+
+                Assertions.assertThat(config.deviceSettings(null).getUiIdleWait()).isEqualTo(Duration.ofMillis(700));
+                Assertions.assertThat(config.getPoolMaxSessionsPerDevice()).isEqualTo(3);
+                Assertions.assertThat(config.summary()).contains(file.toString(), "system properties");
+        }
+
+        @Test(description = "Invalid values fail at load time with the offending key")
+        @Story("Validation")
+        public void testInvalidValuesAreRejected() {
+                Assertions.assertThatThrownBy(() -> RunConfig.load(properties("waits.page", "15")))
+                                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("waits.page");
+                Assertions.assertThatThrownBy(() -> RunConfig.load(properties("parallel.threadCount", "0")))
+                                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("parallel.threadCount");
+                Assertions.assertThatThrownBy(() -> RunConfig.load(properties("profile", "farm")))
+                                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("appium.server");
+                Assertions.assertThatThrownBy(() -> RunConfig.load(properties("profile", "staging")))
+                                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("staging");
+                Assertions.assertThatThrownBy(() -> RunConfig.load(properties("deviceClass.tablet.pool.leaseTimeout", "1m")))
+                                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("deviceClass.tablet");
+                Assertions.assertThatThrownBy(() -> RunConfig.load(properties("search.measure", "yes")))
+                                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("search.measure");
+                Assertions.assertThatThrownBy(() -> RunConfig.load(properties("screenshots.format", "gif")))
+                                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("screenshots.format");
+                Assertions.assertThatThrownBy(() -> RunConfig.load(properties("search.shard", "2/2")))
+                                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("search.shard");
+        }
+
+        @Test(description = "Tuning knobs are typed settings of the run configuration")
+        @Story("Tuning knobs")
+        public void testTuningKnobs() {
+                RunConfig defaults = RunConfig.load(properties());
+                Assertions.assertThat(defaults.getStepRetryBudget()).isEqualTo(Duration.ofSeconds(10));
+                Assertions.assertThat(defaults.getSearchLimit()).isEqualTo(Integer.MAX_VALUE);
+                Assertions.assertThat(defaults.isSearchMeasure()).isFalse();
+                Assertions.assertThat(defaults.getArtifactFlushTimeout()).isEqualTo(Duration.ofMinutes(1));
+                Assertions.assertThat(defaults.getLogFlushTimeout()).isEqualTo(Duration.ofSeconds(5));
+
+                RunConfig config = RunConfig.load(properties(
+                                "steps.retry.maxAttempts", "5",
+                                "scroll.budget", "30s",
+                                "screenshots.format", "JPEG",
+                                "search.shard", "1/2",
+                                "search.limit", "500",
+                                "search.measure", "true"));
+                Assertions.assertThat(config.getStepRetryMaxAttempts()).isEqualTo(5);
+                Assertions.assertThat(config.getScrollBudget()).isEqualTo(Duration.ofSeconds(30));
+                Assertions.assertThat(config.getScreenshotFormat()).isEqualTo("jpeg");
+                Assertions.assertThat(config.getSearchShardIndex()).isEqualTo(1);
+                Assertions.assertThat(config.getSearchShardCount()).isEqualTo(2);
+                Assertions.assertThat(config.getSearchLimit()).isEqualTo(500);
+                Assertions.assertThat(config.isSearchMeasure()).isTrue();
+        }
+
+        private static Properties properties(String... keyValues) {
+                Properties properties = new Properties();
+                for (int i = 0; i < keyValues.length; i += 2) {
+                        properties.setProperty(keyValues[i], keyValues[i + 1]);
+                }
+                return properties;
+        }
+}
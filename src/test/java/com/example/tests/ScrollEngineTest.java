@@ -0,0 +1,61 @@
+package com.example.tests;
+
+import com.example.fixtures.AuthState;
+import com.example.fixtures.AuthStateFixture;
+import com.example.gestures.ScrollEngine;
+import com.example.gestures.ScrollStats;
+import com.example.pages.WikipediaMainPage;
+
+import io.appium.java_client.AppiumBy;
+import io.qameta.allure.*;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.assertj.core.api.Assertions;
+import org.openqa.selenium.WebElement;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@Epic("Test Framework")
+@Feature("Scroll Engine")
+public class ScrollEngineTest extends StubServerTest {
+
+        // The stub's settings list keeps "Log out" below the fold until the list is scrolled
+        @BeforeMethod
+        public void openSettings() {
+                new AuthStateFixture().require(driver, "stub-device", AuthState.loggedInAs("appiumdemo", "appium123"));
+                new WikipediaMainPage(driver).clickMoreTab().goToSettingsPage();
+        }
+
+        @Test(description = "An element below the fold is found after one scroll, searching the page source after each step")
+        @Story("Scroll search")
+        public void testScrollsUntilTargetIsVisible() {
+                ScrollStats stats = new ScrollStats();
+                ScrollEngine engine = new ScrollEngine(driver, stats, 5, Duration.ofSeconds(10));
+
+                Optional<WebElement> logout = engine.scrollTo("logout", AppiumBy.xpath("//*[@text='Log out']"));
+
+                Assertions.assertThat(logout).isPresent();
+                Assertions.assertThat(logout.get().getText()).isEqualTo("Log out");
+                Assertions.assertThat(stats.getHits("logout")).isEqualTo(1);
+                Assertions.assertThat(stats.getScrolls("logout")).isEqualTo(1);
+                Assertions.assertThat(server.getCommandCount("mobile: scrollGesture")).isEqualTo(1);
+        }
+
+        @Test(description = "A missing element stops at the end of the list instead of spending the whole budget")
+        @Story("End of list")
+        public void testStopsAtEndOfList() {
+                ScrollStats stats = new ScrollStats();
+                ScrollEngine engine = new ScrollEngine(driver, stats, 10, Duration.ofSeconds(10));
+
+                Optional<WebElement> missing = engine.scrollTo("missing", AppiumBy.xpath("//*[@text='No such row']"));
+
+                Assertions.assertThat(missing).isEmpty();
+                Assertions.assertThat(stats.getHits("missing")).isZero();
+                Assertions.assertThat(server.getCommandCount("mobile: scrollGesture"))
+                                .as("the driver reports the end of the list on the first gesture")
+                                .isEqualTo(1);
+                Assertions.assertThat(stats.summary()).contains("endOfList=1").contains("budgetExhausted=0");
+        }
+}
@@ -0,0 +1,50 @@
+package com.example.tests;
+
+import com.example.config.RunConfig;
+import com.example.metrics.SearchLatency;
+import com.example.pages.WikipediaMainPage;
+import com.example.pages.WikipediaSearchPage;
+
+import io.qameta.allure.*;
+
+import org.assertj.core.api.Assertions;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@Epic("Test Framework")
+@Feature("Search Latency")
+public class SearchLatencyTest extends StubServerTest {
+
+        @BeforeMethod
+        public void enableMeasurement() {
+                SearchLatency.setEnabled(true);
+        }
+
+        @AfterMethod(alwaysRun = true)
+        public void restoreMeasurement() {
+                SearchLatency.setEnabled(RunConfig.get().isSearchMeasure());
+        }
+
+        @Test(description = "Measurement mode records every phase of a search once per query")
+        @Story("Measurement mode")
+        public void testSearchPhasesAreRecordedPerQuery() {
+                SearchLatency latency = SearchLatency.global();
+                String query = "Photosynthesis";
+                long recordedBefore = latency.getByQuery().count(query + " | " + SearchLatency.STABLE_RESULTS);
+
+                for (int run = 0; run < 2; run++) {
+                        WikipediaSearchPage searchPage = new WikipediaMainPage(driver).tapSearchBox();
+                        searchPage.enterSearchTerm(query).clickFirstResult().goBack();
+                        driver.navigate().back();
+                }
+
+                for (String phase : new String[]{SearchLatency.KEYSTROKES, SearchLatency.FIRST_RESULT,
+                                SearchLatency.STABLE_RESULTS, SearchLatency.ARTICLE_LOAD}) {
+                        Assertions.assertThat(latency.getByQuery().count(query + " | " + phase))
+                                        .as(phase)
+                                        .isEqualTo(recordedBefore + 2);
+                }
+                Assertions.assertThat(latency.format()).contains(query + " | " + SearchLatency.ARTICLE_LOAD);
+        }
+}
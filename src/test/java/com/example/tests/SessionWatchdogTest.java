@@ -0,0 +1,120 @@
+package com.example.tests;
+
+import com.example.driver.SessionDeadException;
+import com.example.driver.SessionWatchdog;
+import com.example.driver.TimedCommandExecutor;
+import com.example.metrics.CommandLatency;
+import com.example.retry.FailureClass;
+import com.example.waits.WaitEngine;
+
+import io.appium.java_client.AppiumDriver;
+import io.qameta.allure.*;
+
+import java.time.Duration;
+
+import org.assertj.core.api.Assertions;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriverException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+@Epic("Test Framework")
+@Feature("Session Watchdog")
+public class SessionWatchdogTest extends StubServerTest {
+
+        private SessionWatchdog watchdog;
+
+        @Override
+        protected AppiumDriver openDriver() {
+                // Each test opens its session once its watchdog exists
+                return null;
+        }
+
+        @AfterMethod(alwaysRun = true)
+        public void shutdownWatchdog() {
+                if (watchdog != null) {
+                        watchdog.shutdown();
+                }
+        }
+
+        @Test(description = "After the instrumentation crashed, waits abort at once instead of running out their timeout")
+        @Story("Crashed instrumentation")
+        public void testCrashedSessionFailsFast() {
+                watchdog = new SessionWatchdog(Duration.ZERO, Duration.ofSeconds(1), 3);
+                driver = watchedDriver();
+                server.crashInstrumentation(driver.getSessionId().toString());
+
+                Assertions.assertThatThrownBy(driver::getPageSource).isInstanceOf(WebDriverException.class)
+                                .hasMessageContaining("instrumentation process is not running");
+                Assertions.assertThat(watchdog.isDead(driver.getSessionId())).isTrue();
+
+                long start = System.currentTimeMillis();
+                WaitEngine waits = new WaitEngine(driver, Duration.ofSeconds(15));
+                Assertions.assertThatThrownBy(() -> waits.until("search results",
+                                () -> driver.findElements(By.id("org.wikipedia:id/page_list_item_title")).isEmpty() ? null : true))
+                                .isInstanceOf(SessionDeadException.class)
+                                .satisfies(e -> Assertions.assertThat(FailureClass.of(e)).isEqualTo(FailureClass.SESSION_DEAD));
+                Assertions.assertThat(System.currentTimeMillis() - start).isLessThan(1000);
+                Assertions.assertThat(server.getCommandCount("POST elements"))
+                                .as("commands on a dead session never reach the server")
+                                .isZero();
+                Assertions.assertThat(watchdog.getRefusedCommands()).isEqualTo(1);
+                driver.quit();
+        }
+
+        @Test(description = "A session that stopped answering is marked dead by the background pings")
+        @Story("Hung device")
+        public void testHungSessionIsMarkedDead() throws InterruptedException {
+                watchdog = new SessionWatchdog(Duration.ofMillis(100), Duration.ofMillis(200), 2);
+                driver = watchedDriver();
+                server.setHung(true);
+
+                long deadline = System.currentTimeMillis() + 5000;
+                while (!watchdog.isDead(driver.getSessionId()) && System.currentTimeMillis() < deadline) {
+                        Thread.sleep(50);
+                }
+                Assertions.assertThat(watchdog.isDead(driver.getSessionId())).isTrue();
+
+                server.setHung(false);
+                long before = server.getCommandCount("GET source");
+                Assertions.assertThatThrownBy(driver::getPageSource).isInstanceOf(SessionDeadException.class)
+                                .hasMessageContaining("no answer within 200 ms");
+                Assertions.assertThat(server.getCommandCount("GET source")).isEqualTo(before);
+                driver.quit();
+        }
+
+        @Test(description = "A command slower than the pings' patience does not get its session marked dead")
+        @Story("Slow command")
+        public void testSlowCommandDoesNotKillSession() {
+                watchdog = new SessionWatchdog(Duration.ofMillis(100), Duration.ofMillis(200), 2);
+                driver = watchedDriver();
+                // Pings would time out 2 times in a row well within this
+                server.setCommandDelay("GET source", Duration.ofMillis(1500));
+
+                Assertions.assertThat(driver.getPageSource()).isNotEmpty();
+
+                Assertions.assertThat(watchdog.isDead(driver.getSessionId())).isFalse();
+                Assertions.assertThat(driver.getPageSource()).isNotEmpty();
+                driver.quit();
+        }
+
+        @Test(description = "Pings keep an idle healthy session alive and commands go through")
+        @Story("Healthy session")
+        public void testIdleSessionStaysAlive() throws InterruptedException {
+                watchdog = new SessionWatchdog(Duration.ofMillis(100), Duration.ofMillis(500), 2);
+                driver = watchedDriver();
+
+                Thread.sleep(600);
+
+                Assertions.assertThat(watchdog.isDead(driver.getSessionId())).isFalse();
+                Assertions.assertThat(server.getCommandCount("status")).isPositive();
+                Assertions.assertThat(server.getCommandCount("GET window/rect")).isPositive();
+                Assertions.assertThat(driver.getPageSource()).isNotEmpty();
+                driver.quit();
+                Assertions.assertThat(watchdog.toString()).startsWith("watched=0,");
+        }
+
+        private AppiumDriver watchedDriver() {
+                return newDriver(new TimedCommandExecutor(server.getUrl(), new CommandLatency(), watchdog));
+        }
+}
@@ -0,0 +1,120 @@
+package com.example.tests;
+
+import com.example.history.TestHistory;
+import com.example.retry.FailureClass;
+import com.example.retry.StepRetry;
+import com.example.retry.StepRetryStats;
+
+import io.qameta.allure.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.assertj.core.api.Assertions;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.testng.annotations.Test;
+
+@Epic("Test Framework")
+@Feature("Step Retry")
+public class StepRetryTest {
+
+        @Test(description = "A step that goes stale is repeated until it passes")
+        @Story("Transient failures")
+        public void testStaleStepIsRetried() {
+                FlakySteps steps = new FlakySteps();
+                int historyRuns = historyRuns("FlakySteps.staleTwice");
+
+                Assertions.assertThat(steps.staleTwice()).isEqualTo("done");
+                Assertions.assertThat(steps.calls.get()).isEqualTo(3);
+                Assertions.assertThat(StepRetryStats.global().getRecovered("FlakySteps.staleTwice")).isEqualTo(1);
+                Assertions.assertThat(StepRetryStats.global().getRetries("FlakySteps.staleTwice")).isEqualTo(2);
+                Assertions.assertThat(historyRuns("FlakySteps.staleTwice"))
+                                .as("only page-object steps go to the test history")
+                                .isEqualTo(historyRuns);
+        }
+
+        @Test(description = "Failed assertions and dead sessions are not retried")
+        @Story("Failure classification")
+        public void testPermanentFailuresAreNotRetried() {
+                FlakySteps steps = new FlakySteps();
+
+                Assertions.assertThatThrownBy(steps::failAssertion).isInstanceOf(AssertionError.class);
+                Assertions.assertThat(steps.calls.get()).isEqualTo(1);
+
+                Assertions.assertThatThrownBy(steps::loseSession).hasCauseInstanceOf(NoSuchSessionException.class);
+                Assertions.assertThat(steps.calls.get()).isEqualTo(2);
+                Assertions.assertThat(FailureClass.of(new RuntimeException(new NoSuchSessionException("gone"))))
+                                .isEqualTo(FailureClass.SESSION_DEAD);
+        }
+
+        @Test(description = "A transient failure is retried only within the attempt limit and the time budget")
+        @Story("Budget")
+        public void testRetriesAreBounded() {
+                FlakySteps steps = new FlakySteps();
+                Assertions.assertThatThrownBy(steps::neverFound).isInstanceOf(NoSuchElementException.class);
+                Assertions.assertThat(steps.calls.get()).isEqualTo(3);
+
+                FlakySteps budgeted = new FlakySteps();
+                Assertions.assertThatThrownBy(budgeted::neverFoundWithinBudget).isInstanceOf(NoSuchElementException.class);
+                Assertions.assertThat(budgeted.calls.get())
+                                .as("the second attempt already ends past the 400 ms budget")
+                                .isEqualTo(2);
+        }
+
+        @Test(description = "Only the innermost failing step retries; the steps around it do not replay it")
+        @Story("Nested steps")
+        public void testNestedStepsRetryOnce() {
+                FlakySteps steps = new FlakySteps();
+
+                Assertions.assertThatThrownBy(steps::outer).isInstanceOf(NoSuchElementException.class);
+                Assertions.assertThat(steps.calls.get()).isEqualTo(3);
+                Assertions.assertThat(StepRetryStats.global().getRetries("FlakySteps.outer")).isZero();
+        }
+
+        private static int historyRuns(String step) {
+                TestHistory.Stats stats = TestHistory.global().get(TestHistory.Kind.STEP, step);
+                return stats == null ? 0 : stats.getRuns();
+        }
+
+        static class FlakySteps {
+                final AtomicInteger calls = new AtomicInteger();
+
+                @StepRetry
+                String staleTwice() {
+                        if (calls.incrementAndGet() < 3) {
+                                throw new StaleElementReferenceException("stale");
+                        }
+                        return "done";
+                }
+
+                @StepRetry
+                void failAssertion() {
+                        calls.incrementAndGet();
+                        Assertions.assertThat(1).isEqualTo(2);
+                }
+
+                @StepRetry
+                void loseSession() {
+                        calls.incrementAndGet();
+                        throw new RuntimeException("Could not click", new NoSuchSessionException("session deleted"));
+                }
+
+                @StepRetry(maxAttempts = 3)
+                void neverFound() {
+                        calls.incrementAndGet();
+                        throw new NoSuchElementException("missing");
+                }
+
+                @StepRetry(maxAttempts = 10, budgetMillis = 400)
+                void neverFoundWithinBudget() {
+                        calls.incrementAndGet();
+                        throw new NoSuchElementException("missing");
+                }
+
+                @StepRetry(maxAttempts = 3)
+                void outer() {
+                        neverFound();
+                }
+        }
+}
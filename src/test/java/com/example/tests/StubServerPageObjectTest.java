@@ -0,0 +1,66 @@
+package com.example.tests;
+
+import com.example.pages.RegistrationPage;
+import com.example.pages.WikipediaArticlePage;
+import com.example.pages.WikipediaMainPage;
+import com.example.pages.WikipediaSearchPage;
+
+import io.appium.java_client.AppiumBy;
+import io.qameta.allure.*;
+
+import org.assertj.core.api.Assertions;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebElement;
+import org.testng.annotations.Test;
+
+@Epic("Test Framework")
+@Feature("Stub WebDriver Server")
+public class StubServerPageObjectTest extends StubServerTest {
+
+        @Test(description = "Search flow runs through the page objects against recorded hierarchies")
+        @Story("Search")
+        public void testSearchFlow() {
+                WikipediaMainPage mainPage = new WikipediaMainPage(driver);
+                Assertions.assertThat(mainPage.isDisplayed()).isTrue();
+
+                WikipediaSearchPage searchPage = mainPage.tapSearchBox();
+                Assertions.assertThat(searchPage.isDisplayed()).isTrue();
+                searchPage.enterSearchTerm("Java programming");
+                Assertions.assertThat(searchPage.getSearchResultsCount()).isGreaterThan(0);
+
+                WikipediaArticlePage articlePage = searchPage.clickFirstResult();
+                Assertions.assertThat(articlePage.isDisplayed()).isTrue();
+                Assertions.assertThat(articlePage.getArticleTitle()).isEqualTo("Java (programming language)");
+                Assertions.assertThat(server.getCurrentScreen(driver.getSessionId().toString())).isEqualTo("article");
+
+                articlePage.goBack();
+                Assertions.assertThat(server.getCurrentScreen(driver.getSessionId().toString())).isEqualTo("search");
+        }
+
+        @Test(description = "Registration form shows the recorded validation messages")
+        @Story("Registration")
+        public void testRegistrationValidation() {
+                new WikipediaMainPage(driver).clickMoreTab().clickAccountContainer();
+                RegistrationPage registrationPage = new RegistrationPage(driver);
+                Assertions.assertThat(registrationPage.isDisplayed()).isTrue();
+
+                registrationPage.enterUsernameAndExpectError("testuser",
+                                "The user name \"testuser\" is not available. Please choose a different name.")
+                                .enterPassword("short")
+                                .enterConfirmPassword("short")
+                                .submitRegistrationFormAndExpectError("The password must be at least 8 characters");
+        }
+
+        @Test(description = "Elements of a screen that was navigated away from are reported stale")
+        @Story("Element references")
+        public void testElementGoesStaleAfterNavigation() {
+                WebElement searchContainer = driver.findElement(AppiumBy.id("org.wikipedia:id/search_container"));
+                searchContainer.click();
+
+                Assertions.assertThatThrownBy(searchContainer::isDisplayed)
+                                .isInstanceOf(StaleElementReferenceException.class);
+                Assertions.assertThat(driver.findElement(AppiumBy.androidUIAutomator(
+                                "new UiSelector().resourceId(\"org.wikipedia:id/search_src_text\")")).getText())
+                                .isEqualTo("Search Wikipedia");
+        }
+}
@@ -0,0 +1,83 @@
+package com.example.tests;
+
+import com.example.stub.StubWebDriverServer;
+
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.android.AndroidDriver;
+import io.appium.java_client.android.options.UiAutomator2Options;
+
+import java.net.URL;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openqa.selenium.remote.HttpCommandExecutor;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+
+/**
+ * Base of the framework tests that run against the embedded stub server
+ * Every test method gets a fresh server and, unless {@link #openDriver()} says otherwise, a session on it;
+ * both are closed after the method, together with the servers started through {@link #startServer()}.
+ */
+public abstract class StubServerTest {
+
+        protected StubWebDriverServer server;
+        protected AppiumDriver driver;
+        private final List<StubWebDriverServer> servers = new ArrayList<>();
+
+        @BeforeMethod
+        public void startStubServer() {
+                server = startServer();
+                driver = openDriver();
+        }
+
+        @AfterMethod(alwaysRun = true)
+        public void stopStubServer() {
+                if (driver != null) {
+                        driver.quit();
+                        driver = null;
+                }
+                servers.forEach(StubWebDriverServer::close);
+                servers.clear();
+        }
+
+        // Session the test method starts with; null for tests that open their own
+        protected AppiumDriver openDriver() {
+                return newDriver();
+        }
+
+        // One more server, closed after the test method
+        protected StubWebDriverServer startServer() {
+                StubWebDriverServer started = new StubWebDriverServer().start();
+                servers.add(started);
+                return started;
+        }
+
+        // Another session on the server; the caller quits it
+        protected AppiumDriver newDriver() {
+                return newDriver(server.getUrl(), options());
+        }
+
+        protected static AppiumDriver newDriver(URL url, UiAutomator2Options options) {
+                return withoutImplicitWait(new AndroidDriver(url, options));
+        }
+
+        // Session through a custom executor, e.g. a TimedCommandExecutor with its own latency table
+        protected static AppiumDriver newDriver(HttpCommandExecutor executor) {
+                return withoutImplicitWait(new AndroidDriver(executor, options()));
+        }
+
+        protected static UiAutomator2Options options() {
+                UiAutomator2Options options = new UiAutomator2Options();
+                options.setPlatformName("Android");
+                options.setAppPackage("org.wikipedia");
+                options.setAppActivity("org.wikipedia.main.MainActivity");
+                return options;
+        }
+
+        private static AppiumDriver withoutImplicitWait(AppiumDriver created) {
+                created.manage().timeouts().implicitlyWait(Duration.ZERO);
+                return created;
+        }
+}
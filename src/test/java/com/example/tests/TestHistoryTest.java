@@ -0,0 +1,112 @@
+package com.example.tests;
+
+import com.example.driver.DurationHistory;
+import com.example.history.HistoryOrderInterceptor;
+import com.example.history.TestHistory;
+
+import io.qameta.allure.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.assertj.core.api.Assertions;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@Epic("Test Framework")
+@Feature("Test History")
+public class TestHistoryTest {
+
+        private Path file;
+
+        @BeforeMethod
+        public void createHistoryFile() throws IOException {
+                file = Files.createTempDirectory("history").resolve("durations.tsv");
+        }
+
+        @Test(description = "Durations and outcomes of a run are read back by the next one")
+        @Story("Persistence")
+        public void testHistorySurvivesRuns() throws IOException {
+                TestHistory first = new TestHistory(file, 1000, Duration.ofDays(90));
+                first.recordTest("Search.slow", 10_000, true);
+                first.recordTest("Search.fast", 1_000, false);
+                first.recordStep("SearchPage.search", 400, true);
+                first.flush();
+
+                TestHistory second = new TestHistory(file, 1000, Duration.ofDays(90));
+                Assertions.assertThat(second.getRawLines()).isEqualTo(3);
+                Assertions.assertThat(second.get(TestHistory.Kind.TEST, "Search.slow").getMeanMillis()).isEqualTo(10_000);
+                Assertions.assertThat(second.get(TestHistory.Kind.TEST, "Search.fast").getFailureRate()).isEqualTo(1.0);
+                Assertions.assertThat(second.get(TestHistory.Kind.STEP, "SearchPage.search").getRuns()).isEqualTo(1);
+                Assertions.assertThat(second.get(TestHistory.Kind.TEST, "SearchPage.search")).isNull();
+
+                second.recordTest("Search.slow", 20_000, true);
+                Assertions.assertThat(second.get(TestHistory.Kind.TEST, "Search.slow").getMeanMillis()).isEqualTo(13_000);
+
+                DurationHistory durations = new DurationHistory(30_000);
+                second.seed(durations);
+                Assertions.assertThat(durations.expectedMillis("Search.slow")).isEqualTo(13_000);
+                Assertions.assertThat(durations.runs("Search.slow")).isEqualTo(2);
+        }
+
+        @Test(description = "The file is compacted to one line per name and expired names are dropped")
+        @Story("Compaction")
+        public void testCompactionKeepsTheFileSmall() throws IOException {
+                long longAgo = System.currentTimeMillis() - Duration.ofDays(200).toMillis();
+                Files.write(file, List.of("A\tTEST\tRemoved.test\t500.0\t4\t0.0\t" + longAgo), StandardCharsets.UTF_8);
+                for (int run = 0; run < 20; run++) {
+                        TestHistory history = new TestHistory(file, 50, Duration.ofDays(90));
+                        for (int test = 0; test < 5; test++) {
+                                history.recordTest("Suite.test" + test, 1000 + test * 100 + run, run % 4 != 0);
+                        }
+                        history.flush();
+                        Assertions.assertThat(history.getRawLines()).isLessThanOrEqualTo(50);
+                }
+
+                TestHistory history = new TestHistory(file, 50, Duration.ofDays(90));
+                Assertions.assertThat(Files.readAllLines(file, StandardCharsets.UTF_8).size()).isLessThanOrEqualTo(5 + 50);
+                Assertions.assertThat(history.get(TestHistory.Kind.TEST, "Removed.test")).isNull();
+                TestHistory.Stats stats = history.get(TestHistory.Kind.TEST, "Suite.test4");
+                Assertions.assertThat(stats.getRuns()).isEqualTo(20);
+                Assertions.assertThat(stats.getMeanMillis()).isBetween(1400.0, 1420.0);
+                Assertions.assertThat(stats.getFailureRate()).isBetween(0.0, 1.0);
+                Assertions.assertThat(history.all(TestHistory.Kind.TEST)).hasSize(5);
+        }
+
+        @Test(description = "Failing tests run first, then the rest longest first; shards get equal expected time")
+        @Story("Ordering")
+        public void testOrderAndShard() throws IOException {
+                TestHistory history = new TestHistory(file, 1000, Duration.ofDays(90));
+                history.recordTest("A.long", 40_000, true);
+                history.recordTest("A.medium", 20_000, true);
+                history.recordTest("A.short", 5_000, true);
+                history.recordTest("A.flaky", 1_000, false);
+                history.recordTest("A.tiny", 1_000, true);
+                Map<String, Integer> priorities = Map.of("A.long", 3, "A.medium", 2, "A.short", 1, "A.flaky", 0,
+                                "A.tiny", 0, "A.new", 0);
+                List<String> tests = new ArrayList<>(priorities.keySet());
+                tests.sort(null);
+
+                List<String> ordered = HistoryOrderInterceptor.order(tests, Function.identity(), priorities::get,
+                                history, 0.1);
+
+                // A.new has no history and counts as an average test (13.4 s)
+                Assertions.assertThat(ordered)
+                                .containsExactly("A.flaky", "A.long", "A.medium", "A.new", "A.short", "A.tiny");
+
+                List<String> shard0 = HistoryOrderInterceptor.shard(ordered, Function.identity(), history, 0, 2);
+                List<String> shard1 = HistoryOrderInterceptor.shard(ordered, Function.identity(), history, 1, 2);
+                // 40.4 s against 40 s
+                Assertions.assertThat(shard0).containsExactly("A.flaky", "A.medium", "A.new", "A.short", "A.tiny");
+                Assertions.assertThat(shard1).containsExactly("A.long");
+                Assertions.assertThat(HistoryOrderInterceptor.shard(ordered, Function.identity(), history, 0, 1))
+                                .isEqualTo(ordered);
+        }
+}
@@ -0,0 +1,85 @@
+package com.example.tests;
+
+import com.example.base.BaseTest;
+import com.example.config.RunConfig;
+import com.example.data.SearchCase;
+import com.example.data.SearchDataset;
+import com.example.data.SearchFeed;
+import com.example.metrics.SearchMatrixReport;
+import com.example.pages.WikipediaArticlePage;
+import com.example.pages.WikipediaMainPage;
+import com.example.pages.WikipediaSearchPage;
+
+import io.qameta.allure.*;
+
+import java.util.Iterator;
+import java.util.stream.IntStream;
+
+import org.apache.logging.log4j.ThreadContext;
+import org.assertj.core.api.Assertions;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+@Epic("Wikipedia Mobile App")
+@Feature("Search Matrix")
+public class WikipediaSearchMatrixTest extends BaseTest {
+
+        private static SearchFeed feed;
+
+        // TestNG reads a data provider to the end before its workers start, so it only hands out one slot per row;
+        // a worker takes the row itself from the feed once it holds a device, and rows spread over the devices
+        @DataProvider(name = "searchCases", parallel = true)
+        public static Iterator<Object[]> searchCases() {
+                SearchDataset dataset = SearchDataset.fromConfig(RunConfig.get());
+                feed = dataset.feed(2 * RunConfig.get().getDataProviderThreadCount());
+                return IntStream.rangeClosed(1, dataset.size()).mapToObj(slot -> new Object[]{slot}).iterator();
+        }
+
+        @AfterClass(alwaysRun = true)
+        public static void closeFeed() {
+                if (feed != null) {
+                        feed.close();
+                }
+        }
+
+        @Test(dataProvider = "searchCases", description = "Searching a term opens the expected article from the first result")
+        @Story("Search Functionality")
+        @Severity(SeverityLevel.NORMAL)
+        @Description("Runs every (term, expected title) pair of the search dataset and records search and article latency per term")
+        public void testSearchOpensExpectedArticle(int slot) {
+                SearchCase searchCase = feed.next();
+                if (searchCase == null) {
+                        throw new SkipException("Search dataset ended before slot " + slot);
+                }
+                Allure.parameter("term", searchCase.getTerm());
+                long searchToResults = -1;
+                long resultsToArticle = -1;
+                boolean passed = false;
+                try {
+                        WikipediaSearchPage searchPage = page(WikipediaMainPage.class).tapSearchBox();
+
+                        long start = System.nanoTime();
+                        searchPage.enterSearchTerm(searchCase.getTerm());
+                        Assertions.assertThat(searchPage.areSearchResultsDisplayed())
+                                        .as("Search results should be displayed for: " + searchCase.getTerm())
+                                        .isTrue();
+                        long resultsShown = System.nanoTime();
+                        searchToResults = (resultsShown - start) / 1000;
+
+                        WikipediaArticlePage articlePage = searchPage.clickFirstResult();
+                        boolean titled = articlePage.hasTitle(searchCase.getExpectedTitle(), deviceSettings().getPageWait());
+                        resultsToArticle = (System.nanoTime() - resultsShown) / 1000;
+                        Assertions.assertThat(titled)
+                                        .as("First result for '" + searchCase.getTerm() + "' should open "
+                                                        + searchCase.getExpectedTitle() + " but opened " + articlePage.getArticleTitle())
+                                        .isTrue();
+                        passed = true;
+                } finally {
+                        SearchMatrixReport.global().record(searchCase.getRow(), searchCase.getTerm(),
+                                        searchCase.getExpectedTitle(), passed, searchToResults, resultsToArticle,
+                                        ThreadContext.get("device"));
+                }
+        }
+}
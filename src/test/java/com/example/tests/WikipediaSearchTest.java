@@ -1,6 +1,7 @@
 package com.example.tests;
 
 import com.example.base.BaseTest;
+import com.example.fixtures.AuthState;
 import com.example.pages.WikipediaMainPage;
 import com.example.pages.WikipediaSearchPage;
 import com.example.pages.RegistrationPage;
@@ -9,8 +10,6 @@ import com.example.utils.AllureUtils;
 
 import io.qameta.allure.*;
 
-import java.time.Duration;
-
 import org.assertj.core.api.Assertions;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.ExpectedConditions;
@@ -28,9 +27,7 @@ public class WikipediaSearchTest extends BaseTest {
         @Issue("WIKI-001")
         public void testSearchJavaProgramming() {
                 AllureUtils.addInfoStep("Starting Java programming search test");
-                WikipediaMainPage mainPage = new WikipediaMainPage(driver);
-                mainPage.closeAlertIfPresent()
-                                .skipOnboardingIfPresent();
+                WikipediaMainPage mainPage = page(WikipediaMainPage.class);
                 Assertions.assertThat(mainPage.isDisplayed())
                                 .as("Wikipedia main page should be displayed")
                                 .isTrue();
@@ -66,19 +63,13 @@ public class WikipediaSearchTest extends BaseTest {
         @Issue("WIKI-002")
         public void TestLoginLogout() {
                 AllureUtils.addInfoStep("Starting login/logout test");
-                WikipediaMainPage mainPage = new WikipediaMainPage(driver);
-
-                mainPage.closeAlertIfPresent()
-                                .skipOnboardingIfPresent();
+                WikipediaMainPage mainPage = page(WikipediaMainPage.class);
 
                 Assertions.assertThat(mainPage.isDisplayed())
                                 .as("Wikipedia main page should be displayed")
                                 .isTrue();
 
-                boolean isLoggedIn = mainPage.checkContributionsContainerIsDisplayed();
-                if (isLoggedIn) {
-                        mainPage.logoutIfLoggedIn();
-                }
+                requireAuthState(AuthState.loggedOut());
 
                 mainPage.clickMoreTab()
                                 .clickAccountContainer()
@@ -94,11 +85,7 @@ public class WikipediaSearchTest extends BaseTest {
                                 .goToSettingsPage();
                 mainPage.closeAlertIfPresent();
 
-                // TODO: ეს სქროლი და ლოგაუთზე კლიკმა გამაწამა ვერ გავიგე რა უნდა ხან მუშაობს
-                // ხან არა, საიდან როგორ არ მივუდექი არ შვება
-                // უფრო მეტი დრო დამჭირდება ქასთუმ მეთოდების შესაქმნელად
-
-                WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
+                WebDriverWait wait = new WebDriverWait(getDriver(), deviceSettings().getPageWait());
                 WebElement logoutBtn = mainPage.scrollToText("Log out");
                 wait.until(ExpectedConditions.elementToBeClickable(logoutBtn)).click();
                 mainPage.clickOkButtonIfPresent();
@@ -117,24 +104,17 @@ public class WikipediaSearchTest extends BaseTest {
         @Issue("WIKI-003")
         public void TestRegistrationFormValidation() {
                 AllureUtils.addInfoStep("Starting registration test");
-                WikipediaMainPage mainPage = new WikipediaMainPage(driver);
-                RegistrationPage registrationPage = new RegistrationPage(driver);
-
-                mainPage.closeAlertIfPresent()
-                                .skipOnboardingIfPresent();
+                WikipediaMainPage mainPage = page(WikipediaMainPage.class);
 
                 Assertions.assertThat(mainPage.isDisplayed())
                                 .as("Wikipedia main page should be displayed")
                                 .isTrue();
 
-                boolean isLoggedIn = mainPage.checkContributionsContainerIsDisplayed();
-                if (isLoggedIn) {
-                        mainPage.logoutIfLoggedIn();
-                }
+                requireAuthState(AuthState.loggedOut());
                 mainPage.clickMoreTab()
                                 .clickAccountContainer();
 
-                registrationPage.enterUsernameAndExpectError("testuser",
+                page(RegistrationPage.class).enterUsernameAndExpectError("testuser",
                                 "The user name \"testuser\" is not available. Please choose a different name.")
 
                                 .enterPassword("short")
@@ -1,11 +1,13 @@
 package com.example.utils;
 
+import io.qameta.allure.Allure;
 import io.qameta.allure.Attachment;
 import io.qameta.allure.Step;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 
@@ -27,13 +29,21 @@ public class AllureUtils {
         return text;
     }
     
-    @Attachment(value = "Log File", type = "text/plain")
-    public static byte[] attachLogFile(String filePath) {
-        try {
-            return Files.readAllBytes(Paths.get(filePath));
+    // Streamed into the results directory, the log is never held in memory as a whole
+    public static void attachLogFile(String filePath) {
+        try (InputStream content = Files.newInputStream(Paths.get(filePath))) {
+            Allure.getLifecycle().addAttachment("Log File", "text/plain", ".log", content);
         } catch (IOException e) {
             logger.error("Failed to attach log file: " + filePath, e);
-            return new byte[0];
+        }
+    }
+    
+    // Only the test's own lines, streamed from the shared log file
+    public static void attachLogWindow(String name, LogWindow window) {
+        try (InputStream content = window.open()) {
+            Allure.getLifecycle().addAttachment(name, "text/plain", ".log", content);
+        } catch (IOException e) {
+            logger.error("Failed to attach log window of " + window.getFile(), e);
         }
     }
     
@@ -0,0 +1,270 @@
+package com.example.utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The part of a shared log file written while one test ran on one thread
+ * The file offset is recorded when the test starts; the slice up to the current end of the file is read back
+ * as a stream and only the records logged by the test's thread (plus their stack-trace continuation lines) are kept,
+ * so memory use does not depend on the size of the log
+ * Expects the file layout of log4j2.xml: "yyyy-MM-dd HH:mm:ss.SSS [thread] ..."
+ * Loggers are asynchronous, so {@link #finish(Duration)} logs an end marker and waits for it to reach the file
+ */
+public class LogWindow {
+
+    public static final Path EXECUTION_LOG = Paths.get("target", "logs", "test-execution.log");
+    // Written by the PerTestRouting appender
+    public static final Path TEST_LOG_DIR = Paths.get("target", "logs", "tests");
+
+    private static final Logger logger = LogManager.getLogger(LogWindow.class);
+    private static final int TIMESTAMP_LENGTH = "yyyy-MM-dd HH:mm:ss.SSS".length();
+    private static final AtomicLong windowIds = new AtomicLong();
+
+    private final Path file;
+    private final long start;
+    private final String threadName;
+    private long end = -1;
+
+    private LogWindow(Path file, long start, String threadName) {
+        this.file = file;
+        this.start = start;
+        this.threadName = threadName;
+    }
+
+    /**
+     * Remember the current end of the log file for the calling thread
+     */
+    public static LogWindow mark(Path file) {
+        long size = 0;
+        try {
+            size = Files.exists(file) ? Files.size(file) : 0;
+        } catch (IOException e) {
+            // Read from the start of the file instead
+        }
+        return new LogWindow(file, size, Thread.currentThread().getName());
+    }
+
+    /**
+     * Log file the PerTestRouting appender writes for the given ThreadContext "test" value
+     */
+    public static Path testLog(String testName) {
+        return TEST_LOG_DIR.resolve(testName + ".log");
+    }
+
+    /**
+     * Close the window: log an end marker on this thread and wait until the async appender has written it
+     * Returns false if the marker did not show up in time, in which case the window ends at the current file size
+     */
+    public boolean finish(Duration timeout) throws IOException, InterruptedException {
+        String marker = "End of test log (window " + windowIds.incrementAndGet() + ")";
+        logger.info(marker);
+        byte[] needle = marker.getBytes(StandardCharsets.UTF_8);
+        long deadline = System.nanoTime() + timeout.toNanos();
+        long scanned = start;
+        while (true) {
+            if (Files.exists(file)) {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    long found = indexOf(channel, needle, scanned);
+                    if (found >= 0) {
+                        end = found + needle.length;
+                        return true;
+                    }
+                    // Rescan the tail in case the marker was only partly written
+                    scanned = Math.max(start, channel.size() - needle.length);
+                }
+            }
+            if (System.nanoTime() > deadline) {
+                end = Files.exists(file) ? Files.size(file) : start;
+                return false;
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * Stream this thread's log lines written since {@link #mark(Path)}; the caller closes it
+     */
+    public InputStream open() throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long limit = end >= 0 ? Math.min(end, channel.size()) : channel.size();
+            // A truncated or recreated file is read from the beginning
+            channel.position(start <= limit ? start : 0);
+            InputStream slice = new BoundedInputStream(Channels.newInputStream(channel), limit - channel.position());
+            return new ThreadLinesInputStream(
+                    new BufferedReader(new InputStreamReader(slice, StandardCharsets.UTF_8)), threadName);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Absolute offset of the first occurrence of needle at or after from, read in fixed-size chunks
+    private static long indexOf(FileChannel channel, byte[] needle, long from) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Math.max(64 * 1024, needle.length * 2));
+        long position = from;
+        while (position < channel.size()) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                return -1;
+            }
+            byte[] chunk = buffer.array();
+            for (int i = 0; i + needle.length <= read; i++) {
+                if (matches(chunk, i, needle)) {
+                    return position + i;
+                }
+            }
+            if (read < needle.length) {
+                return -1;
+            }
+            // Overlap chunks so a marker crossing the boundary is still found
+            position += read - needle.length + 1;
+        }
+        return -1;
+    }
+
+    private static boolean matches(byte[] chunk, int offset, byte[] needle) {
+        for (int j = 0; j < needle.length; j++) {
+            if (chunk[offset + j] != needle[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // "2024-01-01 12:00:00.000 [thread] ..." starts a new record, anything else continues the previous one
+    private static boolean isRecordStart(String line) {
+        return line.length() > TIMESTAMP_LENGTH + 1
+                && line.charAt(4) == '-'
+                && line.charAt(10) == ' '
+                && line.charAt(TIMESTAMP_LENGTH) == ' '
+                && line.charAt(TIMESTAMP_LENGTH + 1) == '[';
+    }
+
+    /**
+     * Stops after a fixed number of bytes, so lines appended while the slice is read are not included
+     */
+    private static final class BoundedInputStream extends InputStream {
+        private final InputStream in;
+        private long remaining;
+
+        BoundedInputStream(InputStream in, long limit) {
+            this.in = in;
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = in.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = in.read(buffer, offset, (int) Math.min(length, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Re-encodes the kept lines one at a time; holds at most one line in memory
+     */
+    private static final class ThreadLinesInputStream extends InputStream {
+        private final BufferedReader reader;
+        private final String threadPrefix;
+        private boolean inThreadRecord;
+        private byte[] line = new byte[0];
+        private int position;
+
+        ThreadLinesInputStream(BufferedReader reader, String threadName) {
+            this.reader = reader;
+            this.threadPrefix = "[" + threadName + "] ";
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!fill()) {
+                return -1;
+            }
+            return line[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int count = Math.min(length, line.length - position);
+            System.arraycopy(line, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+
+        private boolean fill() throws IOException {
+            while (position >= line.length) {
+                String next = reader.readLine();
+                if (next == null) {
+                    return false;
+                }
+                if (isRecordStart(next)) {
+                    inThreadRecord = next.startsWith(threadPrefix, TIMESTAMP_LENGTH + 1);
+                }
+                if (inThreadRecord) {
+                    line = (next + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+                    position = 0;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.waits;
+
+import io.appium.java_client.AppiumDriver;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebElement;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Condition-based waits that return as soon as the UI is ready
+ * Polling starts near the historical mean of the same wait and backs off up to a cap
+ */
+public class WaitEngine {
+
+    private static final Logger logger = LogManager.getLogger(WaitEngine.class);
+
+    private static final long MIN_POLL_MILLIS = 25;
+    private static final long MAX_POLL_MILLIS = 500;
+    private static final double BACKOFF = 1.5;
+
+    private final AppiumDriver driver;
+    private final Duration defaultTimeout;
+    private final WaitStats stats;
+
+    public WaitEngine(AppiumDriver driver, Duration defaultTimeout) {
+        this(driver, defaultTimeout, WaitStats.global());
+    }
+
+    public WaitEngine(AppiumDriver driver, Duration defaultTimeout, WaitStats stats) {
+        this.driver = driver;
+        this.defaultTimeout = defaultTimeout;
+        this.stats = stats;
+    }
+
+    /**
+     * Poll until the condition returns a non-null, non-false value
+     * @throws TimeoutException when the condition is not met in time
+     */
+    public <T> T until(String name, Duration timeout, Supplier<T> condition) {
+        long start = System.currentTimeMillis();
+        long deadline = start + timeout.toMillis();
+        long interval = initialInterval(name);
+        int polls = 0;
+        RuntimeException lastError = null;
+
+        while (true) {
+            polls++;
+            try {
+                T value = condition.get();
+                if (value != null && !Boolean.FALSE.equals(value)) {
+                    stats.record(name, System.currentTimeMillis() - start, polls, true);
+                    return value;
+                }
+            } catch (NotFoundException | StaleElementReferenceException e) {
+                lastError = e;
+            }
+
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                long elapsed = System.currentTimeMillis() - start;
+                stats.record(name, elapsed, polls, false);
+                throw new TimeoutException("Wait '" + name + "' not satisfied after " + elapsed + " ms", lastError);
+            }
+            sleep(Math.min(interval, remaining));
+            interval = Math.min(MAX_POLL_MILLIS, (long) (interval * BACKOFF));
+        }
+    }
+
+    public <T> T until(String name, Supplier<T> condition) {
+        return until(name, defaultTimeout, condition);
+    }
+
+    /**
+     * Same as {@link #until} but reports a timeout as false instead of throwing
+     */
+    public boolean await(String name, Duration timeout, BooleanSupplier condition) {
+        try {
+            return until(name, timeout, condition::getAsBoolean);
+        } catch (TimeoutException e) {
+            logger.info(e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * UI is idle once two consecutive page-source snapshots are identical
+     */
+    public boolean waitForUiIdle(String name, Duration timeout) {
+        String[] last = {null};
+        return await(name + " (ui idle)", timeout, () -> {
+            String source = driver.getPageSource();
+            boolean stable = source.equals(last[0]);
+            last[0] = source;
+            return stable;
+        });
+    }
+
+    public boolean waitForUiIdle(String name) {
+        return waitForUiIdle(name, defaultTimeout);
+    }
+
+    /**
+     * Wait until a concrete (non-proxy) element is detached from the hierarchy, e.g. after navigation
+     */
+    public boolean waitForStaleness(String name, WebElement element, Duration timeout) {
+        return await(name + " (staleness)", timeout, () -> {
+            try {
+                element.isEnabled();
+                return false;
+            } catch (StaleElementReferenceException | NotFoundException e) {
+                return true;
+            }
+        });
+    }
+
+    public boolean waitForStaleness(String name, WebElement element) {
+        return waitForStaleness(name, element, defaultTimeout);
+    }
+
+    /**
+     * Wait until a result list has at least one entry
+     */
+    public boolean waitForPopulated(String name, Supplier<? extends Collection<?>> list, Duration timeout) {
+        return await(name + " (populated)", timeout, () -> !list.get().isEmpty());
+    }
+
+    public boolean waitForPopulated(String name, Supplier<? extends Collection<?>> list) {
+        return waitForPopulated(name, list, defaultTimeout);
+    }
+
+    private long initialInterval(String name) {
+        long mean = stats.meanMillis(name);
+        if (mean < 0) {
+            return MIN_POLL_MILLIS * 2;
+        }
+        return Math.max(MIN_POLL_MILLIS, Math.min(MAX_POLL_MILLIS, mean / 4));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Wait interrupted", e);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.waits;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Per-wait timing statistics shared by all threads
+ * Each named wait keeps call count, total/max time, polls and timeouts
+ */
+public class WaitStats {
+
+    private static final WaitStats GLOBAL = new WaitStats();
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public static WaitStats global() {
+        return GLOBAL;
+    }
+
+    public void record(String name, long elapsedMillis, int polls, boolean satisfied) {
+        Entry entry = entries.computeIfAbsent(name, n -> new Entry());
+        entry.calls.incrementAndGet();
+        entry.totalMillis.addAndGet(elapsedMillis);
+        entry.polls.addAndGet(polls);
+        entry.maxMillis.accumulateAndGet(elapsedMillis, Math::max);
+        if (!satisfied) {
+            entry.timeouts.incrementAndGet();
+        }
+    }
+
+    // Mean time of previous calls, used to pick the first polling interval
+    public long meanMillis(String name) {
+        Entry entry = entries.get(name);
+        if (entry == null || entry.calls.get() == 0) {
+            return -1;
+        }
+        return entry.totalMillis.get() / entry.calls.get();
+    }
+
+    public long totalMillis() {
+        return entries.values().stream().mapToLong(e -> e.totalMillis.get()).sum();
+    }
+
+    public void reset() {
+        entries.clear();
+    }
+
+    public String summary() {
+        return entries.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, Entry> e) -> e.getValue().totalMillis.get()).reversed())
+                .map(e -> String.format("%-40s calls=%d total=%dms mean=%dms max=%dms polls=%d timeouts=%d",
+                        e.getKey(),
+                        e.getValue().calls.get(),
+                        e.getValue().totalMillis.get(),
+                        e.getValue().totalMillis.get() / Math.max(1, e.getValue().calls.get()),
+                        e.getValue().maxMillis.get(),
+                        e.getValue().polls.get(),
+                        e.getValue().timeouts.get()))
+                .collect(Collectors.joining(System.lineSeparator()));
+    }
+
+    private static final class Entry {
+        private final AtomicLong calls = new AtomicLong();
+        private final AtomicLong totalMillis = new AtomicLong();
+        private final AtomicLong maxMillis = new AtomicLong();
+        private final AtomicLong polls = new AtomicLong();
+        private final AtomicLong timeouts = new AtomicLong();
+    }
+}